@@ -0,0 +1,40 @@
+plugins {
+    id("me.champeau.jmh")
+}
+
+dependencies {
+    jmh(project(":common"))
+
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+// The tests drive the load harness, so ./gradlew check runs a small load with faults
+sourceSets.test {
+    compileClasspath += sourceSets["jmh"].output + sourceSets["jmh"].compileClasspath
+    runtimeClasspath += sourceSets["jmh"].output + sourceSets["jmh"].runtimeClasspath
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+jmh {
+    // Report allocations per operation next to the timings
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    findProperty("jmh.includes")?.toString()?.let { includes.add(it) }
+}
+
+// End-to-end load and fault-injection run against an in-process Discord stand-in, e.g.
+// ./gradlew :benchmarks:loadHarness -Pharness.args="--webhooks=500 --drop-rate=0.05"
+tasks.register<JavaExec>("loadHarness") {
+    group = "benchmark"
+    description = "Drives Connect Notify against a stub Discord server with injected faults"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.minekube.connect.notify.benchmarks.LoadHarness")
+    findProperty("harness.args")?.toString()?.let { args(it.split(" ").filter(String::isNotBlank)) }
+}
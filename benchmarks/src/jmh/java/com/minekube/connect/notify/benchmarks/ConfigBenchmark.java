@@ -0,0 +1,81 @@
+package com.minekube.connect.notify.benchmarks;
+
+import com.minekube.connect.notify.common.ConnectConfigReader;
+import com.minekube.connect.notify.common.NotifyConfig;
+import com.minekube.connect.notify.common.NotifyLogger;
+import com.minekube.connect.notify.common.NotifySettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Parse cost of this plugin's config.yml and of Minekube Connect's config.yml, and the cost of reading
+ * the cached Connect endpoint while the file is unchanged.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConfigBenchmark {
+
+    private Path pluginsFolder;
+    private NotifyLogger logger;
+    private NotifyConfig notifyConfig;
+    private ConnectConfigReader connectConfigReader;
+
+    @Setup
+    public void setup() throws IOException {
+        Logger julLogger = Logger.getLogger("ConfigBenchmark");
+        julLogger.setLevel(Level.OFF);
+        logger = NotifyLogger.of(julLogger);
+
+        pluginsFolder = Files.createTempDirectory("connect-notify-bench");
+        File dataFolder = pluginsFolder.resolve("ConnectNotify").toFile();
+        Path connectFolder = Files.createDirectories(pluginsFolder.resolve("connect"));
+        Files.writeString(connectFolder.resolve("config.yml"), "endpoint: my-server\nname: my-server\n");
+
+        notifyConfig = new NotifyConfig(dataFolder, logger);
+        // Writes the default config once so the benchmark measures parsing only
+        notifyConfig.load();
+        connectConfigReader = new ConnectConfigReader(pluginsFolder.toFile(), logger);
+        connectConfigReader.readEndpoint();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(pluginsFolder)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public NotifySettings notifyConfigLoad() {
+        notifyConfig.load();
+        return notifyConfig.get();
+    }
+
+    @Benchmark
+    public String connectReadEndpointCold() {
+        // A fresh reader has nothing cached, so this parses the file
+        return new ConnectConfigReader(pluginsFolder.toFile(), logger).readEndpoint();
+    }
+
+    @Benchmark
+    public String connectReadEndpointCached() {
+        return connectConfigReader.readEndpoint();
+    }
+}
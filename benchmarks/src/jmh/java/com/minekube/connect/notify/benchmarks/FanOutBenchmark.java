@@ -0,0 +1,91 @@
+package com.minekube.connect.notify.benchmarks;
+
+import com.minekube.connect.notify.common.DiscordWebhook;
+import com.minekube.connect.notify.common.EmbedTemplate;
+import com.minekube.connect.notify.common.NotifyExecutor;
+import com.minekube.connect.notify.common.NotifyLogger;
+import com.minekube.connect.notify.common.WebhookDispatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * End-to-end throughput of one notification fanned out to several webhooks
+ * on an in-process stub server. Multiply the score by {@code webhooks} for sends per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FanOutBenchmark {
+
+    @Param({"12"})
+    public int webhooks;
+
+    @Param({"8"})
+    public int maxConcurrentRequests;
+
+    @Param({"0", "20"})
+    public long latencyMillis;
+
+    /**
+     * Every n-th request gets a 429, {@code 0} disables rate limiting.
+     */
+    @Param({"0", "10"})
+    public int rateLimitEvery;
+
+    private StubDiscordServer server;
+    private NotifyExecutor executor;
+    private WebhookDispatcher dispatcher;
+    private List<String> webhookUrls;
+    private EmbedTemplate template;
+    private String[] values;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Logger julLogger = Logger.getLogger("FanOutBenchmark");
+        julLogger.setLevel(java.util.logging.Level.OFF);
+        NotifyLogger logger = NotifyLogger.of(julLogger);
+
+        server = new StubDiscordServer(latencyMillis, rateLimitEvery);
+        executor = new NotifyExecutor(logger, 4, 1024, false);
+        dispatcher = new WebhookDispatcher(logger, executor, maxConcurrentRequests);
+        webhookUrls = new ArrayList<>();
+        for (int i = 0; i < webhooks; i++) {
+            webhookUrls.add(server.webhookUrl(i));
+        }
+
+        template = DiscordWebhook.compile(DiscordWebhook.ONLINE_LAYOUT, "Connect Notify", "https://github.com/minekube.png");
+        values = new String[EmbedTemplate.Placeholder.COUNT];
+        values[EmbedTemplate.Placeholder.ENDPOINT.ordinal()] = "my-server.play.minekube.net";
+        values[EmbedTemplate.Placeholder.PLAYERS.ordinal()] = "17";
+        values[EmbedTemplate.Placeholder.MAX.ordinal()] = "100";
+        values[EmbedTemplate.Placeholder.PLATFORM.ordinal()] = "Paper";
+        values[EmbedTemplate.Placeholder.TIMESTAMP.ordinal()] = Instant.now().toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dispatcher.close();
+        executor.shutdown(1, TimeUnit.SECONDS);
+        server.close();
+    }
+
+    @Benchmark
+    public int broadcast() {
+        return dispatcher.broadcast(webhookUrls, template.render(values)).join();
+    }
+}
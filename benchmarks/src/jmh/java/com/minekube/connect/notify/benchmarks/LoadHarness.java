@@ -0,0 +1,389 @@
+package com.minekube.connect.notify.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.minekube.connect.notify.common.ConnectNotify;
+import com.minekube.connect.notify.common.ConnectNotifyPlatform;
+import com.minekube.connect.notify.common.NotifyLogger;
+import com.minekube.connect.notify.common.PlayerListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Drives {@link ConnectNotify} end to end against a {@link StubDiscordServer} with faults injected,
+ * and reports throughput, tail latency and loss. Runs offline.
+ * <p>
+ * A fake platform enables the plugin with hundreds of webhooks on the stub server, then sends the online
+ * notification at a fixed rate. Every notification carries its sequence number as the player count, so the
+ * server can tell which notification each accepted embed belongs to, even when they are packed together.
+ * Latency is measured from sending a notification until the server accepted it for a webhook.
+ * <p>
+ * Options are given as {@code --name=value}, see {@link #DEFAULTS}. {@code LoadHarnessTest} runs a small
+ * configuration as part of the build.
+ */
+public final class LoadHarness {
+
+    private static final String[][] DEFAULTS = {
+            {"webhooks", "200"},
+            {"events", "1000"},
+            // Notifications per second, 0 to send them all at once
+            {"rate", "20"},
+            {"max-concurrent-requests", "32"},
+            {"executor-threads", "4"},
+            {"outbox", "true"},
+            {"latency-ms", "20"},
+            // Discord allows about 5 requests per 2 seconds per webhook
+            {"bucket-size", "5"},
+            {"bucket-reset-ms", "2000"},
+            // Answer every n-th request with a 429 regardless of the bucket, 0 to never do so
+            {"rate-limit-every", "0"},
+            {"server-error-rate", "0.02"},
+            // Answer every n-th request to each webhook with a 5xx, 0 to never do so
+            {"server-error-every", "0"},
+            {"slow-read-rate", "0.01"},
+            {"slow-read-ms", "2000"},
+            {"drop-rate", "0.01"},
+            // Drop every n-th request to each webhook, 0 to never do so
+            {"drop-every", "0"},
+            {"seed", "42"},
+            // How long to wait for the last notifications after sending them
+            {"timeout-seconds", "120"},
+            {"verbose", "false"},
+    };
+
+    private final Map<String, String> options;
+    private final int webhooks;
+    private final int events;
+
+    private final long[] sentAt;
+    // Per webhook and event, how often the server accepted it, and the latency of the first time
+    private final AtomicIntegerArray acceptCounts;
+    private final long[] latencies;
+    private final AtomicLong unique = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong warnings = new AtomicLong();
+
+    private volatile int current;
+
+    LoadHarness(Map<String, String> options) {
+        this.options = options;
+        this.webhooks = intOption("webhooks");
+        this.events = intOption("events");
+        this.sentAt = new long[events];
+        this.acceptCounts = new AtomicIntegerArray(webhooks * events);
+        this.latencies = new long[webhooks * events];
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options;
+        try {
+            options = options(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + ", expected one of:");
+            for (String[] option : DEFAULTS) {
+                System.err.println("  --" + option[0] + "=" + option[1]);
+            }
+            System.exit(2);
+            return;
+        }
+        new LoadHarness(options).run();
+        // The plugin's threads are daemons, but the stub server's are not
+        System.exit(0);
+    }
+
+    /**
+     * Parses {@code --name=value} arguments over the {@link #DEFAULTS}.
+     *
+     * @throws IllegalArgumentException If an option is unknown
+     */
+    static Map<String, String> options(String... args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String[] option : DEFAULTS) {
+            options.put(option[0], option[1]);
+        }
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = arg.startsWith("--") ? arg.substring(2, separator < 0 ? arg.length() : separator) : arg;
+            if (!options.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+            options.put(name, separator < 0 ? "true" : arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Runs the load, prints the report and returns its figures.
+     */
+    Result run() throws Exception {
+        StubDiscordServer.Faults faults = new StubDiscordServer.Faults()
+                .latency(longOption("latency-ms"))
+                .rateLimitEvery(intOption("rate-limit-every"))
+                .bucket(intOption("bucket-size"), longOption("bucket-reset-ms"))
+                .serverErrors(doubleOption("server-error-rate"))
+                .serverErrorEvery(intOption("server-error-every"))
+                .slowReads(doubleOption("slow-read-rate"), longOption("slow-read-ms"))
+                .drops(doubleOption("drop-rate"))
+                .dropEvery(intOption("drop-every"))
+                .seed(longOption("seed"));
+        Path root = Files.createTempDirectory("connect-notify-load");
+        File dataFolder = new File(root.toFile(), "plugins/ConnectNotify");
+        Files.createDirectories(dataFolder.toPath());
+
+        try (StubDiscordServer server = new StubDiscordServer(faults, this::accepted)) {
+            writeConfig(dataFolder, server);
+            ConnectNotify notify = new ConnectNotify(platform(dataFolder));
+            System.out.println("Sending " + events + " notifications to " + webhooks + " webhooks with " + options);
+
+            notify.onEnable();
+            notify.whenEnabled().get(30, TimeUnit.SECONDS);
+
+            long start = System.nanoTime();
+            CompletableFuture<?>[] sends = new CompletableFuture<?>[events];
+            double rate = doubleOption("rate");
+            for (int seq = 0; seq < events; seq++) {
+                if (rate > 0) {
+                    long due = start + (long) (seq * 1e9 / rate);
+                    while (System.nanoTime() < due) {
+                        LockSupport.parkNanos(due - System.nanoTime());
+                    }
+                }
+                current = seq;
+                sentAt[seq] = System.nanoTime();
+                sends[seq] = notify.sendOnlineNotification();
+            }
+            long sent = System.nanoTime();
+
+            boolean complete = true;
+            try {
+                CompletableFuture.allOf(sends).get(longOption("timeout-seconds"), TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                complete = false;
+            }
+            long end = System.nanoTime();
+            long confirmed = 0;
+            for (CompletableFuture<?> send : sends) {
+                if (send.isDone()) {
+                    confirmed += (Integer) send.join();
+                }
+            }
+
+            long shutdownStart = System.nanoTime();
+            notify.onDisable();
+            long shutdown = System.nanoTime() - shutdownStart;
+
+            report(server, sent - start, end - start, shutdown, confirmed, complete);
+            return new Result((long) webhooks * events, unique.get(), duplicates.get(), confirmed, complete,
+                    shutdown, server.getRateLimitedCount(), server.getServerErrorCount(), server.getDroppedCount());
+        } finally {
+            try (Stream<Path> files = Files.walk(root)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    private void writeConfig(File dataFolder, StubDiscordServer server) throws IOException {
+        StringBuilder config = new StringBuilder("auto-reload: false\n")
+                .append("discord:\n  webhooks:\n");
+        for (int i = 0; i < webhooks; i++) {
+            config.append("    - '").append(server.webhookUrl(i)).append("'\n");
+        }
+        config.append("  max-concurrent-requests: ").append(intOption("max-concurrent-requests")).append('\n')
+                .append("notifications:\n  online: false\n  offline: false\n")
+                .append("restarts:\n  enabled: false\n")
+                .append("outbox:\n  enabled: ").append(options.get("outbox")).append('\n')
+                .append("executor:\n  threads: ").append(intOption("executor-threads")).append('\n')
+                .append("metrics:\n  jmx: false\n")
+                .append("ping:\n  enabled: false\n")
+                // The player count is the sequence number of the notification
+                .append("embeds:\n  online:\n    description: 'Load test notification {players}'\n");
+        Files.write(new File(dataFolder, "config.yml").toPath(), config.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ConnectNotifyPlatform platform(File dataFolder) {
+        Logger logger = Logger.getLogger("ConnectNotify-LoadHarness");
+        logger.setUseParentHandlers(Boolean.parseBoolean(options.get("verbose")));
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+                    warnings.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        return new ConnectNotifyPlatform() {
+            @Override
+            public String getPlatformName() {
+                return "LoadHarness";
+            }
+
+            @Override
+            public File getDataFolder() {
+                return dataFolder;
+            }
+
+            @Override
+            public NotifyLogger getNotifyLogger() {
+                return NotifyLogger.of(logger);
+            }
+
+            @Override
+            public void registerPlayerListener(PlayerListener listener) {
+            }
+
+            @Override
+            public int getOnlinePlayerCount() {
+                return current;
+            }
+
+            @Override
+            public int getMaxPlayerCount() {
+                return events;
+            }
+        };
+    }
+
+    /**
+     * Counts the notifications in a request the stub server accepted.
+     */
+    private void accepted(int webhookId, byte[] body) {
+        long now = System.nanoTime();
+        JsonObject payload = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+        for (JsonElement embed : payload.getAsJsonArray("embeds")) {
+            String description = embed.getAsJsonObject().get("description").getAsString();
+            int seq = Integer.parseInt(description.substring(description.lastIndexOf(' ') + 1));
+            int index = webhookId * events + seq;
+            if (acceptCounts.getAndIncrement(index) == 0) {
+                latencies[index] = now - sentAt[seq];
+                unique.incrementAndGet();
+            } else {
+                duplicates.incrementAndGet();
+            }
+        }
+    }
+
+    private void report(StubDiscordServer server, long sendNanos, long totalNanos, long shutdownNanos,
+                        long confirmed, boolean complete) {
+        long expected = (long) webhooks * events;
+        long delivered = unique.get();
+        long[] sorted = new long[(int) delivered];
+        int n = 0;
+        for (int i = 0; i < latencies.length && n < sorted.length; i++) {
+            if (acceptCounts.get(i) > 0) {
+                sorted[n++] = latencies[i];
+            }
+        }
+        Arrays.sort(sorted, 0, n);
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Sent %d notifications in %.1fs, all settled after %.1fs%s%n",
+                events, sendNanos / 1e9, totalNanos / 1e9, complete ? "" : " (timed out)");
+        System.out.printf(Locale.ROOT, "Throughput:  %.0f deliveries/s, %.0f requests/s%n",
+                delivered / (totalNanos / 1e9), server.getRequestCount() / (totalNanos / 1e9));
+        System.out.printf(Locale.ROOT, "Latency:     p50 %s, p90 %s, p99 %s, p99.9 %s, max %s%n",
+                millis(sorted, n, 0.5), millis(sorted, n, 0.9), millis(sorted, n, 0.99),
+                millis(sorted, n, 0.999), n > 0 ? formatMillis(sorted[n - 1]) : "—");
+        System.out.printf(Locale.ROOT, "Loss:        %d/%d deliveries lost (%.3f%%), %d duplicates, %d confirmed to the caller%n",
+                expected - delivered, expected, 100.0 * (expected - delivered) / expected, duplicates.get(), confirmed);
+        System.out.printf(Locale.ROOT, "Requests:    %d total, %d accepted, %d rate limited, %d server errors, %d slow reads, %d dropped%n",
+                server.getRequestCount(), server.getAcceptedCount(), server.getRateLimitedCount(),
+                server.getServerErrorCount(), server.getSlowReadCount(), server.getDroppedCount());
+        System.out.printf(Locale.ROOT, "Shutdown:    %.0fms, %d warnings logged%n", shutdownNanos / 1e6, warnings.get());
+    }
+
+    private static String millis(long[] sorted, int n, double percentile) {
+        if (n == 0) {
+            return "—";
+        }
+        return formatMillis(sorted[(int) Math.min(n - 1, Math.ceil(percentile * n) - 1)]);
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.1fms", nanos / 1e6);
+    }
+
+    private int intOption(String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    private long longOption(String name) {
+        return Long.parseLong(options.get(name));
+    }
+
+    private double doubleOption(String name) {
+        return Double.parseDouble(options.get(name));
+    }
+
+    /**
+     * The figures of a run.
+     */
+    static final class Result {
+        private final long expected;
+        private final long delivered;
+        private final long duplicates;
+        private final long confirmed;
+        private final boolean complete;
+        private final long shutdownNanos;
+        private final long rateLimited;
+        private final long serverErrors;
+        private final long dropped;
+
+        Result(long expected, long delivered, long duplicates, long confirmed, boolean complete, long shutdownNanos,
+               long rateLimited, long serverErrors, long dropped) {
+            this.expected = expected;
+            this.delivered = delivered;
+            this.duplicates = duplicates;
+            this.confirmed = confirmed;
+            this.complete = complete;
+            this.shutdownNanos = shutdownNanos;
+            this.rateLimited = rateLimited;
+            this.serverErrors = serverErrors;
+            this.dropped = dropped;
+        }
+
+        /** The number of deliveries, one per webhook and notification */
+        long getExpected() { return expected; }
+        /** The number of deliveries the server accepted at least once */
+        long getDelivered() { return delivered; }
+        /** The number of times the server accepted a delivery again */
+        long getDuplicates() { return duplicates; }
+        /** The number of deliveries the sends reported as successful */
+        long getConfirmed() { return confirmed; }
+        /** Whether all sends completed before the timeout */
+        boolean isComplete() { return complete; }
+        long getShutdownNanos() { return shutdownNanos; }
+        long getRateLimited() { return rateLimited; }
+        long getServerErrors() { return serverErrors; }
+        long getDropped() { return dropped; }
+    }
+}
@@ -0,0 +1,53 @@
+package com.minekube.connect.notify.benchmarks;
+
+import com.minekube.connect.notify.common.DiscordWebhook;
+import com.minekube.connect.notify.common.EmbedTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a webhook payload, per notification and per config load.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PayloadBenchmark {
+
+    private EmbedTemplate template;
+    private String[] values;
+
+    @Setup
+    public void setup() {
+        template = DiscordWebhook.compile(DiscordWebhook.ONLINE_LAYOUT, "Connect Notify", "https://github.com/minekube.png");
+        values = new String[EmbedTemplate.Placeholder.COUNT];
+        values[EmbedTemplate.Placeholder.ENDPOINT.ordinal()] = "my-server.play.minekube.net";
+        values[EmbedTemplate.Placeholder.PLAYERS.ordinal()] = "17";
+        values[EmbedTemplate.Placeholder.MAX.ordinal()] = "100";
+        values[EmbedTemplate.Placeholder.PLATFORM.ordinal()] = "Paper";
+        values[EmbedTemplate.Placeholder.TIMESTAMP.ordinal()] = Instant.now().toString();
+    }
+
+    /**
+     * Rendering a precompiled template, as done for every notification.
+     */
+    @Benchmark
+    public byte[] render() {
+        return template.render(values);
+    }
+
+    /**
+     * Building the JSON tree with Gson and compiling it, as done once per config load.
+     */
+    @Benchmark
+    public EmbedTemplate compile() {
+        return DiscordWebhook.compile(DiscordWebhook.ONLINE_LAYOUT, "Connect Notify", "https://github.com/minekube.png");
+    }
+}
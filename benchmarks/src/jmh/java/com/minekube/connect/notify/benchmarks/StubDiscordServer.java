@@ -0,0 +1,340 @@
+package com.minekube.connect.notify.benchmarks;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Discord webhook API with configurable latency and fault injection.
+ * <p>
+ * Accepted requests get a 204, or a 200 with the created message for {@code ?wait=true}. Each webhook
+ * has its own rate limit bucket that is reported in the {@code X-RateLimit-*} headers like Discord does,
+ * and requests beyond it get a 429 with {@code Retry-After}. On top of that, requests can randomly get a
+ * 5xx, be read slowly or have their connection dropped without a response, either at random or every n-th
+ * request to a webhook.
+ */
+public final class StubDiscordServer implements AutoCloseable {
+
+    private static final int[] SERVER_ERRORS = {500, 502, 503};
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Faults faults;
+    private final DeliveryListener listener;
+    private final Random random;
+    private final Map<String, long[]> buckets = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> webhookRequests = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong serverErrors = new AtomicLong();
+    private final AtomicLong slowReads = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param latencyMillis  Time to wait before answering each request
+     * @param rateLimitEvery Answer every n-th request with a 429, or {@code 0} to never rate limit
+     */
+    public StubDiscordServer(long latencyMillis, int rateLimitEvery) throws IOException {
+        this(new Faults().latency(latencyMillis).rateLimitEvery(rateLimitEvery), null);
+    }
+
+    /**
+     * @param listener Called with the body of every accepted request, or {@code null}
+     */
+    public StubDiscordServer(Faults faults, DeliveryListener listener) throws IOException {
+        this.faults = faults;
+        this.listener = listener;
+        this.random = new Random(faults.seed);
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/api/webhooks/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Gets the URL of a webhook on this server.
+     */
+    public String webhookUrl(int id) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/webhooks/" + id + "/token";
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    public long getServerErrorCount() {
+        return serverErrors.get();
+    }
+
+    public long getSlowReadCount() {
+        return slowReads.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long n = requests.incrementAndGet();
+        String webhookId = exchange.getRequestURI().getPath().split("/")[3];
+        long webhookN = webhookRequests.computeIfAbsent(webhookId, id -> new AtomicLong()).incrementAndGet();
+        if (roll(faults.dropRate) || every(faults.dropEvery, webhookN)) {
+            dropped.incrementAndGet();
+            // Closing before the response headers are sent drops the connection
+            exchange.close();
+            return;
+        }
+
+        if (roll(faults.slowReadRate)) {
+            slowReads.incrementAndGet();
+            sleep(faults.slowReadMillis);
+        }
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        sleep(faults.latencyMillis);
+
+        Headers headers = exchange.getResponseHeaders();
+        if (faults.rateLimitEvery > 0 && n % faults.rateLimitEvery == 0) {
+            rateLimited.incrementAndGet();
+            headers.add("Retry-After", "0.01");
+            headers.add("X-RateLimit-Scope", "user");
+            respond(exchange, 429, null);
+            return;
+        }
+
+        long retryAfterNanos = takeFromBucket(webhookId, headers);
+        if (retryAfterNanos > 0) {
+            rateLimited.incrementAndGet();
+            headers.add("Retry-After", seconds(retryAfterNanos));
+            headers.add("X-RateLimit-Scope", "user");
+            respond(exchange, 429, "{\"message\":\"You are being rate limited.\",\"retry_after\":"
+                    + seconds(retryAfterNanos) + ",\"global\":false}");
+            return;
+        }
+
+        if (roll(faults.serverErrorRate) || every(faults.serverErrorEvery, webhookN)) {
+            serverErrors.incrementAndGet();
+            respond(exchange, SERVER_ERRORS[(int) (n % SERVER_ERRORS.length)], null);
+            return;
+        }
+
+        accepted.incrementAndGet();
+        if (listener != null) {
+            listener.accepted(Integer.parseInt(webhookId), body);
+        }
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null && query.contains("wait=true")) {
+            headers.add("Content-Type", "application/json");
+            respond(exchange, 200, "{\"id\":\"" + n + "\",\"webhook_id\":\"" + webhookId + "\"}");
+        } else {
+            respond(exchange, 204, null);
+        }
+    }
+
+    /**
+     * Takes a request from the webhook's bucket and adds its state to the response headers.
+     *
+     * @return {@code 0} if the request is allowed, otherwise the nanoseconds until the bucket resets
+     */
+    private long takeFromBucket(String webhookId, Headers headers) {
+        if (faults.bucketSize <= 0) {
+            return 0;
+        }
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(faults.bucketResetMillis);
+        long[] bucket = buckets.computeIfAbsent(webhookId, id -> new long[2]);
+        long now = System.nanoTime();
+        long resetAfter;
+        long remaining;
+        synchronized (bucket) {
+            // [0] is when the window started, [1] the requests in it
+            if (bucket[1] == 0 || now - bucket[0] >= windowNanos) {
+                bucket[0] = now;
+                bucket[1] = 0;
+            }
+            resetAfter = bucket[0] + windowNanos - now;
+            if (bucket[1] >= faults.bucketSize) {
+                remaining = -1;
+            } else {
+                bucket[1]++;
+                remaining = faults.bucketSize - bucket[1];
+            }
+        }
+
+        headers.add("X-RateLimit-Bucket", "webhook-" + webhookId);
+        headers.add("X-RateLimit-Limit", Integer.toString(faults.bucketSize));
+        headers.add("X-RateLimit-Remaining", Long.toString(Math.max(0, remaining)));
+        headers.add("X-RateLimit-Reset-After", seconds(resetAfter));
+        return remaining < 0 ? resetAfter : 0;
+    }
+
+    private boolean roll(double rate) {
+        return rate > 0 && random.nextDouble() < rate;
+    }
+
+    private static boolean every(int n, long request) {
+        return n > 0 && request % n == 0;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e9);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Receives the requests the server accepted.
+     */
+    @FunctionalInterface
+    public interface DeliveryListener {
+        void accepted(int webhookId, byte[] body);
+    }
+
+    /**
+     * What the server does besides accepting requests. Nothing by default.
+     */
+    public static final class Faults {
+        private long latencyMillis;
+        private int rateLimitEvery;
+        private int bucketSize;
+        private long bucketResetMillis;
+        private double serverErrorRate;
+        private int serverErrorEvery;
+        private double slowReadRate;
+        private long slowReadMillis;
+        private double dropRate;
+        private int dropEvery;
+        private long seed = 42;
+
+        /**
+         * Waits before answering each request.
+         */
+        public Faults latency(long millis) {
+            this.latencyMillis = millis;
+            return this;
+        }
+
+        /**
+         * Answers every n-th request with a 429, regardless of the buckets.
+         */
+        public Faults rateLimitEvery(int n) {
+            this.rateLimitEvery = n;
+            return this;
+        }
+
+        /**
+         * Allows each webhook {@code size} requests per window, like Discord's per-route buckets.
+         */
+        public Faults bucket(int size, long resetMillis) {
+            this.bucketSize = size;
+            this.bucketResetMillis = resetMillis;
+            return this;
+        }
+
+        /**
+         * Answers this fraction of requests with a 500, 502 or 503.
+         */
+        public Faults serverErrors(double rate) {
+            this.serverErrorRate = rate;
+            return this;
+        }
+
+        /**
+         * Answers every n-th request to each webhook with a 500, 502 or 503. Unlike random faults, periodic
+         * ones of at least every 3rd request never fail three requests to a webhook in a row, which would
+         * pause it for half a minute.
+         */
+        public Faults serverErrorEvery(int n) {
+            this.serverErrorEvery = n;
+            return this;
+        }
+
+        /**
+         * Waits before reading the body of this fraction of requests.
+         */
+        public Faults slowReads(double rate, long millis) {
+            this.slowReadRate = rate;
+            this.slowReadMillis = millis;
+            return this;
+        }
+
+        /**
+         * Closes the connection of this fraction of requests without a response.
+         */
+        public Faults drops(double rate) {
+            this.dropRate = rate;
+            return this;
+        }
+
+        /**
+         * Closes the connection of every n-th request to each webhook without a response.
+         */
+        public Faults dropEvery(int n) {
+            this.dropEvery = n;
+            return this;
+        }
+
+        /**
+         * Seeds the random faults, so that runs are comparable.
+         */
+        public Faults seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.minekube.connect.notify.benchmarks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadHarnessTest {
+
+    // The shutdown deadline of the default config, plus some slack
+    private static final long MAX_SHUTDOWN_MS = 4000;
+
+    @Test
+    @Timeout(value = 2, unit = TimeUnit.MINUTES)
+    void deliversEveryNotificationOnceDespiteFaults() throws Exception {
+        // Periodic instead of random faults, since three failures in a row would pause a webhook for half a minute
+        LoadHarness.Result result = new LoadHarness(LoadHarness.options(
+                "--webhooks=20",
+                "--events=200",
+                "--rate=0",
+                "--latency-ms=5",
+                "--bucket-size=50",
+                "--bucket-reset-ms=1000",
+                "--rate-limit-every=20",
+                "--server-error-rate=0",
+                "--server-error-every=7",
+                "--slow-read-rate=0",
+                "--drop-rate=0",
+                "--drop-every=11",
+                "--timeout-seconds=60")).run();
+
+        assertTrue(result.getRateLimited() > 0, "no 429s");
+        assertTrue(result.getServerErrors() > 0, "no 5xx");
+        assertTrue(result.getDropped() > 0, "no dropped connections");
+        assertTrue(result.isComplete(), "sends did not complete");
+        assertEquals(result.getExpected(), result.getDelivered(), "delivered");
+        assertEquals(0, result.getDuplicates(), "duplicates");
+        assertEquals(result.getExpected(), result.getConfirmed(), "confirmed");
+        long shutdownMillis = TimeUnit.NANOSECONDS.toMillis(result.getShutdownNanos());
+        assertTrue(shutdownMillis <= MAX_SHUTDOWN_MS, "shutdown took " + shutdownMillis + "ms");
+    }
+}
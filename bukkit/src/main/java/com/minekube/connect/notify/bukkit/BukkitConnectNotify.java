@@ -2,11 +2,19 @@ package com.minekube.connect.notify.bukkit;
 
 import com.minekube.connect.notify.common.ConnectNotify;
 import com.minekube.connect.notify.common.ConnectNotifyPlatform;
+import com.minekube.connect.notify.common.FleetTransport;
+import com.minekube.connect.notify.common.NotifyLogger;
+import com.minekube.connect.notify.common.PlayerListener;
+import com.minekube.connect.notify.common.TickSampler;
 import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
-import java.util.logging.Logger;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
 
 /**
  * Bukkit/Spigot/Paper implementation of Connect Notify.
@@ -14,9 +22,12 @@ import java.util.logging.Logger;
 public class BukkitConnectNotify extends JavaPlugin implements ConnectNotifyPlatform {
 
     private ConnectNotify connectNotify;
+    private Thread mainThread;
 
     @Override
     public void onEnable() {
+        // Plugins are enabled on the main thread, Connect Notify then sets up in the background
+        mainThread = Thread.currentThread();
         connectNotify = new ConnectNotify(this);
         connectNotify.onEnable();
     }
@@ -33,11 +44,16 @@ public class BukkitConnectNotify extends JavaPlugin implements ConnectNotifyPlat
         return Bukkit.getName();
     }
 
-    // getDataFolder() and getLogger() are inherited from JavaPlugin
+    // getDataFolder() is inherited from JavaPlugin
 
     @Override
-    public void runAsync(Runnable task) {
-        Bukkit.getScheduler().runTaskAsynchronously(this, task);
+    public NotifyLogger getNotifyLogger() {
+        return NotifyLogger.of(getLogger());
+    }
+
+    @Override
+    public void registerPlayerListener(PlayerListener listener) {
+        getServer().getPluginManager().registerEvents(new BukkitPlayerListener(listener), this);
     }
 
     @Override
@@ -49,5 +65,73 @@ public class BukkitConnectNotify extends JavaPlugin implements ConnectNotifyPlat
     public int getMaxPlayerCount() {
         return Bukkit.getMaxPlayers();
     }
+
+    @Override
+    public CompletableFuture<Void> sampleLatency(IntConsumer sink) {
+        Collection<? extends Player> players = Bukkit.getOnlinePlayers();
+        if (!players.isEmpty()) {
+            try {
+                long total = 0;
+                for (Player player : players) {
+                    total += player.getPing();
+                }
+                sink.accept((int) (total / players.size()));
+            } catch (NoSuchMethodError e) {
+                // Player#getPing was added in 1.17
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean registerTickSampler(TickSampler sampler) {
+        if (!BukkitTickListener.isSupported()) {
+            return false;
+        }
+        runOnMainThread(this, () -> getServer().getPluginManager()
+                .registerEvents(new BukkitTickListener(sampler::recordTick), this));
+        return true;
+    }
+
+    @Override
+    public Thread registerHeartbeat(Runnable heartbeat) {
+        runOnMainThread(this, () -> {
+            if (BukkitTickListener.isSupported()) {
+                // Folia has no main thread and fires no tick events, so the watchdog never starts checking
+                getServer().getPluginManager().registerEvents(new BukkitTickListener(duration -> heartbeat.run()), this);
+            } else {
+                getServer().getScheduler().runTaskTimer(this, heartbeat, 1, 1);
+            }
+        });
+        return mainThread;
+    }
+
+    @Override
+    public boolean isStopping() {
+        try {
+            return Bukkit.isStopping();
+        } catch (NoSuchMethodError e) {
+            // Server#isStopping was added in Paper 1.19
+            return false;
+        }
+    }
+
+    @Override
+    public FleetTransport openFleetTransport() {
+        return new BukkitFleetTransport(this);
+    }
+
+    /**
+     * Runs a task on the main thread, right away if called on it or else on the next tick.
+     * Bukkit only allows registering listeners and plugin channels on the main thread,
+     * while Connect Notify sets up in the background.
+     */
+    static void runOnMainThread(Plugin plugin, Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            plugin.getServer().getScheduler().runTask(plugin, task);
+        }
+    }
 }
 
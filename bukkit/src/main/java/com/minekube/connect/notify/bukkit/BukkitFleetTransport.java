@@ -0,0 +1,84 @@
+package com.minekube.connect.notify.bukkit;
+
+import com.minekube.connect.notify.common.FleetTransport;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerRegisterChannelEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * Sends fleet reports to the proxy over the plugin messaging channel.
+ * <p>
+ * Plugin messages travel through a player's connection, so a report sent while no player
+ * is connected waits until the next player's connection registers the channel.
+ * The channel is registered and reports are sent on the main thread.
+ */
+public class BukkitFleetTransport implements FleetTransport, Listener {
+
+    private final Plugin plugin;
+    private final AtomicReference<byte[]> pending = new AtomicReference<>();
+
+    public BukkitFleetTransport(Plugin plugin) {
+        this.plugin = plugin;
+        BukkitConnectNotify.runOnMainThread(plugin, () -> {
+            plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, CHANNEL);
+            plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        });
+    }
+
+    @Override
+    public void send(byte[] report) {
+        BukkitConnectNotify.runOnMainThread(plugin, () -> sendNow(report));
+    }
+
+    private void sendNow(byte[] report) {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            if (player.getListeningPluginChannels().contains(CHANNEL)) {
+                player.sendPluginMessage(plugin, CHANNEL, report);
+                pending.set(null);
+                return;
+            }
+        }
+        pending.set(report);
+    }
+
+    @EventHandler
+    public void onRegisterChannel(PlayerRegisterChannelEvent event) {
+        if (!CHANNEL.equals(event.getChannel())) {
+            return;
+        }
+        byte[] report = pending.getAndSet(null);
+        if (report != null) {
+            event.getPlayer().sendPluginMessage(plugin, CHANNEL, report);
+        }
+    }
+
+    @Override
+    public void setReceiver(BiConsumer<String, byte[]> receiver) {
+        // Backends only send
+    }
+
+    @Override
+    public Collection<String> getServers() {
+        return List.of();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> ping(String server) {
+        return CompletableFuture.completedFuture(false);
+    }
+
+    @Override
+    public void close() {
+        HandlerList.unregisterAll(this);
+        plugin.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin, CHANNEL);
+    }
+}
@@ -0,0 +1,30 @@
+package com.minekube.connect.notify.bukkit;
+
+import com.minekube.connect.notify.common.PlayerListener;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Forwards Bukkit player join and quit events to Connect Notify.
+ */
+public class BukkitPlayerListener implements Listener {
+
+    private final PlayerListener listener;
+
+    public BukkitPlayerListener(PlayerListener listener) {
+        this.listener = listener;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        listener.onPlayerJoin(event.getPlayer().getUniqueId(), event.getPlayer().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        listener.onPlayerQuit(event.getPlayer().getUniqueId(), event.getPlayer().getName());
+    }
+}
@@ -0,0 +1,37 @@
+package com.minekube.connect.notify.bukkit;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Passes the duration of every server tick in nanoseconds to Connect Notify, using Paper's tick event.
+ */
+public class BukkitTickListener implements Listener {
+
+    private final LongConsumer listener;
+
+    public BukkitTickListener(LongConsumer listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Checks whether the server fires tick events, which Spigot does not.
+     */
+    public static boolean isSupported() {
+        try {
+            Class.forName("com.destroystokyo.paper.event.server.ServerTickEndEvent");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        listener.accept((long) (event.getTickDuration() * 1_000_000));
+    }
+}
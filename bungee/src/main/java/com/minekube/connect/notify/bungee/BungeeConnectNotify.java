@@ -2,12 +2,19 @@ package com.minekube.connect.notify.bungee;
 
 import com.minekube.connect.notify.common.ConnectNotify;
 import com.minekube.connect.notify.common.ConnectNotifyPlatform;
+import com.minekube.connect.notify.common.FleetTransport;
+import com.minekube.connect.notify.common.NotifyLogger;
+import com.minekube.connect.notify.common.PlayerListener;
 import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.plugin.Plugin;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.logging.Logger;
+import java.util.function.IntConsumer;
 
 /**
  * BungeeCord implementation of Connect Notify.
@@ -34,11 +41,16 @@ public class BungeeConnectNotify extends Plugin implements ConnectNotifyPlatform
         return "BungeeCord";
     }
 
-    // getDataFolder() and getLogger() are inherited from Plugin
+    // getDataFolder() is inherited from Plugin
 
     @Override
-    public void runAsync(Runnable task) {
-        ProxyServer.getInstance().getScheduler().schedule(this, task, 0, TimeUnit.MILLISECONDS);
+    public NotifyLogger getNotifyLogger() {
+        return NotifyLogger.of(getLogger());
+    }
+
+    @Override
+    public void registerPlayerListener(PlayerListener listener) {
+        getProxy().getPluginManager().registerListener(this, new BungeePlayerListener(listener));
     }
 
     @Override
@@ -50,5 +62,33 @@ public class BungeeConnectNotify extends Plugin implements ConnectNotifyPlatform
     public int getMaxPlayerCount() {
         return ProxyServer.getInstance().getConfig().getPlayerLimit();
     }
+
+    @Override
+    public CompletableFuture<Void> sampleLatency(IntConsumer sink) {
+        // Round-trip time of a status ping to each backend; unreachable backends are skipped
+        List<CompletableFuture<?>> pings = new ArrayList<>();
+        for (ServerInfo server : getProxy().getServers().values()) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            long start = System.nanoTime();
+            server.ping((ping, error) -> {
+                if (error == null) {
+                    sink.accept((int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+                done.complete(null);
+            });
+            pings.add(done);
+        }
+        return CompletableFuture.allOf(pings.toArray(new CompletableFuture<?>[0]));
+    }
+
+    @Override
+    public boolean isProxy() {
+        return true;
+    }
+
+    @Override
+    public FleetTransport openFleetTransport() {
+        return new BungeeFleetTransport(this);
+    }
 }
 
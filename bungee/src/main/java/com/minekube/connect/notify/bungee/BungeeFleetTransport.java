@@ -0,0 +1,78 @@
+package com.minekube.connect.notify.bungee;
+
+import com.minekube.connect.notify.common.FleetTransport;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.Server;
+import net.md_5.bungee.api.event.PluginMessageEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.api.plugin.Plugin;
+import net.md_5.bungee.event.EventHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Receives fleet reports from the backend servers over the plugin messaging channel.
+ */
+public class BungeeFleetTransport implements FleetTransport, Listener {
+
+    private final Plugin plugin;
+    private volatile BiConsumer<String, byte[]> receiver;
+
+    public BungeeFleetTransport(Plugin plugin) {
+        this.plugin = plugin;
+        plugin.getProxy().registerChannel(CHANNEL);
+        plugin.getProxy().getPluginManager().registerListener(plugin, this);
+    }
+
+    @EventHandler
+    public void onPluginMessage(PluginMessageEvent event) {
+        if (!CHANNEL.equals(event.getTag())) {
+            return;
+        }
+        // Never forward the reports, and only trust the ones sent by a backend
+        event.setCancelled(true);
+        if (!(event.getSender() instanceof Server)) {
+            return;
+        }
+        BiConsumer<String, byte[]> handler = receiver;
+        if (handler != null) {
+            handler.accept(((Server) event.getSender()).getInfo().getName(), event.getData());
+        }
+    }
+
+    @Override
+    public void send(byte[] report) {
+        // The proxy has nobody to report to
+    }
+
+    @Override
+    public void setReceiver(BiConsumer<String, byte[]> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public Collection<String> getServers() {
+        return new ArrayList<>(plugin.getProxy().getServers().keySet());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> ping(String server) {
+        ServerInfo info = plugin.getProxy().getServerInfo(server);
+        if (info == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        info.ping((ping, error) -> result.complete(error == null));
+        return result;
+    }
+
+    @Override
+    public void close() {
+        receiver = null;
+        plugin.getProxy().getPluginManager().unregisterListener(this);
+        plugin.getProxy().unregisterChannel(CHANNEL);
+    }
+}
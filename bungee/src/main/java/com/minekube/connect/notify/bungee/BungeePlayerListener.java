@@ -0,0 +1,30 @@
+package com.minekube.connect.notify.bungee;
+
+import com.minekube.connect.notify.common.PlayerListener;
+import net.md_5.bungee.api.event.PlayerDisconnectEvent;
+import net.md_5.bungee.api.event.PostLoginEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+import net.md_5.bungee.event.EventPriority;
+
+/**
+ * Forwards BungeeCord player login and disconnect events to Connect Notify.
+ */
+public class BungeePlayerListener implements Listener {
+
+    private final PlayerListener listener;
+
+    public BungeePlayerListener(PlayerListener listener) {
+        this.listener = listener;
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onPostLogin(PostLoginEvent event) {
+        listener.onPlayerJoin(event.getPlayer().getUniqueId(), event.getPlayer().getName());
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onDisconnect(PlayerDisconnectEvent event) {
+        listener.onPlayerQuit(event.getPlayer().getUniqueId(), event.getPlayer().getName());
+    }
+}
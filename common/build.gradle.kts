@@ -6,5 +6,12 @@ dependencies {
     // These will be shaded in the final jar
     api("com.google.code.gson:gson:2.10.1")
     api("org.yaml:snakeyaml:2.2")
+
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
+tasks.test {
+    useJUnitPlatform()
+}
@@ -0,0 +1,165 @@
+package com.minekube.connect.notify.common;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One message per webhook that is posted once and then edited in place.
+ * The message ids are persisted in a file in the data folder, so the messages survive restarts.
+ * <p>
+ * Discord applies edits of the same message in the order they arrive, not the order they were sent,
+ * so {@link #update(String, byte[])} keeps at most one edit per message in flight.
+ */
+public class BoardMessages {
+
+    private final File stateFile;
+    private final String description;
+    private final NotifyLogger logger;
+    private final WebhookDispatcher dispatcher;
+
+    // Webhook id with the URL's query, e.g. a thread id -> id of the message
+    private final Map<String, String> messageIds = new ConcurrentHashMap<>();
+    // Webhook id with the URL's query -> the edit in flight and the payload waiting for it
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    /**
+     * @param description Describes the messages in logs and in the state file, e.g. "status board"
+     */
+    public BoardMessages(File stateFile, String description, NotifyLogger logger, WebhookDispatcher dispatcher) {
+        this.stateFile = stateFile;
+        this.description = description;
+        this.logger = logger;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Edits the existing message, or posts a new one if there is none or it was deleted.
+     *
+     * @return A future completing with {@code true} once the message shows the payload
+     */
+    public CompletableFuture<Boolean> publish(String webhookUrl, byte[] payload) {
+        String messageId = messageIds.get(key(webhookUrl));
+        if (messageId == null) {
+            return post(webhookUrl, payload);
+        }
+
+        return dispatcher.editMessage(webhookUrl, messageId, payload).thenCompose(status -> {
+            if (status == 404) {
+                logger.debug("The {} message was deleted, posting a new one", description);
+                messageIds.remove(key(webhookUrl), messageId);
+                return post(webhookUrl, payload);
+            }
+            return CompletableFuture.completedFuture(status >= 200 && status < 300);
+        });
+    }
+
+    /**
+     * Shows the payload once the edit in flight, if any, has finished, posting a new message if there is none.
+     * A payload still waiting for that edit is replaced, so only the latest one is sent.
+     *
+     * @return A future completing with {@code true} once the message shows the payload, or a later one
+     */
+    public CompletableFuture<Boolean> update(String webhookUrl, byte[] payload) {
+        Slot slot = slots.computeIfAbsent(key(webhookUrl), key -> new Slot());
+        synchronized (slot) {
+            if (slot.inFlight) {
+                slot.waiting = payload;
+                if (slot.waitingResult == null) {
+                    slot.waitingResult = new CompletableFuture<>();
+                }
+                return slot.waitingResult;
+            }
+            slot.inFlight = true;
+        }
+        return send(webhookUrl, slot, payload);
+    }
+
+    private CompletableFuture<Boolean> send(String webhookUrl, Slot slot, byte[] payload) {
+        CompletableFuture<Boolean> sent = publish(webhookUrl, payload);
+        sent.whenComplete((ignored, error) -> {
+            byte[] next;
+            CompletableFuture<Boolean> nextResult;
+            synchronized (slot) {
+                next = slot.waiting;
+                nextResult = slot.waitingResult;
+                slot.waiting = null;
+                slot.waitingResult = null;
+                slot.inFlight = next != null;
+            }
+            if (next != null) {
+                send(webhookUrl, slot, next).whenComplete((shown, sendError) ->
+                        nextResult.complete(sendError == null && shown));
+            }
+        });
+        return sent;
+    }
+
+    /**
+     * Posts a new message, which replaces the message remembered for the webhook.
+     *
+     * @return A future completing with {@code true} once the message was posted
+     */
+    public CompletableFuture<Boolean> post(String webhookUrl, byte[] payload) {
+        return dispatcher.sendAndGetMessageId(webhookUrl, payload).thenApply(messageId -> {
+            if (messageId == null) {
+                return false;
+            }
+            messageIds.put(key(webhookUrl), messageId);
+            save();
+            return true;
+        });
+    }
+
+    /**
+     * Identifies the channel or thread a webhook URL posts to. The token is left out of the state file.
+     */
+    private static String key(String webhookUrl) {
+        int query = webhookUrl.indexOf('?');
+        String id = DiscordWebhook.webhookId(webhookUrl);
+        return query < 0 ? id : id + webhookUrl.substring(query);
+    }
+
+    /**
+     * Loads the message ids of the last run.
+     */
+    public synchronized void load() {
+        if (!stateFile.exists()) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(stateFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logger.warn("Failed to load {} state: {}", description, e.getMessage());
+            return;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            messageIds.put(key, properties.getProperty(key));
+        }
+    }
+
+    private synchronized void save() {
+        Properties properties = new Properties();
+        properties.putAll(messageIds);
+        try {
+            StateFiles.store(stateFile, properties, "Connect Notify " + description + " messages (webhook id = message id)");
+        } catch (IOException e) {
+            logger.warn("Failed to save {} state: {}", description, e.getMessage());
+        }
+    }
+
+    /**
+     * The edit of one message that is in flight, and the latest payload waiting for it.
+     */
+    private static final class Slot {
+        boolean inFlight;
+        byte[] waiting;
+        CompletableFuture<Boolean> waitingResult;
+    }
+}
@@ -0,0 +1,128 @@
+package com.minekube.connect.notify.common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Health state of one webhook.
+ * <p>
+ * After {@value #FAILURE_THRESHOLD} failures in a row (5xx responses or connection errors) the
+ * circuit opens and requests to the webhook fail fast. Once the open period is over, a single
+ * probe is allowed (half-open); if it succeeds the circuit closes, otherwise it opens again for
+ * twice as long. A webhook that was deleted or whose token is invalid is quarantined until the
+ * config changes, since retrying it can never succeed.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN, QUARANTINED
+    }
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long MIN_OPEN_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long MAX_OPEN_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final String webhookUrl;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openNanos;
+    private long openUntil;
+
+    public CircuitBreaker(String webhookUrl) {
+        this.webhookUrl = webhookUrl;
+    }
+
+    /**
+     * Checks whether a request may be sent. Requests are only allowed while the circuit is closed;
+     * the probe of a half-open circuit is sent by {@link #tryProbe()}.
+     */
+    public synchronized boolean allowRequest() {
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Moves an open circuit whose open period is over to half-open.
+     *
+     * @return {@code true} if the caller should send the probe
+     */
+    public synchronized boolean tryProbe() {
+        if (state != State.OPEN || System.nanoTime() - openUntil < 0) {
+            return false;
+        }
+        state = State.HALF_OPEN;
+        return true;
+    }
+
+    /**
+     * Records a response that shows the webhook works.
+     *
+     * @return {@code true} if this closed a circuit that was not closed before
+     */
+    public synchronized boolean recordSuccess() {
+        if (state == State.QUARANTINED) {
+            return false;
+        }
+        boolean recovered = state != State.CLOSED;
+        state = State.CLOSED;
+        failures = 0;
+        openNanos = 0;
+        return recovered;
+    }
+
+    /**
+     * Records a 5xx response or a failed connection.
+     *
+     * @return The time until the circuit may be probed if this opened it, or {@code 0} if it stays as it is
+     */
+    public synchronized long recordFailure() {
+        if (state == State.QUARANTINED || state == State.OPEN) {
+            return 0;
+        }
+        if (state == State.CLOSED && ++failures < FAILURE_THRESHOLD) {
+            return 0;
+        }
+
+        // Back off exponentially while probes keep failing
+        openNanos = openNanos == 0 ? MIN_OPEN_NANOS : Math.min(MAX_OPEN_NANOS, openNanos * 2);
+        openUntil = System.nanoTime() + openNanos;
+        state = State.OPEN;
+        return openNanos;
+    }
+
+    /**
+     * Stops all requests to a webhook that was deleted or whose token is invalid.
+     *
+     * @return {@code true} if the webhook was not quarantined before
+     */
+    public synchronized boolean quarantine() {
+        if (state == State.QUARANTINED) {
+            return false;
+        }
+        state = State.QUARANTINED;
+        return true;
+    }
+
+    /**
+     * Lifts a quarantine, e.g. after the config was changed.
+     */
+    public synchronized void reset() {
+        state = State.CLOSED;
+        failures = 0;
+        openNanos = 0;
+    }
+
+    /**
+     * Gets the time until an open circuit may be probed.
+     */
+    public synchronized long getRemainingOpenNanos() {
+        return state == State.OPEN ? Math.max(0, openUntil - System.nanoTime()) : 0;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getWebhookUrl() {
+        return webhookUrl;
+    }
+}
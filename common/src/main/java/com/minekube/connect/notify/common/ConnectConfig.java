@@ -0,0 +1,71 @@
+package com.minekube.connect.notify.common;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable model of the values Connect Notify reads from Minekube Connect's config.yml.
+ */
+public final class ConnectConfig {
+
+    /**
+     * Model of a missing or unreadable Connect config.
+     */
+    public static final ConnectConfig EMPTY = new ConnectConfig(null, null);
+
+    private final String endpoint;
+    private final String serverName;
+
+    public ConnectConfig(String endpoint, String serverName) {
+        this.endpoint = endpoint;
+        this.serverName = serverName;
+    }
+
+    /**
+     * Extracts the model from a parsed Connect config.yml.
+     */
+    public static ConnectConfig fromMap(Map<?, ?> config) {
+        // Try to find endpoint in various locations: root level, 'connect' section, 'name'
+        String endpoint = getString(config, "endpoint");
+        if (endpoint == null && config.get("connect") instanceof Map) {
+            endpoint = getString((Map<?, ?>) config.get("connect"), "endpoint");
+        }
+        if (endpoint == null) {
+            endpoint = getString(config, "name");
+        }
+
+        String serverName = getString(config, "server-name");
+        if (serverName == null) {
+            serverName = getString(config, "serverName");
+        }
+        return new ConnectConfig(endpoint, serverName);
+    }
+
+    private static String getString(Map<?, ?> map, String key) {
+        Object value = map.get(key);
+        return value instanceof String && !((String) value).isEmpty() ? (String) value : null;
+    }
+
+    /**
+     * @return The endpoint, or {@code null} if not configured
+     */
+    public String getEndpoint() { return endpoint; }
+
+    /**
+     * @return The server name, or {@code null} if not configured
+     */
+    public String getServerName() { return serverName; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ConnectConfig)) return false;
+        ConnectConfig that = (ConnectConfig) o;
+        return Objects.equals(endpoint, that.endpoint) && Objects.equals(serverName, that.serverName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(endpoint, serverName);
+    }
+}
@@ -5,21 +5,30 @@ import org.yaml.snakeyaml.Yaml;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
-import java.util.logging.Logger;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 
 /**
  * Reads the Minekube Connect plugin configuration to get the endpoint.
+ * <p>
+ * The file is parsed into a {@link ConnectConfig} once and cached by modification time and
+ * size, so repeated reads only cost a file stat. Listeners are told when the endpoint or
+ * server name changes, e.g. because Connect wrote its config after this plugin started.
  */
 public class ConnectConfigReader {
 
     private static final String CONNECT_CONFIG_PATH = "connect/config.yml";
 
-    private final File pluginsFolder;
-    private final Logger logger;
+    private final File configFile;
+    private final NotifyLogger logger;
+    private final List<BiConsumer<ConnectConfig, ConnectConfig>> listeners = new CopyOnWriteArrayList<>();
 
-    public ConnectConfigReader(File pluginsFolder, Logger logger) {
-        this.pluginsFolder = pluginsFolder;
+    private volatile Cached cached;
+
+    public ConnectConfigReader(File pluginsFolder, NotifyLogger logger) {
+        this.configFile = new File(pluginsFolder, CONNECT_CONFIG_PATH);
         this.logger = logger;
     }
 
@@ -29,110 +38,111 @@ public class ConnectConfigReader {
      * @return The endpoint string, or "unknown" if not found
      */
     public String readEndpoint() {
-        File configFile = new File(pluginsFolder, CONNECT_CONFIG_PATH);
-        if (configFile.exists()) {
-            String endpoint = readEndpointFromFile(configFile);
-            if (endpoint != null && !endpoint.isEmpty()) {
-                return endpoint;
-            }
-        }
+        String endpoint = get().getEndpoint();
+        return endpoint != null ? endpoint : "unknown";
+    }
 
-        logger.warning("Could not find Minekube Connect configuration at " + configFile.getPath() +
-                ". Make sure the Connect plugin is installed and configured.");
-        return "unknown";
+    /**
+     * Reads the server name from Connect's configuration.
+     *
+     * @return The server name, or "Minecraft Server" if not found
+     */
+    public String readServerName() {
+        String name = get().getServerName();
+        return name != null ? name : "Minecraft Server";
     }
 
-    @SuppressWarnings("unchecked")
-    private String readEndpointFromFile(File file) {
-        try (InputStream in = new FileInputStream(file)) {
-            Yaml yaml = new Yaml();
-            Map<String, Object> config = yaml.load(in);
-            if (config == null) {
-                return null;
-            }
+    /**
+     * Gets the current Connect config, parsing the file again only if it changed on disk.
+     */
+    public ConnectConfig get() {
+        long lastModified = configFile.lastModified();
+        long length = configFile.length();
+        Cached current = cached;
+        if (current != null && current.lastModified == lastModified && current.length == length) {
+            return current.config;
+        }
+        return reload(lastModified, length);
+    }
 
-            // Try to find endpoint in various locations
-            // Check root level
-            if (config.containsKey("endpoint")) {
-                Object endpoint = config.get("endpoint");
-                if (endpoint instanceof String) {
-                    return (String) endpoint;
-                }
-            }
+    /**
+     * Registers a listener that is called with the previous and the new config
+     * whenever the endpoint or server name changes.
+     */
+    public void addChangeListener(BiConsumer<ConnectConfig, ConnectConfig> listener) {
+        listeners.add(listener);
+    }
 
-            // Check under 'connect' section
-            if (config.containsKey("connect")) {
-                Object connectSection = config.get("connect");
-                if (connectSection instanceof Map) {
-                    Map<String, Object> connect = (Map<String, Object>) connectSection;
-                    if (connect.containsKey("endpoint")) {
-                        Object endpoint = connect.get("endpoint");
-                        if (endpoint instanceof String) {
-                            return (String) endpoint;
-                        }
-                    }
-                }
-            }
+    public File getFile() {
+        return configFile;
+    }
 
-            // Check for 'name' which might be used as endpoint
-            if (config.containsKey("name")) {
-                Object name = config.get("name");
-                if (name instanceof String) {
-                    return (String) name;
+    private synchronized ConnectConfig reload(long lastModified, long length) {
+        Cached current = cached;
+        if (current != null && current.lastModified == lastModified && current.length == length) {
+            return current.config;
+        }
+        ConnectConfig previous = current != null ? current.config : null;
+        ConnectConfig loaded = configFile.exists() ? parse() : ConnectConfig.EMPTY;
+        if (loaded == null) {
+            // Keep the last good values, e.g. while Connect is halfway through writing the file
+            loaded = previous != null ? previous : ConnectConfig.EMPTY;
+        }
+        cached = new Cached(lastModified, length, loaded);
+
+        if (loaded.equals(previous)) {
+            return loaded;
+        }
+        if (loaded.getEndpoint() == null) {
+            logger.warn("Could not find Minekube Connect configuration at {}. Make sure the Connect plugin is installed and configured.",
+                    configFile.getPath());
+        }
+        if (previous != null) {
+            for (BiConsumer<ConnectConfig, ConnectConfig> listener : listeners) {
+                try {
+                    listener.accept(previous, loaded);
+                } catch (Exception e) {
+                    logger.warn("Failed to apply changed Connect config", e);
                 }
             }
-
-            logger.fine("Connect config found at " + file.getPath() + " but no endpoint field found");
-        } catch (Exception e) {
-            logger.warning("Failed to read Connect config at " + file.getPath() + ": " + e.getMessage());
         }
-        return null;
+        return loaded;
     }
 
     /**
-     * Reads the server name from Connect's configuration.
-     *
-     * @return The server name, or "Minecraft Server" if not found
+     * @return The parsed config, or {@code null} if the file could not be read
      */
-    public String readServerName() {
-        File configFile = new File(pluginsFolder, CONNECT_CONFIG_PATH);
-        if (configFile.exists()) {
-            String name = readServerNameFromFile(configFile);
-            if (name != null && !name.isEmpty()) {
-                return name;
-            }
-        }
-        return "Minecraft Server";
-    }
-
-    @SuppressWarnings("unchecked")
-    private String readServerNameFromFile(File file) {
-        try (InputStream in = new FileInputStream(file)) {
+    private ConnectConfig parse() {
+        try (InputStream in = new FileInputStream(configFile)) {
             Yaml yaml = new Yaml();
-            Map<String, Object> config = yaml.load(in);
+            Map<?, ?> config = yaml.load(in);
             if (config == null) {
-                return null;
-            }
-
-            // Check for server name
-            if (config.containsKey("server-name")) {
-                Object name = config.get("server-name");
-                if (name instanceof String) {
-                    return (String) name;
-                }
+                return ConnectConfig.EMPTY;
             }
 
-            if (config.containsKey("serverName")) {
-                Object name = config.get("serverName");
-                if (name instanceof String) {
-                    return (String) name;
-                }
+            ConnectConfig parsed = ConnectConfig.fromMap(config);
+            if (parsed.getEndpoint() == null) {
+                logger.debug("Connect config found at {} but no endpoint field found", configFile.getPath());
             }
-
+            return parsed;
         } catch (Exception e) {
-            // Ignore, not critical
+            logger.warn("Failed to read Connect config at {}: {}", configFile.getPath(), e.getMessage());
+            return null;
         }
-        return null;
     }
-}
 
+    /**
+     * A parsed config and the file attributes it was parsed at.
+     */
+    private static final class Cached {
+        private final long lastModified;
+        private final long length;
+        private final ConnectConfig config;
+
+        private Cached(long lastModified, long length, ConnectConfig config) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.config = config;
+        }
+    }
+}
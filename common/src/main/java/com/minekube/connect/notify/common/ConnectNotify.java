@@ -1,99 +1,795 @@
 package com.minekube.connect.notify.common;
 
-import java.util.logging.Logger;
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Core logic for Connect Notify, shared across all platforms.
  */
-public class ConnectNotify {
+public class ConnectNotify implements PlayerListener {
+
+    private static final String STATUS_MESSAGES_FILE = "status-messages.properties";
+    // How long the online notification waits for the first latency samples
+    private static final long FIRST_SAMPLES_TIMEOUT_MS = 2000;
+    // How long stopping the server waits for a bootstrap that is still running
+    private static final long BOOTSTRAP_TIMEOUT_MS = 10000;
+    private static final int HTTP_MAX_BATCH_SIZE = 100;
 
     private final ConnectNotifyPlatform platform;
     private final NotifyConfig config;
     private final ConnectConfigReader connectConfig;
-    private final DiscordWebhook webhook;
-    private final Logger logger;
+    private final NotifyLogger logger;
+
+    private NotifyExecutor executor;
+    private NotificationOutbox outbox;
+    private WebhookDispatcher dispatcher;
+    private NotificationPipeline pipeline;
+    private StatusBoard statusBoard;
+    private PlayerDigest playerDigest;
+    private SessionReports sessionReports;
+    private FileWatcher fileWatcher;
+    private PrometheusExporter prometheusExporter;
+    private FleetTransport fleetTransport;
+    private FleetReporter fleetReporter;
+    private FleetBoard fleetBoard;
+    private RestartTracker restartTracker;
+    private BoardMessages statusMessages;
+    private PingMonitor pingMonitor;
+    private PerformanceMonitor performanceMonitor;
+    private StallWatchdog stallWatchdog;
 
-    private String cachedEndpoint;
+    private volatile String cachedEndpoint;
+    private volatile CompletableFuture<Void> keepAlive;
+
+    private final StartupTimings timings = new StartupTimings();
+    private CompletableFuture<Void> bootstrap;
+    // Set once the bootstrap has finished, after all of the above
+    private volatile boolean ready;
+    // Set when the plugin is disabled, which stops a bootstrap that is still running
+    private volatile boolean disabled;
 
     public ConnectNotify(ConnectNotifyPlatform platform) {
         this.platform = platform;
-        this.logger = platform.getLogger();
+        this.logger = platform.getNotifyLogger();
         this.config = new NotifyConfig(platform.getDataFolder(), logger);
         this.connectConfig = new ConnectConfigReader(platform.getPluginsFolder(), logger);
-        this.webhook = new DiscordWebhook(logger);
     }
 
     /**
      * Called when the plugin is enabled / server starts.
+     * Only registers the player listener on the calling thread and bootstraps the rest in the background,
+     * so loading the configs and connecting to Discord does not delay the server's startup.
      */
     public void onEnable() {
+        long start = System.nanoTime();
+        // Player events are ignored until the bootstrap has finished
+        platform.registerPlayerListener(this);
+        bootstrap = CompletableFuture.runAsync(() -> bootstrap(start),
+                task -> new DaemonThreadFactory("ConnectNotify-Bootstrap").newThread(task).start());
+        bootstrap.whenComplete((ignored, error) -> {
+            if (error != null) {
+                logger.error("Failed to enable Connect Notify", error.getCause());
+            }
+        });
+        timings.record("main-thread", start);
+    }
+
+    /**
+     * Sets up everything else, on the bootstrap thread.
+     */
+    private void bootstrap(long start) {
+        long phase = System.nanoTime();
         config.load();
+        NotifySettings settings = config.get();
+        phase = timings.record("config", phase);
+        if (disabled) {
+            return;
+        }
 
-        if (!config.hasWebhooks()) {
-            logger.warning("No Discord webhooks configured! Please add webhook URLs to config.yml");
+        executor = new NotifyExecutor(logger, settings.getExecutorThreads(),
+                settings.getExecutorQueueCapacity(), settings.isExecutorVirtualThreads());
+
+        if (settings.isOutboxEnabled()) {
+            outbox = new NotificationOutbox(platform.getDataFolder(), logger);
+            try {
+                outbox.open();
+            } catch (IOException e) {
+                logger.warn("Failed to open notification outbox, sending without it: {}", e.getMessage());
+                outbox.close();
+                outbox = null;
+            }
+        }
+        dispatcher = new WebhookDispatcher(logger, executor, settings.getMaxConcurrentRequests(), outbox,
+                settings.getOutboxMaxRetries(), TimeUnit.MINUTES.toMillis(settings.getOutboxMaxAgeMinutes()));
+        dispatcher.replay();
+        dispatcher.getMetrics().setStartupTimings(timings);
+        pipeline = createPipeline(settings);
+        startMetrics(settings);
+        phase = timings.record("dispatcher", phase);
+        if (disabled) {
             return;
         }
 
         // Cache Connect endpoint
         cachedEndpoint = connectConfig.readEndpoint();
+        phase = timings.record("connect-config", phase);
 
-        logger.info("Connect Notify enabled on " + platform.getPlatformName());
-        logger.info("Endpoint: " + cachedEndpoint);
+        logger.info("Connect Notify enabled on {}", platform.getPlatformName());
+        logger.info("Endpoint: {}", cachedEndpoint);
 
-        // Send online notification
-        if (config.isOnlineEnabled()) {
-            sendOnlineNotification();
+        CompletableFuture<Void> firstSamples = CompletableFuture.completedFuture(null);
+        if (settings.isPingEnabled()) {
+            pingMonitor = new PingMonitor(logger, platform, executor, () -> cachedEndpoint);
+            firstSamples = pingMonitor.start(settings.getPingIntervalSeconds())
+                    .completeOnTimeout(null, FIRST_SAMPLES_TIMEOUT_MS, TimeUnit.MILLISECONDS);
         }
+
+        if (settings.isFleetEnabled()) {
+            fleetTransport = platform.openFleetTransport();
+            if (fleetTransport == null) {
+                logger.warn("Fleet aggregation is not supported on {}", platform.getPlatformName());
+            } else if (!platform.isProxy()) {
+                fleetReporter = new FleetReporter(fleetTransport);
+            }
+        }
+
+        long downtime = -1;
+        boolean flapping = false;
+        if (settings.isRestartsEnabled() && fleetReporter == null) {
+            long now = System.currentTimeMillis();
+            restartTracker = new RestartTracker(platform.getDataFolder(), logger);
+            downtime = restartTracker.recordStart(now, TimeUnit.SECONDS.toMillis(settings.getRestartWindowSeconds()));
+            flapping = restartTracker.isFlapping(now, settings.getFlappingThreshold(),
+                    TimeUnit.MINUTES.toMillis(settings.getFlappingWindowMinutes()));
+            statusMessages = new BoardMessages(new File(platform.getDataFolder(), STATUS_MESSAGES_FILE),
+                    "status", logger, dispatcher);
+            statusMessages.load();
+        }
+
+        if (disabled) {
+            return;
+        }
+
+        // Send online notification, or let the proxy post it for the whole network
+        CompletableFuture<Long> firstSend = CompletableFuture.completedFuture(null);
+        if (fleetReporter != null) {
+            logger.info("Fleet aggregation enabled, reporting to the proxy instead of posting notifications");
+            fleetReporter.start();
+        } else {
+            if (!settings.hasWebhooks()) {
+                logger.warn("No Discord webhooks configured! Please add webhook URLs to config.yml");
+            }
+            // Connect to Discord while the rest is set up, and keep the connection for the offline notification
+            CompletableFuture<Void> warmUp = dispatcher.warmUp(settings.getWebhookUrls())
+                    .completeOnTimeout(null, FIRST_SAMPLES_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            startKeepAlive(settings);
+            if (settings.isOnlineEnabled()) {
+                long restartDowntime = downtime;
+                boolean restartFlapping = flapping;
+                // Let the notification show the measured latency, and send it over the warm connection
+                firstSend = CompletableFuture.allOf(firstSamples, warmUp).thenCompose(ignored -> {
+                    if (disabled) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    long sendStart = System.nanoTime();
+                    return sendStartNotification(settings, restartDowntime, restartFlapping)
+                            .thenApply(result -> timings.record("first-send", sendStart));
+                });
+            }
+        }
+
+        if (disabled) {
+            return;
+        }
+        if (settings.isStatusBoardEnabled()) {
+            statusBoard = new StatusBoard(platform.getDataFolder(), logger, config, dispatcher, executor,
+                    () -> placeholders(platform.getOnlinePlayerCount(), platform.getMaxPlayerCount()));
+            statusBoard.start();
+        }
+
+        if (settings.isPlayerDigestEnabled()) {
+            playerDigest = new PlayerDigest(config, dispatcher, executor);
+            playerDigest.start();
+        }
+
+        if (settings.isSessionReportsEnabled() && fleetReporter == null) {
+            sessionReports = new SessionReports(logger, platform.getDataFolder(), config, pipeline, executor,
+                    () -> placeholders(platform.getOnlinePlayerCount(), platform.getMaxPlayerCount()));
+            sessionReports.start();
+        }
+
+        if (fleetTransport != null && platform.isProxy()) {
+            fleetBoard = new FleetBoard(platform.getDataFolder(), logger, config, dispatcher, executor, fleetTransport,
+                    () -> placeholders(platform.getOnlinePlayerCount(), platform.getMaxPlayerCount()));
+            fleetBoard.start();
+        }
+
+        if (disabled) {
+            return;
+        }
+        if (settings.isPerformanceEnabled()) {
+            performanceMonitor = new PerformanceMonitor(logger, config, pipeline, executor,
+                    () -> placeholders(platform.getOnlinePlayerCount(), platform.getMaxPlayerCount()));
+            if (platform.registerTickSampler(performanceMonitor.getSampler())) {
+                performanceMonitor.start();
+            } else {
+                logger.warn("Performance alerts are not supported on {}", platform.getPlatformName());
+                performanceMonitor = null;
+            }
+        }
+
+        if (settings.isWatchdogEnabled()) {
+            stallWatchdog = new StallWatchdog(logger, config, dispatcher, pipeline,
+                    () -> placeholders(platform.getOnlinePlayerCount(), platform.getMaxPlayerCount()), platform::isStopping);
+            Thread mainThread = platform.registerHeartbeat(stallWatchdog::beat);
+            if (mainThread != null) {
+                stallWatchdog.start(mainThread);
+            } else {
+                logger.warn("The stall watchdog is not supported on {}", platform.getPlatformName());
+                stallWatchdog = null;
+            }
+        }
+
+        if (disabled) {
+            return;
+        }
+        config.addReloadListener(this::onConfigReload);
+        connectConfig.addChangeListener(this::onConnectConfigChange);
+        try {
+            fileWatcher = new FileWatcher(logger);
+            if (settings.isAutoReload()) {
+                fileWatcher.watch(config.getFile().toPath(), config::load);
+            }
+            watchConnectConfig();
+        } catch (IOException e) {
+            logger.warn("Failed to watch config files, changes require a restart: {}", e.getMessage());
+        }
+        ready = true;
+        timings.record("features", phase);
+
+        long enabledAt = timings.record("total", start);
+        // Log the breakdown once the first notification is out, or right away if there is none
+        firstSend.thenRun(() -> logger.info("Started in {}ms ({})",
+                TimeUnit.NANOSECONDS.toMillis(enabledAt - start), timings));
     }
 
     /**
      * Called when the plugin is disabled / server stops.
      */
     public void onDisable() {
-        if (!config.hasWebhooks()) {
+        if (bootstrap == null) {
             return;
         }
-
-        // Send offline notification (synchronously since server is shutting down)
-        if (config.isOfflineEnabled()) {
-            sendOfflineNotification();
+        // A bootstrap that is still running stops at its next phase
+        disabled = true;
+        if (!awaitBootstrap()) {
+            // Close what it set up once it stops, or right away if it failed
+            bootstrap.whenComplete((ignored, error) -> {
+                stopMonitors();
+                close(List.of(), System.nanoTime());
+            });
+            return;
         }
+        stopMonitors();
 
+        // Wait for the offline notifications since the server is shutting down
+        long start = System.nanoTime();
+        List<CompletableFuture<Boolean>> sends = ready ? sendShutdownNotifications() : List.of();
+        close(sends, start);
         logger.info("Connect Notify disabled");
     }
 
-    private void sendOnlineNotification() {
-        platform.runAsync(() -> {
-            for (String webhookUrl : config.getWebhookUrls()) {
-                webhook.sendOnlineEmbed(
-                        webhookUrl,
-                        cachedEndpoint,
-                        platform.getOnlinePlayerCount(),
-                        platform.getMaxPlayerCount(),
-                        config.getBotUsername(),
-                        config.getBotAvatarUrl()
-                );
+    /**
+     * Stops everything that watches the server, before the shutdown notifications are sent.
+     */
+    private void stopMonitors() {
+        // The main thread is busy shutting down, which is not a stall
+        if (stallWatchdog != null) {
+            stallWatchdog.stop();
+        }
+        if (fileWatcher != null) {
+            fileWatcher.close();
+        }
+        if (pingMonitor != null) {
+            pingMonitor.stop();
+        }
+        if (performanceMonitor != null) {
+            performanceMonitor.stop();
+        }
+        stopKeepAlive();
+    }
+
+    /**
+     * Publishes the offline notification and the final board and digest updates.
+     *
+     * @return One future per message, completing with {@code true} once it was delivered
+     */
+    private List<CompletableFuture<Boolean>> sendShutdownNotifications() {
+        NotifySettings settings = config.get();
+        List<CompletableFuture<Boolean>> sends = new ArrayList<>();
+        if (fleetReporter != null) {
+            fleetReporter.stop();
+        } else if (settings.isOfflineEnabled()) {
+            String[] values = placeholders(0, platform.getMaxPlayerCount());
+            byte[] payload = settings.getOfflineTemplate().render(values);
+            if (statusMessages != null) {
+                // Keep the message id, so that a quick restart can edit the message instead of posting again
+                boolean flapping = restartTracker.isFlapping(System.currentTimeMillis(),
+                        settings.getFlappingThreshold(), TimeUnit.MINUTES.toMillis(settings.getFlappingWindowMinutes()));
+                sends.addAll(postStatus(settings.getWebhookUrls(), payload, flapping));
+                payload = null;
             }
+            sends.addAll(pipeline.publish(NotificationEvent.of("offline", values, payload)));
+        }
+        // Do not wait for the batching windows
+        pipeline.flush();
+        if (statusBoard != null) {
+            sends.addAll(statusBoard.stop());
+        }
+        if (playerDigest != null) {
+            sends.addAll(playerDigest.stop());
+        }
+        return sends;
+    }
+
+    /**
+     * Waits for the shutdown notifications and closes everything the bootstrap set up,
+     * also when it failed or was stopped half way.
+     */
+    private void close(List<CompletableFuture<Boolean>> sends, long start) {
+        NotifySettings settings = config.get();
+        if (restartTracker != null) {
+            restartTracker.recordStop(System.currentTimeMillis());
+        }
+        if (sessionReports != null) {
+            sessionReports.stop();
+        }
+        if (fleetBoard != null) {
+            fleetBoard.stop();
+        }
+        awaitShutdownNotifications(sends, start, settings.getShutdownDeadlineMs());
+
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        if (dispatcher != null) {
+            dispatcher.close();
+            dispatcher.getMetrics().unregisterMBeans();
+        }
+        if (fleetTransport != null) {
+            fleetTransport.close();
+        }
+        if (prometheusExporter != null) {
+            prometheusExporter.close();
+        }
+        if (executor != null) {
+            // Let callbacks of the requests that made it in time finish, e.g. their outbox acknowledgements
+            long remaining = settings.getShutdownDeadlineMs() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            executor.shutdown(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+        }
+        if (outbox != null) {
+            outbox.close();
+        }
+    }
+
+    /**
+     * Sends the online notification to all webhooks in parallel. Every call is delivered,
+     * also when a newer status was sent meanwhile.
+     *
+     * @return A future completing with the number of webhooks that accepted the message
+     */
+    public CompletableFuture<Integer> sendOnlineNotification() {
+        NotifySettings settings = config.get();
+        return sendOnlineNotification(settings, settings.getWebhookUrls(), false);
+    }
+
+    /**
+     * Sends the offline notification to all webhooks in parallel. Every call is delivered,
+     * also when a newer status was sent meanwhile.
+     *
+     * @return A future completing with the number of webhooks that accepted the message
+     */
+    public CompletableFuture<Integer> sendOfflineNotification() {
+        NotifySettings settings = config.get();
+        byte[] payload = settings.getOfflineTemplate().render(placeholders(0, platform.getMaxPlayerCount()));
+
+        return dispatcher.broadcast(settings.getWebhookUrls(), payload).thenApply(sent -> {
+            logger.info("Sent offline notification to {}/{} webhook(s)", sent, settings.getWebhookUrls().size());
+            return sent;
+        });
+    }
+
+    /**
+     * @param status Whether a retry is dropped once a newer status was sent,
+     *               see {@link WebhookDispatcher#send(String, byte[], boolean)}
+     */
+    private CompletableFuture<Integer> sendOnlineNotification(NotifySettings settings, List<String> webhookUrls,
+                                                              boolean status) {
+        byte[] payload = settings.getOnlineTemplate().render(
+                placeholders(platform.getOnlinePlayerCount(), platform.getMaxPlayerCount()));
 
-            logger.info("Sent online notification to " + config.getWebhookUrls().size() + " webhook(s)");
+        return dispatcher.broadcast(webhookUrls, payload, status).thenApply(sent -> {
+            logger.info("Sent online notification to {}/{} webhook(s)", sent, webhookUrls.size());
+            return sent;
         });
     }
 
-    private void sendOfflineNotification() {
-        // Run synchronously during shutdown
-        for (String webhookUrl : config.getWebhookUrls()) {
-            webhook.sendOfflineEmbed(
-                    webhookUrl,
-                    cachedEndpoint,
-                    config.getBotUsername(),
-                    config.getBotAvatarUrl()
-            );
+    /**
+     * Publishes the online notification, or turns the last Discord notification into a restart message
+     * if the server was only down briefly or keeps restarting.
+     *
+     * @return A future completing once the notification was delivered everywhere, or failed
+     */
+    private CompletableFuture<Void> sendStartNotification(NotifySettings settings, long downtime, boolean flapping) {
+        List<String> webhookUrls = settings.getWebhookUrls();
+        if (downtime < 0 && !flapping) {
+            String[] values = placeholders(platform.getOnlinePlayerCount(), platform.getMaxPlayerCount());
+            byte[] payload = settings.getOnlineTemplate().render(values);
+            if (statusMessages == null) {
+                return allOf(pipeline.publish(NotificationEvent.of("online", values, payload)));
+            }
+            // Posted to Discord here, so that a quick restart can edit the message
+            return CompletableFuture.allOf(
+                    logDelivery(postStatus(webhookUrls, payload, false), "online notification"),
+                    allOf(pipeline.publish(NotificationEvent.of("online", values, null))));
         }
 
-        logger.info("Sent offline notification to " + config.getWebhookUrls().size() + " webhook(s)");
+        if (flapping) {
+            logger.warn("Server restarted at least {} times within {} minutes, editing the last notification instead of posting new ones",
+                    settings.getFlappingThreshold(), settings.getFlappingWindowMinutes());
+        }
+        String[] values = placeholders(platform.getOnlinePlayerCount(), platform.getMaxPlayerCount());
+        values[EmbedTemplate.Placeholder.DOWNTIME.ordinal()] = downtime >= 0 ? RestartTracker.formatDuration(downtime) : "—";
+        byte[] payload = settings.getRestartedTemplate().render(values);
+        return CompletableFuture.allOf(
+                logDelivery(postStatus(webhookUrls, payload, true), "restart notification"),
+                allOf(pipeline.publish(NotificationEvent.of("restarted", values, null))));
+    }
+
+    private static CompletableFuture<Void> allOf(List<CompletableFuture<Boolean>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Sends notifications to Discord, and to the other sinks enabled in config.yml.
+     */
+    private NotificationPipeline createPipeline(NotifySettings settings) {
+        NotificationPipeline pipeline = new NotificationPipeline(logger, executor);
+        pipeline.addSink(new DiscordSink(logger, dispatcher, config::get));
+        if (settings.isSlackEnabled()) {
+            pipeline.addSink(new HttpSink("slack", logger, executor, settings.getSlackWebhookUrl(), Map.of(),
+                    settings.getSlackBatchWindowMs(), DiscordWebhook.MAX_EMBEDS, settings.getSlackMaxInFlight(),
+                    NotificationEncoders::slack));
+        }
+        if (settings.isHttpEnabled()) {
+            pipeline.addSink(new HttpSink("http", logger, executor, settings.getHttpUrl(), settings.getHttpHeaders(),
+                    settings.getHttpBatchWindowMs(), HTTP_MAX_BATCH_SIZE, settings.getHttpMaxInFlight(),
+                    NotificationEncoders::json));
+        }
+        if (settings.isFileEnabled()) {
+            File file = new File(settings.getFilePath());
+            if (!file.isAbsolute()) {
+                file = new File(platform.getDataFolder(), settings.getFilePath());
+            }
+            pipeline.addSink(new FileSink(logger, file, settings.getFileBatchWindowMs()));
+        }
+        List<String> sinks = pipeline.getSinkNames();
+        if (sinks.size() > 1) {
+            logger.info("Sending notifications to {}", String.join(", ", sinks));
+        }
+        return pipeline;
+    }
+
+    /**
+     * Posts a notification and remembers its message id, or edits the remembered message instead.
+     *
+     * @param edit Whether to edit the last notification, which is posted if there is none
+     * @return One future per webhook, completing with {@code true} once the message shows the payload
+     */
+    private List<CompletableFuture<Boolean>> postStatus(List<String> webhookUrls, byte[] payload, boolean edit) {
+        List<CompletableFuture<Boolean>> sends = new ArrayList<>(webhookUrls.size());
+        for (String webhookUrl : webhookUrls) {
+            sends.add(edit ? statusMessages.publish(webhookUrl, payload) : statusMessages.post(webhookUrl, payload));
+        }
+        return sends;
+    }
+
+    private CompletableFuture<Void> logDelivery(List<CompletableFuture<Boolean>> sends, String description) {
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+            long sent = sends.stream().filter(CompletableFuture::join).count();
+            logger.info("Sent {} to {}/{} webhook(s)", description, sent, sends.size());
+        });
+    }
+
+    private static boolean requiresRestart(NotifySettings previous, NotifySettings settings) {
+        return previous.isStatusBoardEnabled() != settings.isStatusBoardEnabled()
+                || previous.isPlayerDigestEnabled() != settings.isPlayerDigestEnabled()
+                || previous.isSessionReportsEnabled() != settings.isSessionReportsEnabled()
+                || previous.isOutboxEnabled() != settings.isOutboxEnabled()
+                || previous.isFleetEnabled() != settings.isFleetEnabled()
+                || previous.isRestartsEnabled() != settings.isRestartsEnabled()
+                || previous.isPingEnabled() != settings.isPingEnabled()
+                || previous.isPerformanceEnabled() != settings.isPerformanceEnabled()
+                || previous.isWatchdogEnabled() != settings.isWatchdogEnabled()
+                || previous.isSlackEnabled() != settings.isSlackEnabled()
+                || previous.isHttpEnabled() != settings.isHttpEnabled()
+                || previous.isFileEnabled() != settings.isFileEnabled()
+                || previous.getPerformanceWindowSeconds() != settings.getPerformanceWindowSeconds()
+                || previous.isAutoReload() != settings.isAutoReload()
+                || previous.getExecutorThreads() != settings.getExecutorThreads()
+                || previous.getExecutorQueueCapacity() != settings.getExecutorQueueCapacity()
+                || previous.isExecutorVirtualThreads() != settings.isExecutorVirtualThreads()
+                || previous.isMetricsJmxEnabled() != settings.isMetricsJmxEnabled()
+                || previous.isMetricsPrometheusEnabled() != settings.isMetricsPrometheusEnabled()
+                || previous.getMetricsPrometheusPort() != settings.getMetricsPrometheusPort();
+    }
+
+    /**
+     * Exports the delivery metrics as configured.
+     */
+    private void startMetrics(NotifySettings settings) {
+        if (settings.isMetricsJmxEnabled()) {
+            dispatcher.getMetrics().registerMBeans();
+        }
+        if (settings.isMetricsPrometheusEnabled()) {
+            try {
+                prometheusExporter = new PrometheusExporter(dispatcher.getMetrics(),
+                        settings.getMetricsPrometheusPort(), executor);
+                logger.info("Serving metrics on http://{}:{}/metrics",
+                        prometheusExporter.getAddress().getHostString(), prometheusExporter.getAddress().getPort());
+            } catch (IOException e) {
+                logger.warn("Failed to start Prometheus metrics endpoint on port {}: {}",
+                        settings.getMetricsPrometheusPort(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Watches Connect's config.yml, or its folder until Connect has created it.
+     */
+    private void watchConnectConfig() throws IOException {
+        File connectFolder = connectConfig.getFile().getParentFile();
+        if (connectFolder.isDirectory()) {
+            fileWatcher.watch(connectConfig.getFile().toPath(), connectConfig::get);
+            return;
+        }
+        fileWatcher.watch(connectFolder.toPath(), () -> {
+            if (connectFolder.isDirectory()) {
+                try {
+                    fileWatcher.watch(connectConfig.getFile().toPath(), connectConfig::get);
+                } catch (IOException e) {
+                    logger.warn("Failed to watch Connect config: {}", e.getMessage());
+                }
+                connectConfig.get();
+            }
+        });
+    }
+
+    /**
+     * Picks up a changed Connect endpoint. Runs on the file watcher thread.
+     */
+    private void onConnectConfigChange(ConnectConfig previous, ConnectConfig current) {
+        String endpoint = connectConfig.readEndpoint();
+        if (endpoint.equals(cachedEndpoint)) {
+            return;
+        }
+        cachedEndpoint = endpoint;
+        logger.info("Endpoint changed: {}", endpoint);
+        if (pingMonitor != null) {
+            pingMonitor.resetEndpoint();
+        }
+
+        if (statusBoard != null) {
+            statusBoard.start();
+        }
+    }
+
+    /**
+     * Applies a reloaded config. Runs on the file watcher thread.
+     */
+    private void onConfigReload(NotifySettings previous, NotifySettings settings) {
+        logger.info("Reloaded config.yml ({} webhook(s))", settings.getWebhookUrls().size());
+        dispatcher.setMaxConcurrentRequests(settings.getMaxConcurrentRequests());
+        // The webhook may have been fixed or replaced
+        dispatcher.resetQuarantine();
+
+        if (pingMonitor != null && previous.getPingIntervalSeconds() != settings.getPingIntervalSeconds()) {
+            pingMonitor.stop();
+            pingMonitor.start(settings.getPingIntervalSeconds());
+        }
+
+        if (performanceMonitor != null
+                && previous.getPerformanceCheckIntervalSeconds() != settings.getPerformanceCheckIntervalSeconds()) {
+            performanceMonitor.start();
+        }
+
+        if (fleetReporter == null && previous.getKeepAliveSeconds() != settings.getKeepAliveSeconds()) {
+            startKeepAlive(settings);
+        }
+
+        if (requiresRestart(previous, settings)) {
+            logger.warn("Toggling a feature, or changing the executor or metrics settings, takes effect after a restart");
+        }
+
+        // Let webhooks added since the last load know the server is online
+        List<String> added = new ArrayList<>(settings.getWebhookUrls());
+        added.removeAll(previous.getWebhookUrls());
+        if (!added.isEmpty() && settings.isOnlineEnabled() && fleetReporter == null) {
+            sendOnlineNotification(settings, added, true);
+        }
+
+        // Re-render the boards with the new layouts and post them to new webhooks
+        if (statusBoard != null) {
+            statusBoard.start();
+        }
+        if (fleetBoard != null) {
+            fleetBoard.start();
+        }
+    }
+
+    /**
+     * Fetches a webhook on every idle Discord host every half interval, so that a connection
+     * is never idle much longer than the configured time and is not closed.
+     */
+    private void startKeepAlive(NotifySettings settings) {
+        stopKeepAlive();
+        int seconds = settings.getKeepAliveSeconds();
+        if (seconds > 0) {
+            long idleNanos = TimeUnit.SECONDS.toNanos(seconds);
+            // Reads the webhooks on every run, so that webhooks added by a reload are kept alive too
+            keepAlive = executor.scheduleRepeating(() -> dispatcher.keepAlive(config.get().getWebhookUrls(), idleNanos),
+                    TimeUnit.SECONDS.toMillis(seconds) / 2, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void stopKeepAlive() {
+        CompletableFuture<Void> handle = keepAlive;
+        keepAlive = null;
+        if (handle != null) {
+            handle.cancel(false);
+        }
+    }
+
+    @Override
+    public void onPlayerJoin(UUID uuid, String name) {
+        if (!ready) {
+            return;
+        }
+        pipeline.publish(new NotificationEvent("player-join", Map.of("player", name, "uuid", uuid.toString()), null));
+        if (statusBoard != null) {
+            statusBoard.update();
+        }
+        if (playerDigest != null) {
+            playerDigest.record(true, uuid, name);
+        }
+        if (sessionReports != null) {
+            sessionReports.join(uuid);
+        }
+        if (fleetBoard != null) {
+            fleetBoard.update();
+        }
+    }
+
+    @Override
+    public void onPlayerQuit(UUID uuid, String name) {
+        if (!ready) {
+            return;
+        }
+        pipeline.publish(new NotificationEvent("player-quit", Map.of("player", name, "uuid", uuid.toString()), null));
+        if (statusBoard != null) {
+            statusBoard.update();
+        }
+        if (playerDigest != null) {
+            playerDigest.record(false, uuid, name);
+        }
+        if (sessionReports != null) {
+            sessionReports.quit(uuid);
+        }
+        if (fleetBoard != null) {
+            fleetBoard.update();
+        }
+    }
+
+    /**
+     * Waits for the bootstrap, in case the server stops while the plugin is still starting.
+     *
+     * @return {@code false} if the bootstrap failed or did not finish in time
+     */
+    private boolean awaitBootstrap() {
+        try {
+            bootstrap.get(BOOTSTRAP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            logger.warn("Connect Notify is still starting, skipping shutdown notifications");
+        } catch (ExecutionException ignored) {
+            // Logged when it failed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Waits at most the given deadline, counted from {@code start}, for the shutdown notifications.
+     * Requests still in flight at the deadline stay in the outbox and are replayed on the next start,
+     * or are dropped without an outbox.
+     */
+    private void awaitShutdownNotifications(List<CompletableFuture<Boolean>> sends, long start, long deadlineMillis) {
+        if (sends.isEmpty()) {
+            return;
+        }
+
+        try {
+            long remaining = deadlineMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]))
+                    .get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException ignored) {
+            // Reported below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int delivered = 0;
+        int inFlight = 0;
+        for (CompletableFuture<Boolean> send : sends) {
+            if (!send.isDone()) {
+                inFlight++;
+            } else if (send.getNow(false)) {
+                delivered++;
+            }
+        }
+
+        if (inFlight == 0) {
+            logger.info("Sent {}/{} shutdown notification(s) in {}ms", delivered, sends.size(), elapsed);
+        } else {
+            logger.warn("Shutdown notification deadline of {}ms reached after {}ms: {}/{} delivered, {} still in flight {}",
+                    deadlineMillis, elapsed, delivered, sends.size(), inFlight,
+                    outbox != null ? "(kept in outbox for the next start)" : "(dropped)");
+        }
+    }
+
+    /**
+     * Collects the placeholder values for an embed template.
+     */
+    private String[] placeholders(int players, int maxPlayers) {
+        String[] values = new String[EmbedTemplate.Placeholder.COUNT];
+        values[EmbedTemplate.Placeholder.ENDPOINT.ordinal()] = cachedEndpoint;
+        values[EmbedTemplate.Placeholder.PLAYERS.ordinal()] = Integer.toString(players);
+        values[EmbedTemplate.Placeholder.MAX.ordinal()] = Integer.toString(maxPlayers);
+        values[EmbedTemplate.Placeholder.PLATFORM.ordinal()] = platform.getPlatformName();
+        values[EmbedTemplate.Placeholder.TIMESTAMP.ordinal()] = Instant.now().toString();
+        values[EmbedTemplate.Placeholder.PING.ordinal()] = pingMonitor != null ? pingMonitor.getPing() : "—";
+        values[EmbedTemplate.Placeholder.ENDPOINT_PING.ordinal()] = pingMonitor != null ? pingMonitor.getEndpointPing() : "—";
+        values[EmbedTemplate.Placeholder.TPS.ordinal()] = "—";
+        values[EmbedTemplate.Placeholder.MSPT.ordinal()] = "—";
+        values[EmbedTemplate.Placeholder.STALL.ordinal()] = "—";
+        values[EmbedTemplate.Placeholder.PERIOD.ordinal()] = "—";
+        values[EmbedTemplate.Placeholder.PEAK_PLAYERS.ordinal()] = "—";
+        values[EmbedTemplate.Placeholder.UNIQUE_PLAYERS.ordinal()] = "—";
+        values[EmbedTemplate.Placeholder.SESSIONS.ordinal()] = "—";
+        values[EmbedTemplate.Placeholder.MEDIAN_SESSION.ordinal()] = "—";
+        values[EmbedTemplate.Placeholder.PLAYTIME.ordinal()] = "—";
+        return values;
     }
 
     public NotifyConfig getConfig() {
         return config;
     }
+
+    /**
+     * Gets a future completing once the background bootstrap started by {@link #onEnable()} has finished.
+     */
+    public CompletableFuture<Void> whenEnabled() {
+        return bootstrap;
+    }
 }
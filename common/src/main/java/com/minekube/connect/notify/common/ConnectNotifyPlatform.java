@@ -1,11 +1,14 @@
 package com.minekube.connect.notify.common;
 
 import java.io.File;
-import java.util.logging.Logger;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
 
 /**
  * Platform abstraction for Connect Notify.
  * Each platform (Bukkit, Velocity, BungeeCord) implements this interface.
+ * Apart from {@link #registerPlayerListener(PlayerListener)}, the methods are called
+ * from background threads, including while the plugin is starting.
  */
 public interface ConnectNotifyPlatform {
 
@@ -20,9 +23,9 @@ public interface ConnectNotifyPlatform {
     File getDataFolder();
 
     /**
-     * Gets the logger for this plugin
+     * Gets the logger for this plugin, bound to the platform's own logger
      */
-    Logger getLogger();
+    NotifyLogger getNotifyLogger();
 
     /**
      * Gets the plugins folder (parent of data folder)
@@ -32,9 +35,9 @@ public interface ConnectNotifyPlatform {
     }
 
     /**
-     * Runs a task asynchronously
+     * Registers a listener for player joins and quits
      */
-    void runAsync(Runnable task);
+    void registerPlayerListener(PlayerListener listener);
 
     /**
      * Gets the current online player count
@@ -45,5 +48,55 @@ public interface ConnectNotifyPlatform {
      * Gets the maximum player count
      */
     int getMaxPlayerCount();
+
+    /**
+     * Samples the platform's latency in milliseconds, e.g. the ping of the online players
+     * or the round-trip time to the backend servers, and passes the samples to the sink
+     *
+     * @return A future completing once all samples were passed
+     */
+    default CompletableFuture<Void> sampleLatency(IntConsumer sink) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Records the duration of every server tick into the sampler, on the main thread
+     *
+     * @return false if the platform cannot measure its ticks
+     */
+    default boolean registerTickSampler(TickSampler sampler) {
+        return false;
+    }
+
+    /**
+     * Calls the heartbeat on every server tick, on the main thread
+     *
+     * @return The thread that calls the heartbeat, or null if the platform has no main thread to watch
+     */
+    default Thread registerHeartbeat(Runnable heartbeat) {
+        return null;
+    }
+
+    /**
+     * Whether the server is shutting down
+     */
+    default boolean isStopping() {
+        return false;
+    }
+
+    /**
+     * Whether this platform is a proxy with backend servers behind it
+     */
+    default boolean isProxy() {
+        return false;
+    }
+
+    /**
+     * Opens the channel between the backend servers and the proxy for fleet aggregation,
+     * or returns null if the platform does not support it
+     */
+    default FleetTransport openFleetTransport() {
+        return null;
+    }
 }
 
@@ -0,0 +1,250 @@
+package com.minekube.connect.notify.common;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Delivery metrics of a {@link WebhookDispatcher}, kept per webhook.
+ * <p>
+ * The metrics are always recorded, since recording only costs a few atomic increments.
+ * They can be exported as MBeans and in the Prometheus text format.
+ */
+public class DeliveryMetrics implements DeliveryMetricsMBean {
+
+    static final String JMX_DOMAIN = "com.minekube.connect.notify";
+
+    // Exported histogram bounds: 2^10µs (about 1ms) to 2^26µs (about 67s)
+    private static final int MIN_EXPORTED_MAGNITUDE = 10;
+    private static final int MAX_EXPORTED_MAGNITUDE = 26;
+
+    private final NotifyLogger logger;
+    private final IntSupplier queueDepth;
+    private final IntSupplier inFlight;
+    private final LongSupplier rejectedTasks;
+
+    // Looked up by URL on every request, so that no id has to be extracted on the send path
+    private final Map<String, WebhookMetrics> byUrl = new ConcurrentHashMap<>();
+    private final Map<String, WebhookMetrics> byId = new ConcurrentHashMap<>();
+
+    // Set while the MBeans are registered
+    private volatile MBeanServer mBeanServer;
+    private volatile StartupTimings startupTimings;
+
+    /**
+     * @param queueDepth Supplies the number of requests waiting for a free slot
+     * @param inFlight   Supplies the number of requests currently being sent
+     * @param rejectedTasks Supplies the number of tasks the executor rejected because its queue was full
+     */
+    public DeliveryMetrics(NotifyLogger logger, IntSupplier queueDepth, IntSupplier inFlight, LongSupplier rejectedTasks) {
+        this.logger = logger;
+        this.queueDepth = queueDepth;
+        this.inFlight = inFlight;
+        this.rejectedTasks = rejectedTasks;
+    }
+
+    /**
+     * Gets the metrics of a webhook. URLs of the same webhook, e.g. with different
+     * query parameters, share their metrics.
+     */
+    public WebhookMetrics forWebhook(String webhookUrl) {
+        WebhookMetrics metrics = byUrl.get(webhookUrl);
+        if (metrics != null) {
+            return metrics;
+        }
+        return byUrl.computeIfAbsent(webhookUrl,
+                url -> byId.computeIfAbsent(DiscordWebhook.webhookId(url), this::create));
+    }
+
+    private WebhookMetrics create(String webhookId) {
+        WebhookMetrics metrics = new WebhookMetrics(webhookId);
+        MBeanServer server = mBeanServer;
+        if (server != null) {
+            register(server, metrics, webhookName(webhookId));
+        }
+        return metrics;
+    }
+
+    /**
+     * Sets the startup timings to export along with the delivery metrics.
+     */
+    public void setStartupTimings(StartupTimings startupTimings) {
+        this.startupTimings = startupTimings;
+    }
+
+    /**
+     * Registers the metrics as MBeans with the platform MBean server,
+     * including the metrics of webhooks first used later on.
+     */
+    public synchronized void registerMBeans() {
+        if (mBeanServer != null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        mBeanServer = server;
+        register(server, this, JMX_DOMAIN + ":type=Dispatcher");
+        for (WebhookMetrics metrics : byId.values()) {
+            register(server, metrics, webhookName(metrics.getWebhookId()));
+        }
+    }
+
+    public synchronized void unregisterMBeans() {
+        MBeanServer server = mBeanServer;
+        if (server == null) {
+            return;
+        }
+        mBeanServer = null;
+        unregister(server, JMX_DOMAIN + ":type=Dispatcher");
+        for (String webhookId : byId.keySet()) {
+            unregister(server, webhookName(webhookId));
+        }
+    }
+
+    private void register(MBeanServer server, Object mBean, String name) {
+        try {
+            ObjectName objectName = new ObjectName(name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mBean, objectName);
+            }
+        } catch (JMException e) {
+            logger.warn("Failed to register metrics MBean {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void unregister(MBeanServer server, String name) {
+        try {
+            ObjectName objectName = new ObjectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            logger.debug("Failed to unregister metrics MBean {}: {}", name, e.getMessage());
+        }
+    }
+
+    private static String webhookName(String webhookId) {
+        return JMX_DOMAIN + ":type=Webhook,webhook=" + ObjectName.quote(webhookId);
+    }
+
+    /**
+     * Writes all metrics in the Prometheus text exposition format.
+     */
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder(4096);
+
+        out.append("# HELP connect_notify_queue_depth Webhook requests waiting for a free slot\n");
+        out.append("# TYPE connect_notify_queue_depth gauge\n");
+        out.append("connect_notify_queue_depth ").append(queueDepth.getAsInt()).append('\n');
+        out.append("# HELP connect_notify_in_flight Webhook requests currently being sent\n");
+        out.append("# TYPE connect_notify_in_flight gauge\n");
+        out.append("connect_notify_in_flight ").append(inFlight.getAsInt()).append('\n');
+        out.append("# HELP connect_notify_rejected_tasks_total Tasks rejected because the notification queue was full\n");
+        out.append("# TYPE connect_notify_rejected_tasks_total counter\n");
+        out.append("connect_notify_rejected_tasks_total ").append(rejectedTasks.getAsLong()).append('\n');
+
+        out.append("# HELP connect_notify_webhook_responses_total Webhook responses by status class\n");
+        out.append("# TYPE connect_notify_webhook_responses_total counter\n");
+        for (WebhookMetrics metrics : byId.values()) {
+            String id = metrics.getWebhookId();
+            counter(out, "connect_notify_webhook_responses_total", id, "status=\"2xx\"", metrics.getResponses2xx());
+            counter(out, "connect_notify_webhook_responses_total", id, "status=\"4xx\"", metrics.getResponses4xx());
+            counter(out, "connect_notify_webhook_responses_total", id, "status=\"429\"", metrics.getResponses429());
+            counter(out, "connect_notify_webhook_responses_total", id, "status=\"5xx\"", metrics.getResponses5xx());
+            counter(out, "connect_notify_webhook_responses_total", id, "status=\"error\"", metrics.getErrors());
+        }
+
+        out.append("# HELP connect_notify_webhook_retries_total Webhook requests retried after a failure or rate limit\n");
+        out.append("# TYPE connect_notify_webhook_retries_total counter\n");
+        for (WebhookMetrics metrics : byId.values()) {
+            counter(out, "connect_notify_webhook_retries_total", metrics.getWebhookId(), null, metrics.getRetries());
+        }
+
+        out.append("# HELP connect_notify_webhook_short_circuited_total Webhook requests skipped because the webhook is paused or quarantined\n");
+        out.append("# TYPE connect_notify_webhook_short_circuited_total counter\n");
+        for (WebhookMetrics metrics : byId.values()) {
+            counter(out, "connect_notify_webhook_short_circuited_total", metrics.getWebhookId(), null,
+                    metrics.getShortCircuited());
+        }
+
+        out.append("# HELP connect_notify_webhook_packed_total Notifications sent packed into the message of another one\n");
+        out.append("# TYPE connect_notify_webhook_packed_total counter\n");
+        for (WebhookMetrics metrics : byId.values()) {
+            counter(out, "connect_notify_webhook_packed_total", metrics.getWebhookId(), null, metrics.getPacked());
+        }
+
+        StartupTimings timings = startupTimings;
+        if (timings != null) {
+            out.append("# HELP connect_notify_startup_phase_seconds How long each phase of enabling the plugin took\n");
+            out.append("# TYPE connect_notify_startup_phase_seconds gauge\n");
+            for (Map.Entry<String, Long> phase : timings.getPhases().entrySet()) {
+                out.append("connect_notify_startup_phase_seconds{phase=\"").append(phase.getKey()).append("\"} ")
+                        .append(phase.getValue() / 1_000_000_000.0).append('\n');
+            }
+        }
+
+        out.append("# HELP connect_notify_webhook_latency_seconds Webhook request latency by phase\n");
+        out.append("# TYPE connect_notify_webhook_latency_seconds histogram\n");
+        for (WebhookMetrics metrics : byId.values()) {
+            histogram(out, metrics.getWebhookId(), "queue", metrics.getQueue());
+            histogram(out, metrics.getWebhookId(), "ttfb", metrics.getTtfb());
+            histogram(out, metrics.getWebhookId(), "total", metrics.getTotal());
+        }
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, String webhookId, String labels, long value) {
+        out.append(name).append("{webhook=\"").append(webhookId).append('"');
+        if (labels != null) {
+            out.append(',').append(labels);
+        }
+        out.append("} ").append(value).append('\n');
+    }
+
+    private static void histogram(StringBuilder out, String webhookId, String phase, LatencyHistogram histogram) {
+        String labels = "{webhook=\"" + webhookId + "\",phase=\"" + phase + "\"";
+        long[] cumulative = histogram.getCumulativeCounts(MIN_EXPORTED_MAGNITUDE, MAX_EXPORTED_MAGNITUDE);
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            double bound = (1L << (MIN_EXPORTED_MAGNITUDE + i)) / 1_000_000.0;
+            out.append("connect_notify_webhook_latency_seconds_bucket").append(labels)
+                    .append(",le=\"").append(bound).append("\"} ").append(cumulative[i]).append('\n');
+        }
+        long count = cumulative[cumulative.length - 1];
+        out.append("connect_notify_webhook_latency_seconds_bucket").append(labels)
+                .append(",le=\"+Inf\"} ").append(count).append('\n');
+        out.append("connect_notify_webhook_latency_seconds_sum").append(labels).append("} ")
+                .append(histogram.getSumMicros() / 1_000_000.0).append('\n');
+        out.append("connect_notify_webhook_latency_seconds_count").append(labels).append("} ")
+                .append(count).append('\n');
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.getAsInt();
+    }
+
+    @Override
+    public long getRejectedTasks() {
+        return rejectedTasks.getAsLong();
+    }
+
+    @Override
+    public int getWebhookCount() {
+        return byId.size();
+    }
+
+    @Override
+    public String getStartupTimings() {
+        StartupTimings timings = startupTimings;
+        return timings != null ? timings.toString() : "";
+    }
+}
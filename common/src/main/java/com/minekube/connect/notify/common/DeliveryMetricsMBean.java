@@ -0,0 +1,17 @@
+package com.minekube.connect.notify.common;
+
+/**
+ * JMX view of the dispatcher-wide delivery metrics.
+ */
+public interface DeliveryMetricsMBean {
+
+    int getQueueDepth();
+
+    int getInFlight();
+
+    long getRejectedTasks();
+
+    int getWebhookCount();
+
+    String getStartupTimings();
+}
@@ -0,0 +1,138 @@
+package com.minekube.connect.notify.common;
+
+import java.net.http.HttpHeaders;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks Discord rate limit buckets from response headers so requests are held back
+ * before Discord rejects them.
+ * <p>
+ * Bucket state is immutable and swapped with compare-and-set, so reserving a request
+ * never takes a lock. Only the reset times sent by Discord are used: once a bucket's window
+ * has passed, requests are let through until a response tells the new window.
+ *
+ * @see <a href="https://discord.com/developers/docs/topics/rate-limits">Discord rate limits</a>
+ */
+public class DiscordRateLimiter {
+
+    // Route (method and URL without query) -> Discord bucket hash
+    private final ConcurrentMap<String, String> routeBuckets = new ConcurrentHashMap<>();
+    // Discord bucket hash -> current state
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    // Nano time until which all requests are blocked by a global rate limit, or null if there was none
+    private final AtomicReference<Long> globalResetAt = new AtomicReference<>();
+
+    /**
+     * Reserves one request for the given webhook. Fetching a webhook and executing it are separate
+     * buckets at Discord, so the method is part of the route.
+     *
+     * @return {@code 0} if the request may be sent now, otherwise the nanoseconds to wait before trying again
+     */
+    public long reserve(String method, String webhookUrl) {
+        long now = System.nanoTime();
+        Long globalReset = globalResetAt.get();
+        if (globalReset != null && globalReset - now > 0) {
+            return globalReset - now;
+        }
+
+        String bucketId = routeBuckets.get(route(method, webhookUrl));
+        if (bucketId == null) {
+            return 0;
+        }
+
+        while (true) {
+            Bucket bucket = buckets.get(bucketId);
+            // Once the window has passed, the next response tells how much the new one allows
+            if (bucket == null || now - bucket.resetAt >= 0) {
+                return 0;
+            }
+            if (bucket.remaining <= 0) {
+                return bucket.resetAt - now;
+            }
+
+            if (buckets.replace(bucketId, bucket, new Bucket(bucket.remaining - 1, bucket.resetAt))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Updates bucket state from a Discord response.
+     *
+     * @return For a 429 response, the nanoseconds until the request may be retried; otherwise {@code 0}
+     */
+    public long update(String method, String webhookUrl, int statusCode, HttpHeaders headers) {
+        long now = System.nanoTime();
+        String bucketId = headers.firstValue("X-RateLimit-Bucket").orElse(null);
+        long resetAfter = parseSeconds(headers.firstValue("X-RateLimit-Reset-After").orElse(null));
+
+        if (bucketId != null) {
+            routeBuckets.put(route(method, webhookUrl), bucketId);
+
+            int remaining = parseInt(headers.firstValue("X-RateLimit-Remaining").orElse(null), 0);
+            // The server's view of the bucket wins over our local reservations
+            buckets.put(bucketId, new Bucket(remaining, now + resetAfter));
+        }
+
+        if (statusCode != 429) {
+            return 0;
+        }
+
+        long retryAfter = parseSeconds(headers.firstValue("Retry-After").orElse(null));
+        if (retryAfter <= 0) {
+            retryAfter = resetAfter > 0 ? resetAfter : TimeUnit.SECONDS.toNanos(1);
+        }
+
+        boolean global = headers.firstValue("X-RateLimit-Global").map(Boolean::parseBoolean).orElse(false)
+                || headers.firstValue("X-RateLimit-Scope").map("global"::equals).orElse(false);
+        if (global) {
+            long resetAt = now + retryAfter;
+            globalResetAt.accumulateAndGet(resetAt, (current, candidate) ->
+                    current == null || candidate - current > 0 ? candidate : current);
+        }
+        return retryAfter;
+    }
+
+    private static String route(String method, String webhookUrl) {
+        int query = webhookUrl.indexOf('?');
+        return method + ' ' + (query < 0 ? webhookUrl : webhookUrl.substring(0, query));
+    }
+
+    private static long parseSeconds(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return (long) (Double.parseDouble(value) * TimeUnit.SECONDS.toNanos(1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int parseInt(String value, int def) {
+        if (value == null) {
+            return def;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    /**
+     * Immutable snapshot of a rate limit bucket.
+     */
+    private static final class Bucket {
+        final int remaining;
+        final long resetAt;
+
+        Bucket(int remaining, long resetAt) {
+            this.remaining = remaining;
+            this.resetAt = resetAt;
+        }
+    }
+}
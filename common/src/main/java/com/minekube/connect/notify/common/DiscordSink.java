@@ -0,0 +1,67 @@
+package com.minekube.connect.notify.common;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Posts every event to the configured Discord webhooks, as the embed it was rendered into.
+ * The {@link WebhookDispatcher} takes care of rate limits, retries and packing, so events are not batched here.
+ */
+public class DiscordSink implements NotificationSink {
+
+    // Events that show the server's status, of which only the latest matters
+    private static final Set<String> STATUS_TYPES = Set.of("online", "offline", "restarted");
+
+    private final NotifyLogger logger;
+    private final WebhookDispatcher dispatcher;
+    private final Supplier<NotifySettings> settings;
+
+    public DiscordSink(NotifyLogger logger, WebhookDispatcher dispatcher, Supplier<NotifySettings> settings) {
+        this.logger = logger;
+        this.dispatcher = dispatcher;
+        this.settings = settings;
+    }
+
+    @Override
+    public String getName() {
+        return "discord";
+    }
+
+    @Override
+    public boolean accepts(NotificationEvent event) {
+        return event.getDiscordPayload() != null && settings.get().hasWebhooks();
+    }
+
+    @Override
+    public long getBatchWindowMillis() {
+        return 0;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return 1;
+    }
+
+    @Override
+    public int getMaxInFlight() {
+        return settings.get().getMaxConcurrentRequests();
+    }
+
+    @Override
+    public PayloadEncoder getEncoder() {
+        return events -> events.get(0).getDiscordPayload();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deliver(List<NotificationEvent> events, byte[] payload) {
+        List<String> webhookUrls = settings.get().getWebhookUrls();
+        boolean status = STATUS_TYPES.contains(events.get(0).getType());
+        return dispatcher.broadcast(webhookUrls, payload, status).thenApply(sent -> {
+            logger.info("Sent {} notification to {}/{} webhook(s)",
+                    events.get(0).getType().replace('-', ' '), sent, webhookUrls.size());
+            return sent > 0;
+        });
+    }
+}
@@ -1,162 +1,346 @@
 package com.minekube.connect.notify.common;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.logging.Logger;
+import java.time.Instant;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * Discord webhook message sender with rich embed support.
+ * Discord webhook payload builder with rich embed support.
+ * Layouts are compiled once into {@link EmbedTemplate}s; the payloads are delivered by {@link WebhookDispatcher}.
  */
-public class DiscordWebhook {
+public final class DiscordWebhook {
 
     private static final String MINEKUBE_ICON = "https://github.com/minekube.png";
     private static final String MINEKUBE_URL = "https://connect.minekube.com";
+    private static final String FOOTER = "Minekube Connect • connect.minekube.com";
 
-    private final Logger logger;
+    // Discord message limits
+    public static final int MAX_EMBEDS = 10;
+    public static final int MAX_FIELDS = 25;
+    public static final int MAX_FIELD_VALUE_LENGTH = 1024;
+    public static final int MAX_TOTAL_LENGTH = 6000;
 
-    public DiscordWebhook(Logger logger) {
-        this.logger = logger;
-    }
+    private static final Pattern WEBHOOK_ID = Pattern.compile("/webhooks/(\\d+)/");
+
+    // Keep placeholder braces and quotes in embed text as they are
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
 
     /**
-     * Sends a server online notification.
+     * Default layout of the server online notification.
      */
-    public void sendOnlineEmbed(String webhookUrl, String endpoint, int players, int maxPlayers,
-                                 String username, String avatarUrl) {
-        try {
-            JsonObject payload = createBasePayload(username, avatarUrl);
-            JsonObject embed = new JsonObject();
-
-            // Author with icon and clickable link
-            JsonObject author = new JsonObject();
-            author.addProperty("name", "Server Online");
-            author.addProperty("icon_url", MINEKUBE_ICON);
-            author.addProperty("url", MINEKUBE_URL);
-            embed.add("author", author);
+    public static final EmbedLayout ONLINE_LAYOUT = new EmbedLayout(
+            "Server Online",
+            "🎮 Join now and start playing!\n```\n{endpoint}\n```",
+            0x57F287,
+            List.of(
+                    new EmbedLayout.Field("Status", "🟢 Online", true),
+                    new EmbedLayout.Field("Players", "{players}/{max}", true),
+                    new EmbedLayout.Field("Ping", "{endpoint-ping}", true)
+            ),
+            FOOTER
+    );
 
-            // Description with address
-            embed.addProperty("description", "🎮 Join now and start playing!\n```\n" + endpoint + "\n```");
+    /**
+     * Default layout of the server offline notification.
+     */
+    public static final EmbedLayout OFFLINE_LAYOUT = new EmbedLayout(
+            "Server Offline",
+            "🎮 See you next time!\n```\n{endpoint}\n```",
+            0xED4245,
+            List.of(
+                    new EmbedLayout.Field("Status", "🔴 Offline", true),
+                    new EmbedLayout.Field("Players", "—", true),
+                    new EmbedLayout.Field("Ping", "—", true)
+            ),
+            FOOTER
+    );
 
-            // Green color
-            embed.addProperty("color", 0x57F287);
+    /**
+     * Default layout of the message that replaces the offline notification when the server is back quickly.
+     */
+    public static final EmbedLayout RESTARTED_LAYOUT = new EmbedLayout(
+            "Server Restarted",
+            "🔄 Back online after {downtime}\n```\n{endpoint}\n```",
+            0x57F287,
+            List.of(
+                    new EmbedLayout.Field("Status", "🟢 Online", true),
+                    new EmbedLayout.Field("Players", "{players}/{max}", true),
+                    new EmbedLayout.Field("Downtime", "{downtime}", true)
+            ),
+            FOOTER
+    );
 
-            // Inline fields for width
-            JsonArray fields = new JsonArray();
+    /**
+     * Default layout of the live status board while the server is online.
+     */
+    public static final EmbedLayout STATUS_BOARD_ONLINE_LAYOUT = new EmbedLayout(
+            "Server Status",
+            "🎮 Join now and start playing!\n```\n{endpoint}\n```",
+            0x57F287,
+            List.of(
+                    new EmbedLayout.Field("Status", "🟢 Online", true),
+                    new EmbedLayout.Field("Players", "{players}/{max}", true),
+                    new EmbedLayout.Field("Ping", "{ping}", true)
+            ),
+            "Minekube Connect • Last updated"
+    );
 
-            JsonObject statusField = new JsonObject();
-            statusField.addProperty("name", "Status");
-            statusField.addProperty("value", "🟢 Online");
-            statusField.addProperty("inline", true);
-            fields.add(statusField);
+    /**
+     * Default layout of the live status board after the server stopped.
+     */
+    public static final EmbedLayout STATUS_BOARD_OFFLINE_LAYOUT = new EmbedLayout(
+            "Server Status",
+            "🎮 See you next time!\n```\n{endpoint}\n```",
+            0xED4245,
+            List.of(
+                    new EmbedLayout.Field("Status", "🔴 Offline", true),
+                    new EmbedLayout.Field("Players", "—", true)
+            ),
+            "Minekube Connect • Last updated"
+    );
 
-            JsonObject playersField = new JsonObject();
-            playersField.addProperty("name", "Players");
-            playersField.addProperty("value", players + "/" + maxPlayers);
-            playersField.addProperty("inline", true);
-            fields.add(playersField);
+    /**
+     * Default layout of the fleet board that a proxy keeps for its backend servers.
+     */
+    public static final EmbedLayout FLEET_LAYOUT = new EmbedLayout(
+            "Network Status",
+            "🎮 {online-servers}/{servers} servers online\n```\n{endpoint}\n```",
+            0x57F287,
+            List.of(
+                    new EmbedLayout.Field("Players", "{players}/{max}", true),
+                    new EmbedLayout.Field("Offline", "{offline-servers}", true)
+            ),
+            "Minekube Connect • Last updated"
+    );
 
-            JsonObject pingField = new JsonObject();
-            pingField.addProperty("name", "Ping");
-            pingField.addProperty("value", "Ready");
-            pingField.addProperty("inline", true);
-            fields.add(pingField);
+    /**
+     * Default layout of the alert posted when the server's TPS or tick times degrade.
+     */
+    public static final EmbedLayout PERFORMANCE_DEGRADED_LAYOUT = new EmbedLayout(
+            "Performance Degraded",
+            "🐢 The server is lagging\n```\n{endpoint}\n```",
+            0xFEE75C,
+            List.of(
+                    new EmbedLayout.Field("TPS", "{tps}", true),
+                    new EmbedLayout.Field("Tick Time (p99)", "{mspt} ms", true),
+                    new EmbedLayout.Field("Players", "{players}/{max}", true)
+            ),
+            FOOTER
+    );
 
-            embed.add("fields", fields);
+    /**
+     * Default layout of the message posted once the server's performance has recovered.
+     */
+    public static final EmbedLayout PERFORMANCE_RECOVERED_LAYOUT = new EmbedLayout(
+            "Performance Recovered",
+            "✅ The server is running smoothly again\n```\n{endpoint}\n```",
+            0x57F287,
+            List.of(
+                    new EmbedLayout.Field("TPS", "{tps}", true),
+                    new EmbedLayout.Field("Tick Time (p99)", "{mspt} ms", true),
+                    new EmbedLayout.Field("Players", "{players}/{max}", true)
+            ),
+            FOOTER
+    );
 
-            // Footer with link
-            JsonObject footer = new JsonObject();
-            footer.addProperty("text", "Minekube Connect • connect.minekube.com");
-            embed.add("footer", footer);
+    /**
+     * Default layout of the alert posted when the main thread stops ticking. The thread dump is attached.
+     */
+    public static final EmbedLayout STALLED_LAYOUT = new EmbedLayout(
+            "Server Frozen",
+            "🧊 The server has not ticked for {stall}. The main thread's stack is attached.\n```\n{endpoint}\n```",
+            0xED4245,
+            List.of(
+                    new EmbedLayout.Field("Status", "🧊 Frozen", true),
+                    new EmbedLayout.Field("Players", "{players}/{max}", true)
+            ),
+            FOOTER
+    );
 
-            // Timestamp
-            embed.addProperty("timestamp", java.time.Instant.now().toString());
+    /**
+     * Default layout of the message posted once the main thread ticks again.
+     */
+    public static final EmbedLayout STALL_RECOVERED_LAYOUT = new EmbedLayout(
+            "Server Unfrozen",
+            "✅ The server is ticking again after {stall}\n```\n{endpoint}\n```",
+            0x57F287,
+            List.of(
+                    new EmbedLayout.Field("Status", "🟢 Online", true),
+                    new EmbedLayout.Field("Players", "{players}/{max}", true)
+            ),
+            FOOTER
+    );
 
-            // Add embed to payload
-            JsonArray embeds = new JsonArray();
-            embeds.add(embed);
-            payload.add("embeds", embeds);
+    /**
+     * Default layout of the hourly and daily player reports.
+     */
+    public static final EmbedLayout SESSION_REPORT_LAYOUT = new EmbedLayout(
+            "Player Report",
+            "📅 {period}\n```\n{endpoint}\n```",
+            0x5865F2,
+            List.of(
+                    new EmbedLayout.Field("Peak Players", "{peak-players}", true),
+                    new EmbedLayout.Field("Unique Players", "{unique-players}", true),
+                    new EmbedLayout.Field("Sessions", "{sessions}", true),
+                    new EmbedLayout.Field("Median Session", "{median-session}", true),
+                    new EmbedLayout.Field("Total Playtime", "{playtime}", true)
+            ),
+            FOOTER
+    );
+
+    private DiscordWebhook() {
+    }
 
-            sendRequest(webhookUrl, payload.toString());
+    /**
+     * Compiles an embed layout into a webhook payload template.
+     */
+    public static EmbedTemplate compile(EmbedLayout layout, String username, String avatarUrl) {
+        JsonObject payload = createBasePayload(username, avatarUrl);
+        JsonArray embeds = new JsonArray();
+        embeds.add(createEmbed(layout));
+        payload.add("embeds", embeds);
+        return EmbedTemplate.compile(GSON.toJson(payload));
+    }
 
-        } catch (Exception e) {
-            logger.warning("Failed to send Discord webhook: " + e.getMessage());
+    /**
+     * Creates a webhook payload with the given embeds, without placeholder substitution.
+     * Used for messages whose content changes with every send.
+     */
+    public static byte[] createPayload(List<EmbedLayout> layouts, String username, String avatarUrl) {
+        String timestamp = Instant.now().toString();
+        JsonObject payload = createBasePayload(username, avatarUrl);
+        JsonArray embeds = new JsonArray();
+        for (EmbedLayout layout : layouts) {
+            JsonObject embed = createEmbed(layout);
+            embed.addProperty("timestamp", timestamp);
+            embeds.add(embed);
         }
+        payload.add("embeds", embeds);
+        return GSON.toJson(payload).getBytes(StandardCharsets.UTF_8);
     }
 
     /**
-     * Sends a server offline notification.
+     * Escapes the characters Discord renders as Markdown, so that text such as a player name
+     * like {@code __Steve__} is shown as written.
      */
-    public void sendOfflineEmbed(String webhookUrl, String endpoint, String username, String avatarUrl) {
-        try {
-            JsonObject payload = createBasePayload(username, avatarUrl);
-            JsonObject embed = new JsonObject();
-
-            // Author with icon and clickable link
-            JsonObject author = new JsonObject();
-            author.addProperty("name", "Server Offline");
-            author.addProperty("icon_url", MINEKUBE_ICON);
-            author.addProperty("url", MINEKUBE_URL);
-            embed.add("author", author);
-
-            // Description with address
-            embed.addProperty("description", "🎮 See you next time!\n```\n" + endpoint + "\n```");
+    public static String escapeMarkdown(String text) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '_' || c == '*' || c == '`' || c == '~' || c == '|' || c == '\\') {
+                if (escaped == null) {
+                    escaped = new StringBuilder(text.length() + 8).append(text, 0, i);
+                }
+                escaped.append('\\');
+            }
+            if (escaped != null) {
+                escaped.append(c);
+            }
+        }
+        return escaped != null ? escaped.toString() : text;
+    }
 
-            // Red color
-            embed.addProperty("color", 0xED4245);
+    /**
+     * Wraps a webhook payload and a text file into a multipart/form-data body, the way Discord
+     * accepts attachments.
+     *
+     * @param boundary A boundary that does not occur in the payload or the file
+     */
+    public static byte[] createMultipart(String boundary, byte[] payload, String fileName, byte[] file) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(payload.length + file.length + 512);
+        String payloadHeader = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"payload_json\"\r\n"
+                + "Content-Type: application/json\r\n\r\n";
+        body.writeBytes(payloadHeader.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(payload);
+        String fileHeader = "\r\n--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"files[0]\"; filename=\"" + fileName.replace("\"", "") + "\"\r\n"
+                + "Content-Type: text/plain; charset=utf-8\r\n\r\n";
+        body.writeBytes(fileHeader.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(file);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
 
-            // Inline fields for width
-            JsonArray fields = new JsonArray();
+    /**
+     * Extracts the id of a webhook from its URL. The id is safe to log and persist,
+     * unlike the token that follows it in the URL.
+     *
+     * @return The webhook id, or a hash of the URL if it is not a Discord webhook URL
+     */
+    public static String webhookId(String webhookUrl) {
+        Matcher matcher = WEBHOOK_ID.matcher(webhookUrl);
+        return matcher.find() ? matcher.group(1) : Integer.toHexString(webhookUrl.hashCode());
+    }
 
-            JsonObject statusField = new JsonObject();
-            statusField.addProperty("name", "Status");
-            statusField.addProperty("value", "🔴 Offline");
-            statusField.addProperty("inline", true);
-            fields.add(statusField);
+    /**
+     * Counts the characters of a layout that Discord counts towards {@link #MAX_TOTAL_LENGTH}.
+     */
+    public static int textLength(EmbedLayout layout) {
+        int length = layout.getTitle().length() + layout.getDescription().length() + layout.getFooter().length();
+        for (EmbedLayout.Field field : layout.getFields()) {
+            length += field.getName().length() + field.getValue().length();
+        }
+        return length;
+    }
 
-            JsonObject playersField = new JsonObject();
-            playersField.addProperty("name", "Players");
-            playersField.addProperty("value", "—");
-            playersField.addProperty("inline", true);
-            fields.add(playersField);
+    /**
+     * Creates the embed object for a layout, with placeholder tokens left in its text.
+     */
+    static JsonObject createEmbed(EmbedLayout layout) {
+        JsonObject embed = new JsonObject();
+
+        // Author with icon and clickable link
+        JsonObject author = new JsonObject();
+        author.addProperty("name", layout.getTitle());
+        author.addProperty("icon_url", MINEKUBE_ICON);
+        author.addProperty("url", MINEKUBE_URL);
+        embed.add("author", author);
+
+        if (!layout.getDescription().isEmpty()) {
+            embed.addProperty("description", layout.getDescription());
+        }
 
-            JsonObject pingField = new JsonObject();
-            pingField.addProperty("name", "Ping");
-            pingField.addProperty("value", "—");
-            pingField.addProperty("inline", true);
-            fields.add(pingField);
+        embed.addProperty("color", layout.getColor());
 
+        // Inline fields for width
+        if (!layout.getFields().isEmpty()) {
+            JsonArray fields = new JsonArray();
+            for (EmbedLayout.Field field : layout.getFields()) {
+                JsonObject fieldObj = new JsonObject();
+                fieldObj.addProperty("name", field.getName());
+                fieldObj.addProperty("value", field.getValue());
+                fieldObj.addProperty("inline", field.isInline());
+                fields.add(fieldObj);
+            }
             embed.add("fields", fields);
+        }
 
-            // Footer with link
+        // Footer with link
+        if (!layout.getFooter().isEmpty()) {
             JsonObject footer = new JsonObject();
-            footer.addProperty("text", "Minekube Connect • connect.minekube.com");
+            footer.addProperty("text", layout.getFooter());
             embed.add("footer", footer);
+        }
 
-            // Timestamp
-            embed.addProperty("timestamp", java.time.Instant.now().toString());
-
-            // Add embed to payload
-            JsonArray embeds = new JsonArray();
-            embeds.add(embed);
-            payload.add("embeds", embeds);
-
-            sendRequest(webhookUrl, payload.toString());
+        // Timestamp, filled in at render time
+        embed.addProperty("timestamp", EmbedTemplate.Placeholder.TIMESTAMP.getToken());
 
-        } catch (Exception e) {
-            logger.warning("Failed to send Discord webhook: " + e.getMessage());
-        }
+        return embed;
     }
 
     /**
      * Creates the base webhook payload with username and avatar.
      */
-    private JsonObject createBasePayload(String username, String avatarUrl) {
+    private static JsonObject createBasePayload(String username, String avatarUrl) {
         JsonObject payload = new JsonObject();
 
         if (username != null && !username.isEmpty()) {
@@ -168,34 +352,4 @@ public class DiscordWebhook {
 
         return payload;
     }
-
-    private void sendRequest(String webhookUrl, String jsonPayload) throws Exception {
-        URL url = URI.create(webhookUrl).toURL();
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-
-        try {
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("User-Agent", "ConnectNotify/1.0");
-            connection.setDoOutput(true);
-            connection.setConnectTimeout(10000);
-            connection.setReadTimeout(10000);
-
-            try (OutputStream os = connection.getOutputStream()) {
-                os.write(jsonPayload.getBytes(StandardCharsets.UTF_8));
-            }
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == 204 || responseCode == 200) {
-                logger.fine("Discord webhook sent successfully");
-            } else if (responseCode == 429) {
-                logger.warning("Discord webhook rate limited. Message may be delayed.");
-            } else {
-                logger.warning("Discord webhook returned status code: " + responseCode);
-            }
-
-        } finally {
-            connection.disconnect();
-        }
-    }
 }
@@ -0,0 +1,108 @@
+package com.minekube.connect.notify.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * User-configurable layout of a Discord embed, read from the {@code embeds} section of config.yml.
+ * Text may contain placeholders such as {@code {endpoint}}, see {@link EmbedTemplate.Placeholder}.
+ */
+public final class EmbedLayout {
+
+    private final String title;
+    private final String description;
+    private final int color;
+    private final List<Field> fields;
+    private final String footer;
+
+    public EmbedLayout(String title, String description, int color, List<Field> fields, String footer) {
+        this.title = title;
+        this.description = description;
+        this.color = color;
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        this.footer = footer;
+    }
+
+    /**
+     * Reads a layout from a config section. Missing keys fall back to the given defaults.
+     */
+    public static EmbedLayout fromMap(Map<?, ?> map, EmbedLayout defaults) {
+        if (map == null) {
+            return defaults;
+        }
+
+        String title = getString(map, "title", defaults.title);
+        String description = getString(map, "description", defaults.description);
+        int color = getColor(map.get("color"), defaults.color);
+        String footer = getString(map, "footer", defaults.footer);
+
+        List<Field> fields = defaults.fields;
+        Object fieldsObj = map.get("fields");
+        if (fieldsObj instanceof List) {
+            fields = new ArrayList<>();
+            for (Object fieldObj : (List<?>) fieldsObj) {
+                if (fieldObj instanceof Map) {
+                    Map<?, ?> field = (Map<?, ?>) fieldObj;
+                    Object inline = field.get("inline");
+                    fields.add(new Field(
+                            getString(field, "name", ""),
+                            getString(field, "value", ""),
+                            !(inline instanceof Boolean) || (Boolean) inline
+                    ));
+                }
+            }
+        }
+
+        return new EmbedLayout(title, description, color, fields, footer);
+    }
+
+    private static String getString(Map<?, ?> map, String key, String def) {
+        Object value = map.get(key);
+        return value instanceof String ? (String) value : def;
+    }
+
+    private static int getColor(Object value, int def) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String) {
+            String hex = ((String) value).trim();
+            if (hex.startsWith("#")) {
+                hex = hex.substring(1);
+            }
+            try {
+                return Integer.parseInt(hex, 16);
+            } catch (NumberFormatException ignored) {
+                // Fall through to default
+            }
+        }
+        return def;
+    }
+
+    public String getTitle() { return title; }
+    public String getDescription() { return description; }
+    public int getColor() { return color; }
+    public List<Field> getFields() { return fields; }
+    public String getFooter() { return footer; }
+
+    /**
+     * An embed field.
+     */
+    public static final class Field {
+        private final String name;
+        private final String value;
+        private final boolean inline;
+
+        public Field(String name, String value, boolean inline) {
+            this.name = name;
+            this.value = value;
+            this.inline = inline;
+        }
+
+        public String getName() { return name; }
+        public String getValue() { return value; }
+        public boolean isInline() { return inline; }
+    }
+}
@@ -0,0 +1,133 @@
+package com.minekube.connect.notify.common;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Packs the embeds of several webhook payloads into one payload, within the limits Discord
+ * accepts for a single message: {@value DiscordWebhook#MAX_EMBEDS} embeds and
+ * {@value DiscordWebhook#MAX_TOTAL_LENGTH} characters of embed text.
+ * <p>
+ * Only payloads that differ in nothing but their embeds, e.g. the same username and avatar,
+ * are packed together. Payloads are only parsed here, so the single-notification path
+ * keeps sending the pre-rendered bytes as they are.
+ */
+public final class EmbedPacker {
+
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private JsonObject base;
+    private JsonArray embeds;
+    private int length;
+
+    /**
+     * Starts a new packed payload with the embeds of the given payload.
+     *
+     * @return {@code false} if the payload cannot be packed with others
+     */
+    public boolean start(byte[] payload) {
+        base = null;
+        JsonObject object = parse(payload);
+        if (object == null) {
+            return false;
+        }
+        JsonArray first = object.remove("embeds").getAsJsonArray();
+        int firstLength = textLength(first);
+        if (first.size() >= DiscordWebhook.MAX_EMBEDS || firstLength >= DiscordWebhook.MAX_TOTAL_LENGTH) {
+            return false;
+        }
+        base = object;
+        embeds = first;
+        length = firstLength;
+        return true;
+    }
+
+    /**
+     * Adds the embeds of another payload if it matches the started payload and its embeds fit.
+     *
+     * @return {@code true} if the embeds were added
+     */
+    public boolean add(byte[] payload) {
+        if (base == null) {
+            return false;
+        }
+        JsonObject object = parse(payload);
+        if (object == null) {
+            return false;
+        }
+        JsonArray more = object.remove("embeds").getAsJsonArray();
+        int moreLength = textLength(more);
+        if (!base.equals(object)
+                || embeds.size() + more.size() > DiscordWebhook.MAX_EMBEDS
+                || length + moreLength > DiscordWebhook.MAX_TOTAL_LENGTH) {
+            return false;
+        }
+        embeds.addAll(more);
+        length += moreLength;
+        return true;
+    }
+
+    /**
+     * Encodes the packed payload.
+     */
+    public byte[] toPayload() {
+        JsonObject payload = base.deepCopy();
+        payload.add("embeds", embeds);
+        return GSON.toJson(payload).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The payload, or {@code null} if it is not a JSON object with an embeds array
+     */
+    private static JsonObject parse(byte[] payload) {
+        try {
+            JsonElement element = JsonParser.parseString(new String(payload, StandardCharsets.UTF_8));
+            if (element.isJsonObject() && element.getAsJsonObject().get("embeds") instanceof JsonArray) {
+                return element.getAsJsonObject();
+            }
+        } catch (RuntimeException e) {
+            // Not packable, sent on its own
+        }
+        return null;
+    }
+
+    /**
+     * Counts the characters Discord counts towards {@link DiscordWebhook#MAX_TOTAL_LENGTH}.
+     */
+    private static int textLength(JsonArray embeds) {
+        int length = 0;
+        for (JsonElement element : embeds) {
+            if (!element.isJsonObject()) {
+                continue;
+            }
+            JsonObject embed = element.getAsJsonObject();
+            length += stringLength(embed, "title") + stringLength(embed, "description");
+            if (embed.get("author") instanceof JsonObject) {
+                length += stringLength(embed.getAsJsonObject("author"), "name");
+            }
+            if (embed.get("footer") instanceof JsonObject) {
+                length += stringLength(embed.getAsJsonObject("footer"), "text");
+            }
+            if (embed.get("fields") instanceof JsonArray) {
+                for (JsonElement field : embed.getAsJsonArray("fields")) {
+                    if (field.isJsonObject()) {
+                        length += stringLength(field.getAsJsonObject(), "name")
+                                + stringLength(field.getAsJsonObject(), "value");
+                    }
+                }
+            }
+        }
+        return length;
+    }
+
+    private static int stringLength(JsonObject object, String key) {
+        JsonElement value = object.get(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsString().length() : 0;
+    }
+}
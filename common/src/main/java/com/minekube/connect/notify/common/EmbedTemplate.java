@@ -0,0 +1,195 @@
+package com.minekube.connect.notify.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A webhook payload compiled once into pre-encoded UTF-8 segments with placeholder slots.
+ * <p>
+ * Rendering copies the segments into a reusable per-thread buffer and patches in the
+ * JSON-escaped slot values, so no JSON tree is built or serialised per send.
+ */
+public final class EmbedTemplate {
+
+    /**
+     * Placeholders that can be used in embed text.
+     */
+    public enum Placeholder {
+        ENDPOINT("endpoint"),
+        PLAYERS("players"),
+        MAX("max"),
+        PLATFORM("platform"),
+        TIMESTAMP("timestamp"),
+        ONLINE_SERVERS("online-servers"),
+        SERVERS("servers"),
+        OFFLINE_SERVERS("offline-servers"),
+        DOWNTIME("downtime"),
+        PING("ping"),
+        ENDPOINT_PING("endpoint-ping"),
+        TPS("tps"),
+        MSPT("mspt"),
+        STALL("stall"),
+        PERIOD("period"),
+        PEAK_PLAYERS("peak-players"),
+        UNIQUE_PLAYERS("unique-players"),
+        SESSIONS("sessions"),
+        MEDIAN_SESSION("median-session"),
+        PLAYTIME("playtime");
+
+        public static final int COUNT = values().length;
+
+        private final String name;
+        private final String token;
+
+        Placeholder(String name) {
+            this.name = name;
+            this.token = "{" + name + "}";
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getToken() {
+            return token;
+        }
+    }
+
+    private static final ThreadLocal<PayloadBuffer> BUFFER = ThreadLocal.withInitial(PayloadBuffer::new);
+
+    // segments[i] is written before slots[i]; the last segment has no slot
+    private final byte[][] segments;
+    private final Placeholder[] slots;
+
+    private EmbedTemplate(byte[][] segments, Placeholder[] slots) {
+        this.segments = segments;
+        this.slots = slots;
+    }
+
+    /**
+     * Compiles a JSON document whose string values may contain placeholder tokens.
+     */
+    public static EmbedTemplate compile(String json) {
+        List<byte[]> segments = new ArrayList<>();
+        List<Placeholder> slots = new ArrayList<>();
+
+        int start = 0;
+        int index = 0;
+        while ((index = json.indexOf('{', index)) >= 0) {
+            Placeholder placeholder = placeholderAt(json, index);
+            if (placeholder == null) {
+                index++;
+                continue;
+            }
+            segments.add(json.substring(start, index).getBytes(StandardCharsets.UTF_8));
+            slots.add(placeholder);
+            index += placeholder.getToken().length();
+            start = index;
+        }
+        segments.add(json.substring(start).getBytes(StandardCharsets.UTF_8));
+
+        return new EmbedTemplate(segments.toArray(new byte[0][]), slots.toArray(new Placeholder[0]));
+    }
+
+    private static Placeholder placeholderAt(String json, int index) {
+        for (Placeholder placeholder : Placeholder.values()) {
+            if (json.startsWith(placeholder.getToken(), index)) {
+                return placeholder;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Renders the payload.
+     *
+     * @param values Slot values indexed by {@link Placeholder#ordinal()}; {@code null} renders as empty
+     * @return The UTF-8 encoded JSON payload
+     */
+    public byte[] render(String[] values) {
+        PayloadBuffer buffer = BUFFER.get();
+        buffer.reset();
+        for (int i = 0; i < slots.length; i++) {
+            buffer.write(segments[i]);
+            String value = values[slots[i].ordinal()];
+            if (value != null) {
+                buffer.writeJsonEscaped(value);
+            }
+        }
+        buffer.write(segments[segments.length - 1]);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Growable byte buffer that writes JSON string content directly as UTF-8.
+     */
+    private static final class PayloadBuffer {
+        private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+        private byte[] data = new byte[2048];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        void write(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeJsonEscaped(String value) {
+            // Worst case is a six byte unicode escape per char
+            ensureCapacity(value.length() * 6);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    data[size++] = '\\';
+                    data[size++] = (byte) c;
+                } else if (c == '\n') {
+                    data[size++] = '\\';
+                    data[size++] = 'n';
+                } else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                    data[size++] = '\\';
+                    data[size++] = 'u';
+                    data[size++] = HEX[(c >> 12) & 0xF];
+                    data[size++] = HEX[(c >> 8) & 0xF];
+                    data[size++] = HEX[(c >> 4) & 0xF];
+                    data[size++] = HEX[c & 0xF];
+                } else if (c < 0x80) {
+                    data[size++] = (byte) c;
+                } else if (c < 0x800) {
+                    data[size++] = (byte) (0xC0 | (c >> 6));
+                    data[size++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    data[size++] = (byte) (0xF0 | (codePoint >> 18));
+                    data[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    data[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    data[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogate, replace like String#getBytes does
+                    data[size++] = '?';
+                } else {
+                    data[size++] = (byte) (0xE0 | (c >> 12));
+                    data[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    data[size++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(data, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+    }
+}
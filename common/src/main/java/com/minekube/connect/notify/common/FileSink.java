@@ -0,0 +1,83 @@
+package com.minekube.connect.notify.common;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Appends events to a local file, one JSON object per line, e.g. for a log shipper to pick up.
+ */
+public class FileSink implements NotificationSink {
+
+    private final NotifyLogger logger;
+    private final File file;
+    private final long batchWindowMillis;
+    private OutputStream out;
+
+    public FileSink(NotifyLogger logger, File file, long batchWindowMillis) {
+        this.logger = logger;
+        this.file = file;
+        this.batchWindowMillis = batchWindowMillis;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public long getBatchWindowMillis() {
+        return batchWindowMillis;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return 100;
+    }
+
+    @Override
+    public int getMaxInFlight() {
+        // Keeps the lines in order
+        return 1;
+    }
+
+    @Override
+    public PayloadEncoder getEncoder() {
+        return NotificationEncoders::ndjson;
+    }
+
+    @Override
+    public synchronized CompletableFuture<Boolean> deliver(List<NotificationEvent> events, byte[] payload) {
+        try {
+            if (out == null) {
+                File parent = file.getAbsoluteFile().getParentFile();
+                if (parent != null) {
+                    parent.mkdirs();
+                }
+                out = new FileOutputStream(file, true);
+            }
+            out.write(payload);
+            out.flush();
+            return CompletableFuture.completedFuture(true);
+        } catch (IOException e) {
+            logger.warn("Failed to write notifications to {}: {}", file, e.getMessage());
+            close();
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // Nothing left to write
+            }
+            out = null;
+        }
+    }
+}
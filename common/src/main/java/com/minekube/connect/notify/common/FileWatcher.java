@@ -0,0 +1,121 @@
+package com.minekube.connect.notify.common;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches individual files for changes on a background thread.
+ * <p>
+ * Editors and deploy tools often write a file in several steps, so a callback only runs
+ * once the file has been quiet for the debounce window. Callbacks run on the watcher
+ * thread, never on the server's main thread.
+ */
+public class FileWatcher implements AutoCloseable {
+
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    private final NotifyLogger logger;
+    private final long debounceNanos;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    // Watched directory -> file name -> callback
+    private final Map<Path, Map<Path, Runnable>> callbacks = new ConcurrentHashMap<>();
+
+    public FileWatcher(NotifyLogger logger) throws IOException {
+        this(logger, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public FileWatcher(NotifyLogger logger, long debounceMillis) throws IOException {
+        this.logger = logger;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.thread = new DaemonThreadFactory("ConnectNotify-FileWatcher").newThread(this::run);
+        this.thread.start();
+    }
+
+    /**
+     * Runs the callback whenever the file is created or modified.
+     * The parent directory must exist.
+     */
+    public void watch(Path file, Runnable callback) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path directory = absolute.getParent();
+        if (!callbacks.containsKey(directory)) {
+            directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+        callbacks.computeIfAbsent(directory, d -> new ConcurrentHashMap<>()).put(absolute.getFileName(), callback);
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close file watcher: {}", e.getMessage());
+        }
+    }
+
+    private void run() {
+        // Changed file -> time at which its callback is due
+        Map<Path, Long> pending = new HashMap<>();
+        try {
+            while (true) {
+                WatchKey key;
+                if (pending.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    long wait = Math.max(0, pending.values().stream().min(Long::compare).get() - System.nanoTime());
+                    key = watchService.poll(wait, TimeUnit.NANOSECONDS);
+                }
+
+                if (key != null) {
+                    Path directory = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.context() instanceof Path) {
+                            Path file = directory.resolve((Path) event.context());
+                            pending.put(file, System.nanoTime() + debounceNanos);
+                        }
+                    }
+                    key.reset();
+                }
+
+                long now = System.nanoTime();
+                for (Iterator<Map.Entry<Path, Long>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<Path, Long> entry = it.next();
+                    if (entry.getValue() - now <= 0) {
+                        it.remove();
+                        fire(entry.getKey());
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private void fire(Path file) {
+        Map<Path, Runnable> files = callbacks.get(file.getParent());
+        Runnable callback = files != null ? files.get(file.getFileName()) : null;
+        if (callback == null) {
+            return;
+        }
+        try {
+            callback.run();
+        } catch (Exception e) {
+            logger.warn("Failed to handle change of {}: {}", file.getFileName(), e.getMessage());
+        }
+    }
+}
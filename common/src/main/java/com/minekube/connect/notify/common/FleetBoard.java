@@ -0,0 +1,231 @@
+package com.minekube.connect.notify.common;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one message per webhook up to date with the state of all backend servers behind the proxy,
+ * e.g. "58/60 servers online", instead of every backend posting its own notifications.
+ * <p>
+ * Backends report their state over a {@link FleetTransport}. The proxy also pings every backend
+ * periodically, since a server that stops without players online, or crashes, cannot report.
+ * State changes are coalesced over a debounce window, so a whole restart wave results in a few
+ * edits of the same message. Each board has at most one edit in flight, and only the latest state
+ * is sent after it.
+ */
+public class FleetBoard {
+
+    private static final String STATE_FILE = "fleet-board.properties";
+    private static final String NONE = "—";
+
+    private final BoardMessages messages;
+    private final NotifyLogger logger;
+    private final NotifyConfig config;
+    private final NotifyExecutor executor;
+    private final FleetTransport transport;
+    private final Supplier<String[]> placeholders;
+
+    // Server name -> whether it is online
+    private final Map<String, Boolean> servers = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile ScheduledFuture<?> flush;
+    private volatile boolean stopped;
+    private volatile CompletableFuture<Void> pings;
+    private volatile String lastState;
+
+    /**
+     * @param placeholders Supplies the current placeholder values of the proxy; the fleet placeholders are added to them
+     */
+    public FleetBoard(File dataFolder, NotifyLogger logger, NotifyConfig config, WebhookDispatcher dispatcher,
+                      NotifyExecutor executor, FleetTransport transport, Supplier<String[]> placeholders) {
+        this.messages = new BoardMessages(new File(dataFolder, STATE_FILE), "fleet board", logger, dispatcher);
+        this.logger = logger;
+        this.config = config;
+        this.executor = executor;
+        this.transport = transport;
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Pings all backends and shows the board, reusing the messages from the last run where they still exist.
+     * Also called after a config reload to pick up new webhooks, layouts and the ping interval.
+     */
+    public CompletableFuture<Void> start() {
+        messages.load();
+        transport.setReceiver(this::onReport);
+
+        CompletableFuture<Void> previous = pings;
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        pings = executor.scheduleRepeating(this::pingAll, config.get().getFleetPingIntervalSeconds(), TimeUnit.SECONDS);
+
+        return pingAll().thenCompose(ignored -> {
+            String[] values = values();
+            lastState = state(values);
+            byte[] payload = config.get().getFleetTemplate().render(values);
+
+            List<CompletableFuture<Boolean>> publishes = new ArrayList<>();
+            for (String webhookUrl : config.get().getWebhookUrls()) {
+                publishes.add(messages.update(webhookUrl, payload));
+            }
+            return CompletableFuture.allOf(publishes.toArray(new CompletableFuture<?>[0]));
+        });
+    }
+
+    /**
+     * Schedules a board update. Calls within the debounce window are coalesced into one edit.
+     */
+    public void update() {
+        if (!stopped && flushScheduled.compareAndSet(false, true)) {
+            try {
+                flush = executor.schedule(this::flush, config.get().getFleetDebounceMs(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Stops pinging the backends and receiving their reports, and cancels the pending update.
+     */
+    public void stop() {
+        stopped = true;
+        ScheduledFuture<?> pending = flush;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        CompletableFuture<Void> handle = pings;
+        if (handle != null) {
+            handle.cancel(false);
+        }
+        transport.setReceiver(null);
+    }
+
+    private void onReport(String server, byte[] data) {
+        FleetReport report = FleetReport.decode(data);
+        if (report == null) {
+            logger.debug("Ignoring malformed fleet report from {}", server);
+            return;
+        }
+        setOnline(server, report.isOnline());
+    }
+
+    /**
+     * Pings every backend known to the proxy.
+     *
+     * @return A future completing once all pings are answered
+     */
+    private CompletableFuture<Void> pingAll() {
+        Collection<String> known = transport.getServers();
+        // Forget servers removed from the proxy, unless they are still reporting
+        servers.entrySet().removeIf(entry -> !entry.getValue() && !known.contains(entry.getKey()));
+
+        List<CompletableFuture<?>> answers = new ArrayList<>(known.size());
+        for (String server : known) {
+            answers.add(transport.ping(server).handle((online, error) -> {
+                setOnline(server, error == null && online);
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(answers.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private void setOnline(String server, boolean online) {
+        Boolean previous = servers.put(server, online);
+        if (!Objects.equals(previous, online)) {
+            logger.debug("Server {} is now {}", server, online ? "online" : "offline");
+            update();
+        }
+    }
+
+    private void flush() {
+        // Allow the next update to schedule a flush while this one is running
+        flushScheduled.set(false);
+        if (stopped) {
+            return;
+        }
+
+        String[] values = values();
+        String state = state(values);
+        if (state.equals(lastState)) {
+            return;
+        }
+        lastState = state;
+
+        NotifySettings settings = config.get();
+        byte[] payload = settings.getFleetTemplate().render(values);
+        for (String webhookUrl : settings.getWebhookUrls()) {
+            // Also posts the board where posting it failed before
+            messages.update(webhookUrl, payload);
+        }
+    }
+
+    /**
+     * Collects the placeholder values of the proxy and adds the fleet placeholders.
+     */
+    private String[] values() {
+        List<String> offline = new ArrayList<>();
+        int online = 0;
+        for (Map.Entry<String, Boolean> entry : servers.entrySet()) {
+            if (entry.getValue()) {
+                online++;
+            } else {
+                offline.add(entry.getKey());
+            }
+        }
+        Collections.sort(offline);
+
+        String[] values = placeholders.get();
+        values[EmbedTemplate.Placeholder.ONLINE_SERVERS.ordinal()] = Integer.toString(online);
+        values[EmbedTemplate.Placeholder.SERVERS.ordinal()] = Integer.toString(online + offline.size());
+        values[EmbedTemplate.Placeholder.OFFLINE_SERVERS.ordinal()] = join(offline);
+        return values;
+    }
+
+    /**
+     * Joins the server names, shortened to fit into an embed field.
+     */
+    private static String join(List<String> names) {
+        if (names.isEmpty()) {
+            return NONE;
+        }
+        int limit = DiscordWebhook.MAX_FIELD_VALUE_LENGTH - 100;
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            if (joined.length() + name.length() + 2 > limit) {
+                joined.append(" and ").append(names.size() - i).append(" more");
+                break;
+            }
+            if (i > 0) {
+                joined.append(", ");
+            }
+            joined.append(name);
+        }
+        return joined.toString();
+    }
+
+    /**
+     * The values shown on the board, used to skip edits that would not change it.
+     */
+    private static String state(String[] values) {
+        return values[EmbedTemplate.Placeholder.ONLINE_SERVERS.ordinal()]
+                + '/' + values[EmbedTemplate.Placeholder.SERVERS.ordinal()]
+                + '/' + values[EmbedTemplate.Placeholder.OFFLINE_SERVERS.ordinal()]
+                + '/' + values[EmbedTemplate.Placeholder.PLAYERS.ordinal()];
+    }
+}
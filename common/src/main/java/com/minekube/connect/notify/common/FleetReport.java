@@ -0,0 +1,54 @@
+package com.minekube.connect.notify.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * State of a backend server, reported to the proxy over a {@link FleetTransport}.
+ */
+public final class FleetReport {
+
+    // Bumped when the encoding changes; reports of other versions are ignored
+    private static final int VERSION = 2;
+
+    private final boolean online;
+
+    public FleetReport(boolean online) {
+        this.online = online;
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeBoolean(online);
+        } catch (IOException e) {
+            // Not thrown by a ByteArrayOutputStream
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a report sent by a backend.
+     *
+     * @return The report, or {@code null} if it is malformed or from an incompatible version
+     */
+    public static FleetReport decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readUnsignedByte() != VERSION) {
+                return null;
+            }
+            return new FleetReport(in.readBoolean());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public boolean isOnline() {
+        return online;
+    }
+}
@@ -0,0 +1,29 @@
+package com.minekube.connect.notify.common;
+
+/**
+ * Reports the state of a backend server to its proxy, which posts one message for the whole network.
+ * The proxy counts the players of the network itself, so only starts and stops are reported.
+ */
+public class FleetReporter {
+
+    private final FleetTransport transport;
+
+    public FleetReporter(FleetTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Reports the server as online.
+     */
+    public void start() {
+        transport.send(new FleetReport(true).encode());
+    }
+
+    /**
+     * Reports the server as offline. The proxy notices a stopped server by pinging it
+     * if the report cannot be sent anymore.
+     */
+    public void stop() {
+        transport.send(new FleetReport(false).encode());
+    }
+}
@@ -0,0 +1,50 @@
+package com.minekube.connect.notify.common;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Connects the backend servers of a network to their proxy for fleet aggregation.
+ * <p>
+ * Backends send their reports with {@link #send(byte[])}, the proxy receives them and can also
+ * ping the backends to notice ones that stopped without reporting. On Minecraft platforms the
+ * reports travel over the plugin messaging channel {@value #CHANNEL}, which needs a player
+ * connected to the backend, so a backend keeps its latest report until one joins.
+ */
+public interface FleetTransport {
+
+    /**
+     * Plugin messaging channel of the reports.
+     */
+    String CHANNEL = "connect-notify:fleet";
+
+    /**
+     * Sends a report from a backend to the proxy. If the report cannot be sent yet, it replaces
+     * any report still waiting, since only the latest state matters. Does nothing on the proxy.
+     */
+    void send(byte[] report);
+
+    /**
+     * Sets the handler of the reports received by the proxy. It is called with the name of the
+     * backend that sent the report, as known to the proxy. Never called on a backend.
+     */
+    void setReceiver(BiConsumer<String, byte[]> receiver);
+
+    /**
+     * Gets the names of the backend servers known to the proxy, or an empty collection on a backend.
+     */
+    Collection<String> getServers();
+
+    /**
+     * Checks whether a backend server accepts connections.
+     *
+     * @return A future completing with {@code false} if the server is unknown or unreachable
+     */
+    CompletableFuture<Boolean> ping(String server);
+
+    /**
+     * Stops sending and receiving reports.
+     */
+    void close();
+}
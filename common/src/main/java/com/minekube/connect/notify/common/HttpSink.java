@@ -0,0 +1,98 @@
+package com.minekube.connect.notify.common;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * POSTs batches of events to an HTTP endpoint, e.g. a Slack incoming webhook or a generic JSON endpoint.
+ * Failed requests are not retried.
+ */
+public class HttpSink implements NotificationSink {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final String USER_AGENT = "ConnectNotify/1.0";
+
+    private final String name;
+    private final NotifyLogger logger;
+    private final URI uri;
+    private final Map<String, String> headers;
+    private final long batchWindowMillis;
+    private final int maxBatchSize;
+    private final int maxInFlight;
+    private final PayloadEncoder encoder;
+    private final HttpClient client;
+
+    /**
+     * @param headers Extra request headers, e.g. {@code Authorization}
+     */
+    public HttpSink(String name, NotifyLogger logger, NotifyExecutor executor, String url, Map<String, String> headers,
+                    long batchWindowMillis, int maxBatchSize, int maxInFlight, PayloadEncoder encoder) {
+        this.name = name;
+        this.logger = logger;
+        this.uri = URI.create(url);
+        this.headers = headers;
+        this.batchWindowMillis = batchWindowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.maxInFlight = maxInFlight;
+        this.encoder = encoder;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(CONNECT_TIMEOUT)
+                .executor(executor.callerRunsWhenFull())
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getBatchWindowMillis() {
+        return batchWindowMillis;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    @Override
+    public PayloadEncoder getEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deliver(List<NotificationEvent> events, byte[] payload) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("User-Agent", USER_AGENT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload));
+        headers.forEach(request::header);
+
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding()).handle((response, error) -> {
+            if (error != null) {
+                logger.warn("Failed to send {} notification(s) to {}: {}", events.size(), name, error.getMessage());
+                return false;
+            }
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                logger.warn("Notification sink {} returned status code: {}", name, response.statusCode());
+                return false;
+            }
+            logger.debug("Sent {} notification(s) to {}", events.size(), name);
+            return true;
+        });
+    }
+}
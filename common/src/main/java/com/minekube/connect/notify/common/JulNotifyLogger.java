@@ -0,0 +1,47 @@
+package com.minekube.connect.notify.common;
+
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Binds {@link NotifyLogger} to java.util.logging. Debug messages are logged as {@link java.util.logging.Level#FINE}.
+ */
+final class JulNotifyLogger implements NotifyLogger {
+
+    private final Logger logger;
+
+    JulNotifyLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return logger.isLoggable(toJul(level));
+    }
+
+    @Override
+    public void log(Level level, String message, Throwable error) {
+        LogRecord record = new LogRecord(toJul(level), message);
+        record.setLoggerName(logger.getName());
+        record.setThrown(error);
+        // Inferring the caller walks the stack and would only find this class
+        record.setSourceClassName(null);
+        record.setSourceMethodName(null);
+        // Plugin loggers prefix the plugin name in log(LogRecord)
+        logger.log(record);
+    }
+
+    // NotifyLogger.Level is inherited, so java.util.logging.Level is written out
+    private static java.util.logging.Level toJul(Level level) {
+        switch (level) {
+            case DEBUG:
+                return java.util.logging.Level.FINE;
+            case INFO:
+                return java.util.logging.Level.INFO;
+            case WARN:
+                return java.util.logging.Level.WARNING;
+            default:
+                return java.util.logging.Level.SEVERE;
+        }
+    }
+}
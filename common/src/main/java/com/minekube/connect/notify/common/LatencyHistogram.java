@@ -0,0 +1,124 @@
+package com.minekube.connect.notify.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram with microsecond resolution.
+ * <p>
+ * Buckets are laid out like an HDR histogram: every power of two is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, which keeps the relative error below 12.5%
+ * from 1µs up to about two minutes. Recording is a single atomic increment and never allocates.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Highest tracked power of two in microseconds; values of 2^27µs (about 134s) and above are clamped
+    private static final int MAX_MAGNITUDE = 26;
+    static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sumMicros = new LongAdder();
+
+    /**
+     * Records a duration.
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        counts.incrementAndGet(index(micros));
+        sumMicros.add(micros);
+    }
+
+    /**
+     * Gets the number of recorded durations.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the sum of all recorded durations in microseconds.
+     */
+    public long getSumMicros() {
+        return sumMicros.sum();
+    }
+
+    /**
+     * Counts the recorded durations below each power of two from {@code 2^minMagnitude} to
+     * {@code 2^maxMagnitude} microseconds, which are exact bucket bounds up to {@code 2^26}. Reads every bucket
+     * once, so the counts are cumulative even while durations are being recorded.
+     *
+     * @return One count per power of two, followed by the total count
+     */
+    public long[] getCumulativeCounts(int minMagnitude, int maxMagnitude) {
+        long[] cumulative = new long[maxMagnitude - minMagnitude + 2];
+        long count = 0;
+        int bound = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            while (bound < cumulative.length - 1 && minMagnitude + bound <= MAX_MAGNITUDE
+                    && index(1L << (minMagnitude + bound)) <= i) {
+                cumulative[bound++] = count;
+            }
+            count += counts.get(i);
+        }
+        while (bound < cumulative.length) {
+            cumulative[bound++] = count;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Estimates a percentile from the bucket counts.
+     *
+     * @param percentile Between 0 and 100
+     * @return The upper bound of the bucket containing the percentile in microseconds, or 0 if empty
+     */
+    public long getPercentileMicros(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, percentile) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return lowerBound(i + 1) - 1;
+            }
+        }
+        return lowerBound(BUCKETS) - 1;
+    }
+
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (micros >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = index / SUB_BUCKETS - 1 + SUB_BUCKET_BITS;
+        int sub = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (magnitude - SUB_BUCKET_BITS);
+    }
+}
@@ -0,0 +1,64 @@
+package com.minekube.connect.notify.common;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent latency samples in a fixed-size primitive ring buffer.
+ * <p>
+ * The percentiles are computed when a sample is added, which happens in the background,
+ * so reading them when a notification is sent is a single volatile read.
+ */
+public class LatencyRing {
+
+    private final int[] samples;
+    private final int[] sorted;
+    private int next;
+    private int size;
+
+    // Rendered on every add, read when a notification is sent
+    private volatile String summary;
+
+    public LatencyRing(int capacity) {
+        this.samples = new int[capacity];
+        this.sorted = new int[capacity];
+    }
+
+    /**
+     * Adds a sample, replacing the oldest one once the ring is full.
+     */
+    public synchronized void add(int millis) {
+        samples[next] = Math.max(0, millis);
+        next = (next + 1) % samples.length;
+        if (size < samples.length) {
+            size++;
+        }
+
+        System.arraycopy(samples, 0, sorted, 0, size);
+        Arrays.sort(sorted, 0, size);
+        int p50 = sorted[index(50)];
+        int p95 = sorted[index(95)];
+        summary = p95 > p50 ? p50 + "ms (p95 " + p95 + "ms)" : p50 + "ms";
+    }
+
+    private int index(int percentile) {
+        return Math.max(0, (size * percentile + 99) / 100 - 1);
+    }
+
+    /**
+     * Gets the median and 95th percentile of the recent samples, e.g. {@code 42ms (p95 80ms)}.
+     *
+     * @return The summary, or {@code null} if there are no samples yet
+     */
+    public String getSummary() {
+        return summary;
+    }
+
+    /**
+     * Drops all samples.
+     */
+    public synchronized void clear() {
+        next = 0;
+        size = 0;
+        summary = null;
+    }
+}
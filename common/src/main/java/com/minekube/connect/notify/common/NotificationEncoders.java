@@ -0,0 +1,140 @@
+package com.minekube.connect.notify.common;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link PayloadEncoder}s of the built-in sinks.
+ */
+public final class NotificationEncoders {
+
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private NotificationEncoders() {
+    }
+
+    /**
+     * Encodes events as {@code {"events": [{"type": "online", "timestamp": "...", "fields": {...}}]}}.
+     */
+    public static byte[] json(List<NotificationEvent> events) {
+        JsonArray array = new JsonArray();
+        for (NotificationEvent event : events) {
+            array.add(toJson(event));
+        }
+        JsonObject payload = new JsonObject();
+        payload.add("events", array);
+        return GSON.toJson(payload).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes events as one JSON object per line, like {@link #json(List)} without the wrapper.
+     */
+    public static byte[] ndjson(List<NotificationEvent> events) {
+        StringBuilder lines = new StringBuilder();
+        for (NotificationEvent event : events) {
+            lines.append(GSON.toJson(toJson(event))).append('\n');
+        }
+        return lines.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes events as a Slack incoming webhook message with one attachment per event.
+     * Events rendered for Discord keep their embed's title, text, color and fields.
+     */
+    public static byte[] slack(List<NotificationEvent> events) {
+        JsonArray attachments = new JsonArray();
+        for (NotificationEvent event : events) {
+            attachments.add(toSlackAttachment(event));
+        }
+        String text = attachments.get(0).getAsJsonObject().get("title").getAsString();
+        if (events.size() > 1) {
+            text += " (+" + (events.size() - 1) + " more)";
+        }
+        JsonObject payload = new JsonObject();
+        payload.addProperty("text", text);
+        payload.add("attachments", attachments);
+        return GSON.toJson(payload).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static JsonObject toJson(NotificationEvent event) {
+        JsonObject object = new JsonObject();
+        object.addProperty("type", event.getType());
+        object.addProperty("timestamp", event.getTimestamp().toString());
+        JsonObject fields = new JsonObject();
+        for (Map.Entry<String, String> field : event.getFields().entrySet()) {
+            fields.addProperty(field.getKey(), field.getValue());
+        }
+        object.add("fields", fields);
+        return object;
+    }
+
+    private static JsonObject toSlackAttachment(NotificationEvent event) {
+        JsonObject embed = firstEmbed(event.getDiscordPayload());
+        JsonObject attachment = new JsonObject();
+        JsonArray fields = new JsonArray();
+        if (embed != null) {
+            JsonObject author = embed.getAsJsonObject("author");
+            attachment.addProperty("title", author != null ? string(author, "name") : string(embed, "title"));
+            attachment.addProperty("text", string(embed, "description"));
+            if (embed.has("color")) {
+                attachment.addProperty("color", String.format("#%06X", embed.get("color").getAsInt()));
+            }
+            if (embed.get("fields") instanceof JsonArray) {
+                for (JsonElement element : embed.getAsJsonArray("fields")) {
+                    JsonObject field = element.getAsJsonObject();
+                    fields.add(slackField(string(field, "name"), string(field, "value")));
+                }
+            }
+            if (embed.get("footer") instanceof JsonObject) {
+                attachment.addProperty("footer", string(embed.getAsJsonObject("footer"), "text"));
+            }
+        } else {
+            // Not rendered for Discord, e.g. a player joining, so list its fields
+            String type = event.getType().replace('-', ' ');
+            attachment.addProperty("title", Character.toUpperCase(type.charAt(0)) + type.substring(1));
+            for (Map.Entry<String, String> field : event.getFields().entrySet()) {
+                fields.add(slackField(field.getKey(), field.getValue()));
+            }
+        }
+        attachment.add("fields", fields);
+        attachment.addProperty("ts", event.getTimestamp().getEpochSecond());
+        return attachment;
+    }
+
+    private static JsonObject slackField(String title, String value) {
+        JsonObject field = new JsonObject();
+        field.addProperty("title", title);
+        field.addProperty("value", value);
+        field.addProperty("short", true);
+        return field;
+    }
+
+    /**
+     * @return The first embed of a Discord payload, or {@code null} if there is none
+     */
+    private static JsonObject firstEmbed(byte[] discordPayload) {
+        if (discordPayload == null) {
+            return null;
+        }
+        try {
+            JsonObject payload = JsonParser.parseString(new String(discordPayload, StandardCharsets.UTF_8)).getAsJsonObject();
+            JsonArray embeds = payload.getAsJsonArray("embeds");
+            return embeds != null && !embeds.isEmpty() ? embeds.get(0).getAsJsonObject() : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String string(JsonObject object, String key) {
+        JsonElement value = object.get(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : "";
+    }
+}
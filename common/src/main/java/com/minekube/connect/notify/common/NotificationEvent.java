@@ -0,0 +1,62 @@
+package com.minekube.connect.notify.common;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Something worth notifying about, e.g. the server coming online, as passed to every {@link NotificationSink}.
+ */
+public final class NotificationEvent {
+
+    private final String type;
+    private final Instant timestamp;
+    private final Map<String, String> fields;
+    private final byte[] discordPayload;
+
+    /**
+     * @param type           The kind of event, e.g. {@code online}, named like the embed layout in config.yml
+     * @param fields         Details of the event, e.g. {@code players = 3}
+     * @param discordPayload The event rendered as a Discord webhook payload, or {@code null} if Discord
+     *                       is notified some other way, e.g. by editing an earlier message
+     */
+    public NotificationEvent(String type, Map<String, String> fields, byte[] discordPayload) {
+        this.type = type;
+        this.timestamp = Instant.now();
+        this.fields = Collections.unmodifiableMap(new LinkedHashMap<>(fields));
+        this.discordPayload = discordPayload;
+    }
+
+    /**
+     * Creates an event whose fields are the placeholder values it was rendered with.
+     *
+     * @param values Placeholder values indexed by {@link EmbedTemplate.Placeholder#ordinal()}; {@code null} and dashes are left out
+     */
+    public static NotificationEvent of(String type, String[] values, byte[] discordPayload) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (EmbedTemplate.Placeholder placeholder : EmbedTemplate.Placeholder.values()) {
+            String value = values[placeholder.ordinal()];
+            if (value != null && !value.equals("—") && placeholder != EmbedTemplate.Placeholder.TIMESTAMP) {
+                fields.put(placeholder.getName(), value);
+            }
+        }
+        return new NotificationEvent(type, fields, discordPayload);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public Map<String, String> getFields() {
+        return fields;
+    }
+
+    public byte[] getDiscordPayload() {
+        return discordPayload;
+    }
+}
@@ -0,0 +1,233 @@
+package com.minekube.connect.notify.common;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only journal of webhook requests that have not been delivered yet.
+ * <p>
+ * Each request is journaled before it is dispatched and acknowledged once it is delivered
+ * (or permanently rejected), so notifications survive failed requests and crashes and are
+ * replayed on the next start.
+ * <p>
+ * Appends only write to the OS page cache; a background thread fsyncs dirty data in batches
+ * and compacts the journal once enough entries have been acknowledged.
+ */
+public class NotificationOutbox {
+
+    private static final String JOURNAL_FILE = "outbox.journal";
+    private static final long FLUSH_INTERVAL_MS = 50;
+    private static final int COMPACT_THRESHOLD = 256;
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final Path journal;
+    private final NotifyLogger logger;
+    private final ScheduledExecutorService background =
+            Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("ConnectNotify-Outbox"));
+
+    // Pending entries by id, in journal order
+    private final Map<Long, Entry> pending = new ConcurrentSkipListMap<>();
+    private final AtomicInteger acknowledgedSinceCompaction = new AtomicInteger();
+
+    private FileChannel channel;
+    private long nextId = 1;
+    private boolean dirty;
+
+    public NotificationOutbox(File dataFolder, NotifyLogger logger) {
+        this.journal = new File(dataFolder, JOURNAL_FILE).toPath();
+        this.logger = logger;
+    }
+
+    /**
+     * Loads pending entries from the journal and starts background flushing.
+     */
+    public synchronized void open() throws IOException {
+        Files.createDirectories(journal.getParent());
+        if (Files.exists(journal)) {
+            read();
+        }
+        compactNow();
+
+        background.scheduleWithFixedDelay(this::flushAndCompact,
+                FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Journals a request before it is dispatched.
+     *
+     * @return The entry id to {@link #acknowledge(long)} once the request is settled
+     */
+    public long append(String webhookUrl, byte[] payload) {
+        Entry entry;
+        synchronized (this) {
+            entry = new Entry(nextId++, System.currentTimeMillis(), webhookUrl, payload);
+            pending.put(entry.id, entry);
+            write("E " + entry.id + " " + entry.createdAt + " "
+                    + encode(webhookUrl.getBytes(StandardCharsets.UTF_8)) + " " + encode(payload) + "\n");
+        }
+        return entry.id;
+    }
+
+    /**
+     * Marks an entry as settled so it is not replayed.
+     */
+    public void acknowledge(long id) {
+        if (pending.remove(id) == null) {
+            return;
+        }
+        synchronized (this) {
+            write("A " + id + "\n");
+        }
+        acknowledgedSinceCompaction.incrementAndGet();
+    }
+
+    /**
+     * Gets the entries that were journaled but not yet acknowledged.
+     */
+    public List<Entry> getPending() {
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Flushes all journaled data to disk and stops the background thread.
+     */
+    public void close() {
+        background.shutdownNow();
+        synchronized (this) {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close notification outbox: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    private void write(String line) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            dirty = true;
+        } catch (IOException e) {
+            logger.warn("Failed to write notification outbox: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void flushAndCompact() {
+        try {
+            if (acknowledgedSinceCompaction.get() >= COMPACT_THRESHOLD) {
+                compactNow();
+            } else if (dirty && channel != null) {
+                channel.force(false);
+                dirty = false;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to flush notification outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the journal with only the pending entries and atomically replaces the old file.
+     */
+    private void compactNow() throws IOException {
+        Path temp = journal.resolveSibling(JOURNAL_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry entry : pending.values()) {
+                ByteBuffer buffer = ByteBuffer.wrap(("E " + entry.id + " " + entry.createdAt + " "
+                        + encode(entry.webhookUrl.getBytes(StandardCharsets.UTF_8)) + " "
+                        + encode(entry.payload) + "\n").getBytes(StandardCharsets.US_ASCII));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            out.force(true);
+        }
+
+        if (channel != null) {
+            channel.close();
+        }
+        Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(journal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        acknowledgedSinceCompaction.set(0);
+        dirty = false;
+    }
+
+    private void read() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                try {
+                    if (parts[0].equals("E") && parts.length == 5) {
+                        long id = Long.parseLong(parts[1]);
+                        pending.put(id, new Entry(id, Long.parseLong(parts[2]),
+                                new String(DECODER.decode(parts[3]), StandardCharsets.UTF_8),
+                                DECODER.decode(parts[4])));
+                        nextId = Math.max(nextId, id + 1);
+                    } else if (parts[0].equals("A") && parts.length == 2) {
+                        pending.remove(Long.parseLong(parts[1]));
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Torn write from a crash, the entry was never dispatched
+                    logger.debug("Skipping corrupt outbox line");
+                }
+            }
+        }
+    }
+
+    private static String encode(byte[] data) {
+        return ENCODER.encodeToString(data);
+    }
+
+    /**
+     * A journaled webhook request.
+     */
+    public static final class Entry {
+        private final long id;
+        private final long createdAt;
+        private final String webhookUrl;
+        private final byte[] payload;
+
+        Entry(long id, long createdAt, String webhookUrl, byte[] payload) {
+            this.id = id;
+            this.createdAt = createdAt;
+            this.webhookUrl = webhookUrl;
+            this.payload = payload;
+        }
+
+        public long getId() { return id; }
+        public long getCreatedAt() { return createdAt; }
+        public String getWebhookUrl() { return webhookUrl; }
+        public byte[] getPayload() { return payload; }
+    }
+}
@@ -0,0 +1,205 @@
+package com.minekube.connect.notify.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Passes every notification to all {@link NotificationSink}s.
+ * <p>
+ * Each sink has its own queue. Events are collected for the sink's batching window, or sent right
+ * away without one, and each batch is encoded and delivered on the executor while fewer than the
+ * sink's maximum requests are in flight. Further batches wait in the sink's queue, so a slow sink
+ * only delays its own events.
+ */
+public class NotificationPipeline {
+
+    // Oldest events are dropped beyond this, e.g. while a sink is down
+    private static final int MAX_QUEUED = 1000;
+
+    private final NotifyLogger logger;
+    private final NotifyExecutor executor;
+    private final List<Lane> lanes = new CopyOnWriteArrayList<>();
+
+    public NotificationPipeline(NotifyLogger logger, NotifyExecutor executor) {
+        this.logger = logger;
+        this.executor = executor;
+    }
+
+    public void addSink(NotificationSink sink) {
+        lanes.add(new Lane(sink));
+    }
+
+    /**
+     * Gets the names of the sinks, e.g. for logs.
+     */
+    public List<String> getSinkNames() {
+        List<String> names = new ArrayList<>(lanes.size());
+        for (Lane lane : lanes) {
+            names.add(lane.sink.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Queues an event for every sink that accepts it.
+     *
+     * @return One future per accepting sink, completing with {@code true} once the sink delivered the event
+     */
+    public List<CompletableFuture<Boolean>> publish(NotificationEvent event) {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>(lanes.size());
+        for (Lane lane : lanes) {
+            if (lane.sink.accepts(event)) {
+                CompletableFuture<Boolean> result = new CompletableFuture<>();
+                lane.add(new Pending(event, result));
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Sends the queued events without waiting for the batching windows, e.g. when shutting down.
+     */
+    public void flush() {
+        for (Lane lane : lanes) {
+            lane.drain();
+        }
+    }
+
+    /**
+     * Fails the events still queued and closes the sinks.
+     */
+    public void close() {
+        for (Lane lane : lanes) {
+            Pending pending;
+            while ((pending = lane.queue.poll()) != null) {
+                pending.result.complete(false);
+            }
+            lane.sink.close();
+        }
+    }
+
+    private final class Lane {
+        private final NotificationSink sink;
+        private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private final AtomicBoolean dropWarned = new AtomicBoolean();
+
+        private Lane(NotificationSink sink) {
+            this.sink = sink;
+        }
+
+        private void add(Pending pending) {
+            if (queued.incrementAndGet() > MAX_QUEUED) {
+                Pending oldest = queue.poll();
+                if (oldest != null) {
+                    queued.decrementAndGet();
+                    oldest.result.complete(false);
+                    if (dropWarned.compareAndSet(false, true)) {
+                        logger.warn("Notification sink {} is falling behind, dropping its oldest notifications", sink.getName());
+                    }
+                }
+            }
+            queue.add(pending);
+
+            long window = sink.getBatchWindowMillis();
+            if (window <= 0) {
+                drain();
+            } else if (flushScheduled.compareAndSet(false, true)) {
+                try {
+                    executor.schedule(() -> {
+                        // Allow the next event to schedule a flush while this one is running
+                        flushScheduled.set(false);
+                        drain();
+                    }, window, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down, flush() sends the rest
+                    flushScheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * Sends batches while the sink has free slots. Called again whenever a request completes.
+         */
+        private void drain() {
+            while (!queue.isEmpty()) {
+                int current = inFlight.get();
+                if (current >= sink.getMaxInFlight()) {
+                    return;
+                }
+                if (!inFlight.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+
+                List<Pending> batch = new ArrayList<>();
+                Pending pending;
+                while (batch.size() < sink.getMaxBatchSize() && (pending = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    batch.add(pending);
+                }
+                if (batch.isEmpty()) {
+                    // Another thread took the events
+                    inFlight.decrementAndGet();
+                    continue;
+                }
+                try {
+                    // Never runs on the caller, which may be the server's main thread publishing a player event
+                    executor.execute(() -> send(batch));
+                } catch (RejectedExecutionException e) {
+                    inFlight.decrementAndGet();
+                    complete(batch, false);
+                    return;
+                }
+            }
+        }
+
+        private void send(List<Pending> batch) {
+            List<NotificationEvent> events = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                events.add(pending.event);
+            }
+
+            CompletableFuture<Boolean> delivery;
+            try {
+                delivery = sink.deliver(events, sink.getEncoder().encode(events));
+            } catch (RuntimeException e) {
+                logger.warn("Notification sink {} failed", sink.getName(), e);
+                delivery = CompletableFuture.completedFuture(false);
+            }
+            delivery.whenComplete((delivered, error) -> {
+                inFlight.decrementAndGet();
+                complete(batch, error == null && delivered);
+                if (!queue.isEmpty()) {
+                    drain();
+                }
+            });
+        }
+
+        private void complete(List<Pending> batch, boolean delivered) {
+            for (Pending pending : batch) {
+                pending.result.complete(delivered);
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final NotificationEvent event;
+        private final CompletableFuture<Boolean> result;
+
+        private Pending(NotificationEvent event, CompletableFuture<Boolean> result) {
+            this.event = event;
+            this.result = result;
+        }
+    }
+}
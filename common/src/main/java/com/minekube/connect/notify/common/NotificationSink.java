@@ -0,0 +1,62 @@
+package com.minekube.connect.notify.common;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A destination for notifications, e.g. Discord, Slack or a file.
+ * <p>
+ * Every sink gets its own queue in the {@link NotificationPipeline}, which collects events for the
+ * sink's batching window, encodes each batch with the sink's encoder and keeps at most
+ * the sink's number of requests in flight, so a slow sink never holds up the others.
+ */
+public interface NotificationSink {
+
+    /**
+     * Gets the name of the sink for logs, e.g. "slack"
+     */
+    String getName();
+
+    /**
+     * Whether the sink wants the event at all
+     */
+    default boolean accepts(NotificationEvent event) {
+        return true;
+    }
+
+    /**
+     * How long events are collected into one batch, or 0 to send every event right away
+     */
+    long getBatchWindowMillis();
+
+    /**
+     * The most events encoded into one request
+     */
+    int getMaxBatchSize();
+
+    /**
+     * The most requests that may be in flight at once
+     */
+    int getMaxInFlight();
+
+    /**
+     * Gets the encoder that turns a batch into the payload passed to {@link #deliver(List, byte[])}
+     */
+    PayloadEncoder getEncoder();
+
+    /**
+     * Delivers an encoded batch. Called on the executor, so it should only block briefly,
+     * e.g. for a local write, and send requests asynchronously.
+     *
+     * @param events  The events that were encoded
+     * @param payload The encoded events
+     * @return A future completing with {@code true} if the batch was delivered; never completes exceptionally
+     */
+    CompletableFuture<Boolean> deliver(List<NotificationEvent> events, byte[] payload);
+
+    /**
+     * Releases the sink's resources once nothing is sent anymore
+     */
+    default void close() {
+    }
+}
@@ -4,71 +4,82 @@ import org.yaml.snakeyaml.Yaml;
 
 import java.io.*;
 import java.nio.file.Files;
-import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.logging.Logger;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 
 /**
  * Configuration handler for Connect Notify plugin.
+ * <p>
+ * The settings are parsed into an immutable {@link NotifySettings} snapshot and published
+ * with a single atomic swap, so config.yml can be reloaded while notifications are sent.
  */
 public class NotifyConfig {
 
     private final File configFile;
-    private final Logger logger;
+    private final NotifyLogger logger;
 
-    private static final String DEFAULT_ICON = "https://github.com/minekube.png";
+    // Latest successfully loaded settings, swapped as a whole on reload
+    private final AtomicReference<NotifySettings> settings = new AtomicReference<>(NotifySettings.DEFAULTS);
+    private final List<BiConsumer<NotifySettings, NotifySettings>> listeners = new CopyOnWriteArrayList<>();
 
-    // Discord settings
-    private List<String> webhookUrls = new ArrayList<>();
-    private String botUsername = "Connect Notify";
-    private String botAvatarUrl = DEFAULT_ICON;
-
-    // Notification toggles
-    private boolean onlineEnabled = true;
-    private boolean offlineEnabled = true;
-
-    public NotifyConfig(File dataFolder, Logger logger) {
+    public NotifyConfig(File dataFolder, NotifyLogger logger) {
         this.configFile = new File(dataFolder, "config.yml");
         this.logger = logger;
     }
 
-    public void load() {
+    /**
+     * Loads config.yml and publishes it as the current settings.
+     * If the file cannot be parsed, the previous settings stay in effect.
+     *
+     * @return {@code true} if new settings were published
+     */
+    public boolean load() {
         if (!configFile.exists()) {
             saveDefault();
         }
 
+        NotifySettings loaded;
         try (InputStream in = new FileInputStream(configFile)) {
             Yaml yaml = new Yaml();
             Map<String, Object> config = yaml.load(in);
-            if (config == null) {
-                config = new LinkedHashMap<>();
-            }
+            loaded = new NotifySettings(config != null ? config : new LinkedHashMap<>());
+        } catch (Exception e) {
+            logger.error("Failed to load config: {}", e.getMessage());
+            return false;
+        }
 
-            // Load discord section
-            Map<String, Object> discord = getMap(config, "discord");
-            Object webhooksObj = discord.get("webhooks");
-            if (webhooksObj instanceof List) {
-                webhookUrls = new ArrayList<>();
-                for (Object url : (List<?>) webhooksObj) {
-                    if (url instanceof String && !((String) url).isEmpty()
-                            && !((String) url).contains("...")) {
-                        webhookUrls.add((String) url);
-                    }
-                }
+        NotifySettings previous = settings.getAndSet(loaded);
+        for (BiConsumer<NotifySettings, NotifySettings> listener : listeners) {
+            try {
+                listener.accept(previous, loaded);
+            } catch (Exception e) {
+                logger.warn("Failed to apply reloaded config", e);
             }
-            botUsername = getString(discord, "username", botUsername);
-            botAvatarUrl = getString(discord, "avatar-url", botAvatarUrl);
+        }
+        return true;
+    }
 
-            // Load notifications section
-            Map<String, Object> notifications = getMap(config, "notifications");
-            onlineEnabled = getBoolean(notifications, "online", onlineEnabled);
-            offlineEnabled = getBoolean(notifications, "offline", offlineEnabled);
+    /**
+     * Gets the current settings. Take one snapshot per operation instead of calling this
+     * for every value, so a reload in between cannot mix old and new settings.
+     */
+    public NotifySettings get() {
+        return settings.get();
+    }
 
-        } catch (Exception e) {
-            logger.severe("Failed to load config: " + e.getMessage());
-        }
+    /**
+     * Registers a listener that is called with the previous and the new settings after every load.
+     */
+    public void addReloadListener(BiConsumer<NotifySettings, NotifySettings> listener) {
+        listeners.add(listener);
+    }
+
+    public File getFile() {
+        return configFile;
     }
 
     private void saveDefault() {
@@ -80,7 +91,7 @@ public class NotifyConfig {
                 createDefaultConfig();
             }
         } catch (IOException e) {
-            logger.severe("Failed to save default config: " + e.getMessage());
+            logger.error("Failed to save default config: {}", e.getMessage());
         }
     }
 
@@ -89,6 +100,10 @@ public class NotifyConfig {
                 # Connect Notify - Discord notifications for your Minecraft server
                 # https://github.com/minekube/connect-notify
                 
+                # Apply changes to this file without restarting the server.
+                # Toggling a feature, or changing the executor or metrics settings, still requires a restart.
+                auto-reload: true
+                
                 discord:
                   # Add your Discord webhook URL(s) here
                   # Create one: Right-click channel > Edit Channel > Integrations > Webhooks
@@ -99,41 +114,274 @@ public class NotifyConfig {
                   username: 'Connect Notify'
                   avatar-url: 'https://github.com/minekube.png'
                 
+                  # Maximum number of webhook requests sent in parallel
+                  max-concurrent-requests: 8
+                
+                  # Connections to Discord are opened while the server starts. To keep them open, a webhook can be
+                  # fetched once a connection has been idle this long, so notifications do not wait for a new TLS handshake.
+                  # Every fetch is a request to Discord, so this is off (0) by default; use several minutes if enabled.
+                  keep-alive-seconds: 0
+                
                 # Enable/disable notifications
                 notifications:
                   online: true
                   offline: true
+                
+                # Collapse a quick restart into one message: if the server is back within the window,
+                # the offline notification is edited to "restarted (down 8s)" instead of posting again.
+                restarts:
+                  enabled: true
+                  window-seconds: 120
+                  # A server that starts this often within the flapping window only edits its last
+                  # notification instead of posting new ones
+                  flapping-threshold: 3
+                  flapping-window-minutes: 15
+                
+                # Keep one message per webhook up to date with the live player count.
+                # Player joins and quits within the debounce window are combined into one edit.
+                status-board:
+                  enabled: false
+                  debounce-ms: 5000
+                
+                # Post player joins and quits as a combined digest instead of one message each.
+                # The digest is sent every interval, or as soon as max-events are waiting.
+                player-digest:
+                  enabled: false
+                  interval-seconds: 60
+                  max-events: 200
+                
+                # Post a summary of player activity every hour and/or every day, in the server's time zone: peak and unique
+                # players, sessions, median session length and total playtime. The counters survive restarts.
+                session-reports:
+                  enabled: false
+                  hourly: false
+                  daily: true
+                
+                # Keep undelivered notifications on disk and retry them, even across restarts
+                outbox:
+                  enabled: true
+                  # Retries per notification, with exponential backoff
+                  max-retries: 5
+                  # Notifications older than this are dropped instead of replayed
+                  max-age-minutes: 60
+                
+                # How long the server may wait for the offline notification when stopping.
+                # Anything not delivered in time stays in the outbox for the next start.
+                shutdown:
+                  deadline-ms: 3000
+                
+                # Threads that send notifications, separate from the server's own schedulers
+                executor:
+                  threads: 4
+                  # Tasks that may wait for a free thread before new ones are rejected
+                  queue-capacity: 1024
+                  # Use virtual threads on Java 21 and newer
+                  virtual-threads: false
+                
+                # Delivery metrics per webhook: latency histograms, response counters and queue depth.
+                # Webhooks are labelled by their id only, never by their token.
+                metrics:
+                  # Expose the metrics as MBeans under com.minekube.connect.notify
+                  jmx: true
+                  # Serve the metrics in the Prometheus text format on http://127.0.0.1:<port>/metrics
+                  prometheus:
+                    enabled: false
+                    port: 9464
+                
+                # Measure latency in the background for the {ping} and {endpoint-ping} placeholders.
+                # {ping} is the average player ping on a server, or the round-trip time to the backend servers on a proxy.
+                # {endpoint-ping} is the time to connect to your Connect endpoint.
+                ping:
+                  enabled: true
+                  interval-seconds: 30
+                
+                # Alert when the server lags and again once it has recovered (Paper only).
+                # TPS and the 99th percentile tick time (MSPT) are measured over the last window-seconds.
+                # The recovered thresholds are stricter, so a server hovering around a threshold does not keep alerting.
+                performance:
+                  enabled: false
+                  window-seconds: 60
+                  check-interval-seconds: 5
+                  degraded-tps: 18.0
+                  degraded-mspt: 50
+                  recovered-tps: 19.5
+                  recovered-mspt: 40
+                
+                # Alert when the main thread stops ticking, with a dump of its stack attached, and again once it recovers (Bukkit only).
+                watchdog:
+                  enabled: false
+                  # How long the server may go without a tick before it counts as frozen
+                  stall-seconds: 10
+                
+                # Send the notifications to other services as well, next to Discord. Player joins and quits are sent as events too.
+                # Each sink collects the notifications of batch-window-ms into one request (0 sends each right away)
+                # and sends at most max-in-flight requests at a time, so a slow sink never delays the others.
+                sinks:
+                  # Slack incoming webhook, one attachment per notification
+                  slack:
+                    enabled: false
+                    webhook-url: ''
+                    batch-window-ms: 2000
+                    max-in-flight: 1
+                  # Any endpoint accepting {"events": [{"type": "online", "timestamp": "...", "fields": {...}}]}
+                  http:
+                    enabled: false
+                    url: ''
+                    headers: {}
+                    batch-window-ms: 1000
+                    max-in-flight: 4
+                  # One JSON object per line, relative to the plugin folder, e.g. for a log shipper
+                  file:
+                    enabled: false
+                    path: 'notifications.ndjson'
+                    batch-window-ms: 1000
+                
+                # Post one message for a whole network instead of one per server.
+                # Enable on the proxy and on every backend server behind it. Backends then report to the proxy
+                # instead of posting, and the proxy keeps one "58/60 servers online" message up to date.
+                fleet:
+                  enabled: false
+                  # How often the proxy pings its backends to notice ones that stopped or crashed without reporting
+                  ping-interval-seconds: 30
+                  # Server state changes within this window are combined into one edit
+                  debounce-ms: 5000
+                
+                # Embed layouts. Placeholders: {endpoint}, {players}, {max}, {platform}, {ping}, {endpoint-ping}
+                # The restarted layout replaces the offline notification after a quick restart and can also use {downtime}.
+                # The status-board layouts are used for the live status board message.
+                # The fleet layout is used on the proxy and can also use {online-servers}, {servers} and {offline-servers}.
+                # The performance layouts can also use {tps} and {mspt}, the stall layouts {stall}.
+                # The session report layout can also use {period}, {peak-players}, {unique-players}, {sessions}, {median-session} and {playtime}.
+                embeds:
+                  online:
+                    title: 'Server Online'
+                    description: "🎮 Join now and start playing!\\n```\\n{endpoint}\\n```"
+                    color: '#57F287'
+                    fields:
+                      - name: 'Status'
+                        value: '🟢 Online'
+                      - name: 'Players'
+                        value: '{players}/{max}'
+                      - name: 'Ping'
+                        value: '{endpoint-ping}'
+                    footer: 'Minekube Connect • connect.minekube.com'
+                  offline:
+                    title: 'Server Offline'
+                    description: "🎮 See you next time!\\n```\\n{endpoint}\\n```"
+                    color: '#ED4245'
+                    fields:
+                      - name: 'Status'
+                        value: '🔴 Offline'
+                      - name: 'Players'
+                        value: '—'
+                      - name: 'Ping'
+                        value: '—'
+                    footer: 'Minekube Connect • connect.minekube.com'
+                  restarted:
+                    title: 'Server Restarted'
+                    description: "🔄 Back online after {downtime}\\n```\\n{endpoint}\\n```"
+                    color: '#57F287'
+                    fields:
+                      - name: 'Status'
+                        value: '🟢 Online'
+                      - name: 'Players'
+                        value: '{players}/{max}'
+                      - name: 'Downtime'
+                        value: '{downtime}'
+                    footer: 'Minekube Connect • connect.minekube.com'
+                  status-board-online:
+                    title: 'Server Status'
+                    description: "🎮 Join now and start playing!\\n```\\n{endpoint}\\n```"
+                    color: '#57F287'
+                    fields:
+                      - name: 'Status'
+                        value: '🟢 Online'
+                      - name: 'Players'
+                        value: '{players}/{max}'
+                      - name: 'Ping'
+                        value: '{ping}'
+                    footer: 'Minekube Connect • Last updated'
+                  status-board-offline:
+                    title: 'Server Status'
+                    description: "🎮 See you next time!\\n```\\n{endpoint}\\n```"
+                    color: '#ED4245'
+                    fields:
+                      - name: 'Status'
+                        value: '🔴 Offline'
+                      - name: 'Players'
+                        value: '—'
+                    footer: 'Minekube Connect • Last updated'
+                  fleet:
+                    title: 'Network Status'
+                    description: "🎮 {online-servers}/{servers} servers online\\n```\\n{endpoint}\\n```"
+                    color: '#57F287'
+                    fields:
+                      - name: 'Players'
+                        value: '{players}/{max}'
+                      - name: 'Offline'
+                        value: '{offline-servers}'
+                    footer: 'Minekube Connect • Last updated'
+                  performance-degraded:
+                    title: 'Performance Degraded'
+                    description: "🐢 The server is lagging\\n```\\n{endpoint}\\n```"
+                    color: '#FEE75C'
+                    fields:
+                      - name: 'TPS'
+                        value: '{tps}'
+                      - name: 'Tick Time (p99)'
+                        value: '{mspt} ms'
+                      - name: 'Players'
+                        value: '{players}/{max}'
+                    footer: 'Minekube Connect • connect.minekube.com'
+                  performance-recovered:
+                    title: 'Performance Recovered'
+                    description: "✅ The server is running smoothly again\\n```\\n{endpoint}\\n```"
+                    color: '#57F287'
+                    fields:
+                      - name: 'TPS'
+                        value: '{tps}'
+                      - name: 'Tick Time (p99)'
+                        value: '{mspt} ms'
+                      - name: 'Players'
+                        value: '{players}/{max}'
+                    footer: 'Minekube Connect • connect.minekube.com'
+                  stalled:
+                    title: 'Server Frozen'
+                    description: "🧊 The server has not ticked for {stall}. The main thread's stack is attached.\\n```\\n{endpoint}\\n```"
+                    color: '#ED4245'
+                    fields:
+                      - name: 'Status'
+                        value: '🧊 Frozen'
+                      - name: 'Players'
+                        value: '{players}/{max}'
+                    footer: 'Minekube Connect • connect.minekube.com'
+                  stall-recovered:
+                    title: 'Server Unfrozen'
+                    description: "✅ The server is ticking again after {stall}\\n```\\n{endpoint}\\n```"
+                    color: '#57F287'
+                    fields:
+                      - name: 'Status'
+                        value: '🟢 Online'
+                      - name: 'Players'
+                        value: '{players}/{max}'
+                    footer: 'Minekube Connect • connect.minekube.com'
+                  session-report:
+                    title: 'Player Report'
+                    description: "📅 {period}\\n```\\n{endpoint}\\n```"
+                    color: '#5865F2'
+                    fields:
+                      - name: 'Peak Players'
+                        value: '{peak-players}'
+                      - name: 'Unique Players'
+                        value: '{unique-players}'
+                      - name: 'Sessions'
+                        value: '{sessions}'
+                      - name: 'Median Session'
+                        value: '{median-session}'
+                      - name: 'Total Playtime'
+                        value: '{playtime}'
+                    footer: 'Minekube Connect • connect.minekube.com'
                 """;
         Files.writeString(configFile.toPath(), defaultConfig);
     }
-
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> getMap(Map<String, Object> parent, String key) {
-        Object value = parent.get(key);
-        if (value instanceof Map) {
-            return (Map<String, Object>) value;
-        }
-        return new LinkedHashMap<>();
-    }
-
-    private String getString(Map<String, Object> map, String key, String def) {
-        Object value = map.get(key);
-        return value instanceof String ? (String) value : def;
-    }
-
-    private boolean getBoolean(Map<String, Object> map, String key, boolean def) {
-        Object value = map.get(key);
-        return value instanceof Boolean ? (Boolean) value : def;
-    }
-
-    // Getters
-    public List<String> getWebhookUrls() { return webhookUrls; }
-    public String getBotUsername() { return botUsername; }
-    public String getBotAvatarUrl() { return botAvatarUrl; }
-    public boolean isOnlineEnabled() { return onlineEnabled; }
-    public boolean isOfflineEnabled() { return offlineEnabled; }
-
-    public boolean hasWebhooks() {
-        return !webhookUrls.isEmpty();
-    }
 }
@@ -0,0 +1,198 @@
+package com.minekube.connect.notify.common;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded executor owned by the plugin, so slow webhooks never tie up the platform's shared schedulers.
+ * <p>
+ * Tasks run on a fixed number of named worker threads with a bounded queue. When the queue is
+ * full, tasks submitted from a worker run on the submitting worker, and tasks submitted from
+ * any other thread, such as the server's main thread, are rejected. Delayed and repeating tasks
+ * are timed by a single scheduler thread that hands them over to the workers, or runs them
+ * itself when the queue is full, so they are never lost.
+ * <p>
+ * The workers can be virtual threads on Java 21 and later. They are created through reflection,
+ * so this class still compiles and runs on Java 17, where platform threads are used instead.
+ */
+public class NotifyExecutor implements Executor {
+
+    private static final String WORKER_PREFIX = "ConnectNotify-Worker";
+
+    private final NotifyLogger logger;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Executor callerRuns = this::executeOrRun;
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param threads        Number of worker threads
+     * @param queueCapacity  Number of tasks that may wait for a worker
+     * @param virtualThreads Whether to use virtual threads for the workers if the runtime supports them
+     */
+    public NotifyExecutor(NotifyLogger logger, int threads, int queueCapacity, boolean virtualThreads) {
+        this.logger = logger;
+        ThreadFactory workerFactory = virtualThreads ? virtualThreadFactory() : null;
+        if (workerFactory == null) {
+            if (virtualThreads) {
+                logger.warn("Virtual threads require Java 21 or newer, using platform threads");
+            }
+            workerFactory = new DaemonThreadFactory(WORKER_PREFIX);
+        }
+
+        int poolSize = Math.max(1, threads);
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), workerFactory, this::reject);
+        this.workers.allowCoreThreadTimeOut(true);
+
+        this.scheduler = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("ConnectNotify-Scheduler"));
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Runs a task on a worker.
+     *
+     * @throws RejectedExecutionException If the queue is full or the executor was shut down
+     */
+    @Override
+    public void execute(Runnable task) {
+        try {
+            workers.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (!workers.isShutdown()) {
+                long count = rejected.incrementAndGet();
+                if (count == 1 || count % 100 == 0) {
+                    logger.warn("Notification queue is full, {} task(s) rejected so far", count);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets a view of this executor that runs a task on the submitting thread instead of rejecting it
+     * when the queue is full or the executor was shut down. Meant for short completion callbacks,
+     * such as the HTTP client's, which must not be lost.
+     */
+    public Executor callerRunsWhenFull() {
+        return callerRuns;
+    }
+
+    private void executeOrRun(Runnable task) {
+        try {
+            workers.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * Runs a task on a worker after the given delay.
+     *
+     * @return A future that cancels the task if it has not been handed to a worker yet
+     * @throws RejectedExecutionException If the executor was shut down
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return scheduler.schedule(() -> executeOrRun(task), delay, unit);
+    }
+
+    /**
+     * Runs a task on a worker repeatedly. The next run is timed from the end of the previous one,
+     * so runs never overlap, even if a run takes longer than the period.
+     *
+     * @return A future that stops the repetition when cancelled; it never completes otherwise
+     */
+    public CompletableFuture<Void> scheduleRepeating(Runnable task, long period, TimeUnit unit) {
+        CompletableFuture<Void> handle = new CompletableFuture<>();
+        scheduleNext(task, period, unit, handle);
+        return handle;
+    }
+
+    private void scheduleNext(Runnable task, long period, TimeUnit unit, CompletableFuture<Void> handle) {
+        if (handle.isDone() || scheduler.isShutdown()) {
+            return;
+        }
+        Runnable run = () -> {
+            if (handle.isDone()) {
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                scheduleNext(task, period, unit, handle);
+            }
+        };
+        try {
+            schedule(run, period, unit);
+        } catch (RejectedExecutionException e) {
+            // Shut down
+        }
+    }
+
+    /**
+     * Gets the number of tasks rejected because the queue was full.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Stops accepting tasks and waits for running and queued tasks to finish.
+     * Delayed and repeating tasks that are not due yet are dropped.
+     *
+     * @param timeout How long to wait before interrupting the remaining tasks
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        scheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(timeout, unit)) {
+                logger.debug("Executor tasks still running after shutdown timeout, interrupting them");
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reject(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Executor was shut down");
+        }
+        if (Thread.currentThread().getName().startsWith(WORKER_PREFIX)) {
+            // Slowing down our own workers is the backpressure; never block other threads
+            task.run();
+            return;
+        }
+        throw new RejectedExecutionException("Notification queue is full");
+    }
+
+    /**
+     * Creates a factory for virtual threads using {@code Thread.ofVirtual()}.
+     *
+     * @return The factory, or {@code null} if the runtime does not support virtual threads
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, WORKER_PREFIX + "-", 1L);
+            Method factory = builderClass.getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.minekube.connect.notify.common;
+
+import java.util.function.Supplier;
+
+/**
+ * Logs through the platform's own logger, see {@link ConnectNotifyPlatform#getNotifyLogger()}.
+ * <p>
+ * Messages are only built when their level is enabled. Parameterised calls replace each {@code {}} in the
+ * message with the next argument, like SLF4J, and a {@link Throwable} left over as the last argument is logged
+ * with its stack trace. Calls with up to two arguments, or with a supplier, allocate nothing while the level is
+ * disabled, apart from boxing primitive arguments; hot paths check {@link #isDebugEnabled()} first for those.
+ */
+public interface NotifyLogger {
+
+    enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    /**
+     * Whether messages of the given level are logged.
+     */
+    boolean isEnabled(Level level);
+
+    /**
+     * Writes a message to the backend. Only called if the level is enabled.
+     *
+     * @param error The exception to log with the message, or {@code null}
+     */
+    void log(Level level, String message, Throwable error);
+
+    /**
+     * Binds a java.util.logging logger, as used by Bukkit and BungeeCord.
+     */
+    static NotifyLogger of(java.util.logging.Logger logger) {
+        return new JulNotifyLogger(logger);
+    }
+
+    default boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    default void debug(String message) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, message, null);
+        }
+    }
+
+    default void debug(String format, Object arg) {
+        if (isEnabled(Level.DEBUG)) {
+            format(Level.DEBUG, format, arg);
+        }
+    }
+
+    default void debug(String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.DEBUG)) {
+            format(Level.DEBUG, format, arg1, arg2);
+        }
+    }
+
+    default void debug(String format, Object... args) {
+        if (isEnabled(Level.DEBUG)) {
+            format(Level.DEBUG, format, args);
+        }
+    }
+
+    default void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, message.get(), null);
+        }
+    }
+
+    default void info(String message) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, message, null);
+        }
+    }
+
+    default void info(String format, Object arg) {
+        if (isEnabled(Level.INFO)) {
+            format(Level.INFO, format, arg);
+        }
+    }
+
+    default void info(String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.INFO)) {
+            format(Level.INFO, format, arg1, arg2);
+        }
+    }
+
+    default void info(String format, Object... args) {
+        if (isEnabled(Level.INFO)) {
+            format(Level.INFO, format, args);
+        }
+    }
+
+    default void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, message.get(), null);
+        }
+    }
+
+    default void warn(String message) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, message, null);
+        }
+    }
+
+    default void warn(String message, Throwable error) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, message, error);
+        }
+    }
+
+    default void warn(String format, Object arg) {
+        if (isEnabled(Level.WARN)) {
+            format(Level.WARN, format, arg);
+        }
+    }
+
+    default void warn(String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.WARN)) {
+            format(Level.WARN, format, arg1, arg2);
+        }
+    }
+
+    default void warn(String format, Object... args) {
+        if (isEnabled(Level.WARN)) {
+            format(Level.WARN, format, args);
+        }
+    }
+
+    default void warn(Supplier<String> message) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, message.get(), null);
+        }
+    }
+
+    default void error(String message) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, message, null);
+        }
+    }
+
+    default void error(String message, Throwable error) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, message, error);
+        }
+    }
+
+    default void error(String format, Object arg) {
+        if (isEnabled(Level.ERROR)) {
+            format(Level.ERROR, format, arg);
+        }
+    }
+
+    default void error(String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.ERROR)) {
+            format(Level.ERROR, format, arg1, arg2);
+        }
+    }
+
+    default void error(String format, Object... args) {
+        if (isEnabled(Level.ERROR)) {
+            format(Level.ERROR, format, args);
+        }
+    }
+
+    default void error(Supplier<String> message) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, message.get(), null);
+        }
+    }
+
+    private void format(Level level, String format, Object... args) {
+        StringBuilder message = new StringBuilder(format.length() + 16 * args.length);
+        int used = 0;
+        int start = 0;
+        int placeholder;
+        while (used < args.length && (placeholder = format.indexOf("{}", start)) >= 0) {
+            message.append(format, start, placeholder).append(args[used++]);
+            start = placeholder + 2;
+        }
+        message.append(format, start, format.length());
+
+        Object last = args.length > 0 ? args[args.length - 1] : null;
+        Throwable error = used < args.length && last instanceof Throwable ? (Throwable) last : null;
+        log(level, message.toString(), error);
+    }
+}
@@ -0,0 +1,373 @@
+package com.minekube.connect.notify.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the Connect Notify configuration.
+ * <p>
+ * A snapshot is parsed completely before {@link NotifyConfig} publishes it, so readers
+ * never see a half-loaded config. Code that reads several settings for one operation
+ * should take one snapshot and read them all from it.
+ */
+public final class NotifySettings {
+
+    private static final String DEFAULT_ICON = "https://github.com/minekube.png";
+
+    /**
+     * Settings used before the config was loaded or when it cannot be parsed.
+     */
+    public static final NotifySettings DEFAULTS = new NotifySettings(new LinkedHashMap<>());
+
+    // Discord settings
+    private final List<String> webhookUrls;
+    private final String botUsername;
+    private final String botAvatarUrl;
+    private final int maxConcurrentRequests;
+    private final int keepAliveSeconds;
+
+    // Notification toggles
+    private final boolean onlineEnabled;
+    private final boolean offlineEnabled;
+
+    // Restart settings
+    private final boolean restartsEnabled;
+    private final int restartWindowSeconds;
+    private final int flappingThreshold;
+    private final int flappingWindowMinutes;
+
+    // Status board settings
+    private final boolean statusBoardEnabled;
+    private final int statusBoardDebounceMs;
+
+    // Player digest settings
+    private final boolean playerDigestEnabled;
+    private final int playerDigestIntervalSeconds;
+    private final int playerDigestMaxEvents;
+
+    // Session report settings
+    private final boolean sessionReportsEnabled;
+    private final boolean sessionReportsHourly;
+    private final boolean sessionReportsDaily;
+
+    // Outbox settings
+    private final boolean outboxEnabled;
+    private final int outboxMaxRetries;
+    private final int outboxMaxAgeMinutes;
+
+    // Shutdown settings
+    private final int shutdownDeadlineMs;
+
+    // Executor settings
+    private final int executorThreads;
+    private final int executorQueueCapacity;
+    private final boolean executorVirtualThreads;
+
+    // Metrics settings
+    private final boolean metricsJmxEnabled;
+    private final boolean metricsPrometheusEnabled;
+    private final int metricsPrometheusPort;
+
+    // Ping settings
+    private final boolean pingEnabled;
+    private final int pingIntervalSeconds;
+
+    // Performance settings
+    private final boolean performanceEnabled;
+    private final int performanceWindowSeconds;
+    private final int performanceCheckIntervalSeconds;
+    private final double performanceDegradedTps;
+    private final double performanceDegradedMspt;
+    private final double performanceRecoveredTps;
+    private final double performanceRecoveredMspt;
+
+    // Watchdog settings
+    private final boolean watchdogEnabled;
+    private final int watchdogStallSeconds;
+
+    // Sink settings
+    private final boolean slackEnabled;
+    private final String slackWebhookUrl;
+    private final int slackBatchWindowMs;
+    private final int slackMaxInFlight;
+    private final boolean httpEnabled;
+    private final String httpUrl;
+    private final Map<String, String> httpHeaders;
+    private final int httpBatchWindowMs;
+    private final int httpMaxInFlight;
+    private final boolean fileEnabled;
+    private final String filePath;
+    private final int fileBatchWindowMs;
+
+    // Fleet settings
+    private final boolean fleetEnabled;
+    private final int fleetPingIntervalSeconds;
+    private final int fleetDebounceMs;
+
+    // Reload settings
+    private final boolean autoReload;
+
+    // Embed templates, compiled on load
+    private final EmbedTemplate onlineTemplate;
+    private final EmbedTemplate offlineTemplate;
+    private final EmbedTemplate restartedTemplate;
+    private final EmbedTemplate statusBoardOnlineTemplate;
+    private final EmbedTemplate statusBoardOfflineTemplate;
+    private final EmbedTemplate fleetTemplate;
+    private final EmbedTemplate performanceDegradedTemplate;
+    private final EmbedTemplate performanceRecoveredTemplate;
+    private final EmbedTemplate stalledTemplate;
+    private final EmbedTemplate stallRecoveredTemplate;
+    private final EmbedTemplate sessionReportTemplate;
+
+    /**
+     * Parses the settings from the root of a loaded config.yml.
+     */
+    public NotifySettings(Map<String, Object> config) {
+        // Load discord section
+        Map<String, Object> discord = getMap(config, "discord");
+        List<String> urls = new ArrayList<>();
+        Object webhooksObj = discord.get("webhooks");
+        if (webhooksObj instanceof List) {
+            for (Object url : (List<?>) webhooksObj) {
+                if (url instanceof String && !((String) url).isEmpty()
+                        && !((String) url).contains("...")) {
+                    urls.add((String) url);
+                }
+            }
+        }
+        webhookUrls = Collections.unmodifiableList(urls);
+        botUsername = getString(discord, "username", "Connect Notify");
+        botAvatarUrl = getString(discord, "avatar-url", DEFAULT_ICON);
+        maxConcurrentRequests = Math.max(1, getInt(discord, "max-concurrent-requests", 8));
+        keepAliveSeconds = Math.max(0, getInt(discord, "keep-alive-seconds", 0));
+
+        // Load notifications section
+        Map<String, Object> notifications = getMap(config, "notifications");
+        onlineEnabled = getBoolean(notifications, "online", true);
+        offlineEnabled = getBoolean(notifications, "offline", true);
+
+        // Load restarts section
+        Map<String, Object> restarts = getMap(config, "restarts");
+        restartsEnabled = getBoolean(restarts, "enabled", true);
+        restartWindowSeconds = Math.max(0, getInt(restarts, "window-seconds", 120));
+        flappingThreshold = Math.max(2, getInt(restarts, "flapping-threshold", 3));
+        flappingWindowMinutes = Math.max(1, getInt(restarts, "flapping-window-minutes", 15));
+
+        // Load status board section
+        Map<String, Object> statusBoard = getMap(config, "status-board");
+        statusBoardEnabled = getBoolean(statusBoard, "enabled", false);
+        statusBoardDebounceMs = Math.max(100, getInt(statusBoard, "debounce-ms", 5000));
+
+        // Load player digest section
+        Map<String, Object> playerDigest = getMap(config, "player-digest");
+        playerDigestEnabled = getBoolean(playerDigest, "enabled", false);
+        playerDigestIntervalSeconds = Math.max(1, getInt(playerDigest, "interval-seconds", 60));
+        playerDigestMaxEvents = Math.max(1, getInt(playerDigest, "max-events", 200));
+
+        // Load session reports section
+        Map<String, Object> sessionReports = getMap(config, "session-reports");
+        sessionReportsEnabled = getBoolean(sessionReports, "enabled", false);
+        sessionReportsHourly = getBoolean(sessionReports, "hourly", false);
+        sessionReportsDaily = getBoolean(sessionReports, "daily", true);
+
+        // Load outbox section
+        Map<String, Object> outbox = getMap(config, "outbox");
+        outboxEnabled = getBoolean(outbox, "enabled", true);
+        outboxMaxRetries = getInt(outbox, "max-retries", 5);
+        outboxMaxAgeMinutes = getInt(outbox, "max-age-minutes", 60);
+
+        // Load shutdown section
+        Map<String, Object> shutdown = getMap(config, "shutdown");
+        shutdownDeadlineMs = getInt(shutdown, "deadline-ms", 3000);
+
+        // Load executor section
+        Map<String, Object> executor = getMap(config, "executor");
+        executorThreads = Math.max(1, getInt(executor, "threads", 4));
+        executorQueueCapacity = Math.max(1, getInt(executor, "queue-capacity", 1024));
+        executorVirtualThreads = getBoolean(executor, "virtual-threads", false);
+
+        // Load metrics section
+        Map<String, Object> metrics = getMap(config, "metrics");
+        metricsJmxEnabled = getBoolean(metrics, "jmx", true);
+        Map<String, Object> prometheus = getMap(metrics, "prometheus");
+        metricsPrometheusEnabled = getBoolean(prometheus, "enabled", false);
+        metricsPrometheusPort = getInt(prometheus, "port", 9464);
+
+        // Load ping section
+        Map<String, Object> ping = getMap(config, "ping");
+        pingEnabled = getBoolean(ping, "enabled", true);
+        pingIntervalSeconds = Math.max(1, getInt(ping, "interval-seconds", 30));
+
+        // Load performance section
+        Map<String, Object> performance = getMap(config, "performance");
+        performanceEnabled = getBoolean(performance, "enabled", false);
+        performanceWindowSeconds = Math.max(10, getInt(performance, "window-seconds", 60));
+        performanceCheckIntervalSeconds = Math.max(1, getInt(performance, "check-interval-seconds", 5));
+        performanceDegradedTps = getDouble(performance, "degraded-tps", 18);
+        performanceDegradedMspt = getDouble(performance, "degraded-mspt", 50);
+        // Recovering never requires better values than degrading allows
+        performanceRecoveredTps = Math.max(performanceDegradedTps, getDouble(performance, "recovered-tps", 19.5));
+        performanceRecoveredMspt = Math.min(performanceDegradedMspt, getDouble(performance, "recovered-mspt", 40));
+
+        // Load watchdog section
+        Map<String, Object> watchdog = getMap(config, "watchdog");
+        watchdogEnabled = getBoolean(watchdog, "enabled", false);
+        watchdogStallSeconds = Math.max(2, getInt(watchdog, "stall-seconds", 10));
+
+        // Load sinks section
+        Map<String, Object> sinks = getMap(config, "sinks");
+        Map<String, Object> slack = getMap(sinks, "slack");
+        slackWebhookUrl = getString(slack, "webhook-url", "");
+        slackEnabled = getBoolean(slack, "enabled", false) && !slackWebhookUrl.isEmpty();
+        slackBatchWindowMs = Math.max(0, getInt(slack, "batch-window-ms", 2000));
+        slackMaxInFlight = Math.max(1, getInt(slack, "max-in-flight", 1));
+        Map<String, Object> http = getMap(sinks, "http");
+        httpUrl = getString(http, "url", "");
+        httpEnabled = getBoolean(http, "enabled", false) && !httpUrl.isEmpty();
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> header : getMap(http, "headers").entrySet()) {
+            if (header.getValue() != null) {
+                headers.put(header.getKey(), header.getValue().toString());
+            }
+        }
+        httpHeaders = Collections.unmodifiableMap(headers);
+        httpBatchWindowMs = Math.max(0, getInt(http, "batch-window-ms", 1000));
+        httpMaxInFlight = Math.max(1, getInt(http, "max-in-flight", 4));
+        Map<String, Object> file = getMap(sinks, "file");
+        filePath = getString(file, "path", "notifications.ndjson");
+        fileEnabled = getBoolean(file, "enabled", false) && !filePath.isEmpty();
+        fileBatchWindowMs = Math.max(0, getInt(file, "batch-window-ms", 1000));
+
+        // Load fleet section
+        Map<String, Object> fleet = getMap(config, "fleet");
+        fleetEnabled = getBoolean(fleet, "enabled", false);
+        fleetPingIntervalSeconds = Math.max(1, getInt(fleet, "ping-interval-seconds", 30));
+        fleetDebounceMs = Math.max(100, getInt(fleet, "debounce-ms", 5000));
+
+        autoReload = getBoolean(config, "auto-reload", true);
+
+        // Load and compile embeds section
+        Map<String, Object> embeds = getMap(config, "embeds");
+        onlineTemplate = compile(embeds, "online", DiscordWebhook.ONLINE_LAYOUT);
+        offlineTemplate = compile(embeds, "offline", DiscordWebhook.OFFLINE_LAYOUT);
+        restartedTemplate = compile(embeds, "restarted", DiscordWebhook.RESTARTED_LAYOUT);
+        statusBoardOnlineTemplate = compile(embeds, "status-board-online", DiscordWebhook.STATUS_BOARD_ONLINE_LAYOUT);
+        statusBoardOfflineTemplate = compile(embeds, "status-board-offline", DiscordWebhook.STATUS_BOARD_OFFLINE_LAYOUT);
+        fleetTemplate = compile(embeds, "fleet", DiscordWebhook.FLEET_LAYOUT);
+        performanceDegradedTemplate = compile(embeds, "performance-degraded", DiscordWebhook.PERFORMANCE_DEGRADED_LAYOUT);
+        performanceRecoveredTemplate = compile(embeds, "performance-recovered", DiscordWebhook.PERFORMANCE_RECOVERED_LAYOUT);
+        stalledTemplate = compile(embeds, "stalled", DiscordWebhook.STALLED_LAYOUT);
+        stallRecoveredTemplate = compile(embeds, "stall-recovered", DiscordWebhook.STALL_RECOVERED_LAYOUT);
+        sessionReportTemplate = compile(embeds, "session-report", DiscordWebhook.SESSION_REPORT_LAYOUT);
+    }
+
+    private EmbedTemplate compile(Map<String, Object> embeds, String key, EmbedLayout defaults) {
+        return DiscordWebhook.compile(EmbedLayout.fromMap(getMap(embeds, key), defaults), botUsername, botAvatarUrl);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> getMap(Map<String, Object> parent, String key) {
+        Object value = parent.get(key);
+        if (value instanceof Map) {
+            return (Map<String, Object>) value;
+        }
+        return new LinkedHashMap<>();
+    }
+
+    private static String getString(Map<String, Object> map, String key, String def) {
+        Object value = map.get(key);
+        return value instanceof String ? (String) value : def;
+    }
+
+    private static int getInt(Map<String, Object> map, String key, int def) {
+        Object value = map.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : def;
+    }
+
+    private static double getDouble(Map<String, Object> map, String key, double def) {
+        Object value = map.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : def;
+    }
+
+    private static boolean getBoolean(Map<String, Object> map, String key, boolean def) {
+        Object value = map.get(key);
+        return value instanceof Boolean ? (Boolean) value : def;
+    }
+
+    // Getters
+    public List<String> getWebhookUrls() { return webhookUrls; }
+    public String getBotUsername() { return botUsername; }
+    public String getBotAvatarUrl() { return botAvatarUrl; }
+    public int getMaxConcurrentRequests() { return maxConcurrentRequests; }
+    public int getKeepAliveSeconds() { return keepAliveSeconds; }
+    public boolean isOnlineEnabled() { return onlineEnabled; }
+    public boolean isOfflineEnabled() { return offlineEnabled; }
+    public boolean isRestartsEnabled() { return restartsEnabled; }
+    public int getRestartWindowSeconds() { return restartWindowSeconds; }
+    public int getFlappingThreshold() { return flappingThreshold; }
+    public int getFlappingWindowMinutes() { return flappingWindowMinutes; }
+    public boolean isStatusBoardEnabled() { return statusBoardEnabled; }
+    public int getStatusBoardDebounceMs() { return statusBoardDebounceMs; }
+    public boolean isPlayerDigestEnabled() { return playerDigestEnabled; }
+    public int getPlayerDigestIntervalSeconds() { return playerDigestIntervalSeconds; }
+    public int getPlayerDigestMaxEvents() { return playerDigestMaxEvents; }
+    public boolean isSessionReportsEnabled() { return sessionReportsEnabled; }
+    public boolean isSessionReportsHourly() { return sessionReportsHourly; }
+    public boolean isSessionReportsDaily() { return sessionReportsDaily; }
+    public boolean isOutboxEnabled() { return outboxEnabled; }
+    public int getOutboxMaxRetries() { return outboxMaxRetries; }
+    public int getOutboxMaxAgeMinutes() { return outboxMaxAgeMinutes; }
+    public int getShutdownDeadlineMs() { return shutdownDeadlineMs; }
+    public int getExecutorThreads() { return executorThreads; }
+    public int getExecutorQueueCapacity() { return executorQueueCapacity; }
+    public boolean isExecutorVirtualThreads() { return executorVirtualThreads; }
+    public boolean isMetricsJmxEnabled() { return metricsJmxEnabled; }
+    public boolean isMetricsPrometheusEnabled() { return metricsPrometheusEnabled; }
+    public int getMetricsPrometheusPort() { return metricsPrometheusPort; }
+    public boolean isPingEnabled() { return pingEnabled; }
+    public int getPingIntervalSeconds() { return pingIntervalSeconds; }
+    public boolean isPerformanceEnabled() { return performanceEnabled; }
+    public int getPerformanceWindowSeconds() { return performanceWindowSeconds; }
+    public int getPerformanceCheckIntervalSeconds() { return performanceCheckIntervalSeconds; }
+    public double getPerformanceDegradedTps() { return performanceDegradedTps; }
+    public double getPerformanceDegradedMspt() { return performanceDegradedMspt; }
+    public double getPerformanceRecoveredTps() { return performanceRecoveredTps; }
+    public double getPerformanceRecoveredMspt() { return performanceRecoveredMspt; }
+    public boolean isWatchdogEnabled() { return watchdogEnabled; }
+    public int getWatchdogStallSeconds() { return watchdogStallSeconds; }
+    public boolean isSlackEnabled() { return slackEnabled; }
+    public String getSlackWebhookUrl() { return slackWebhookUrl; }
+    public int getSlackBatchWindowMs() { return slackBatchWindowMs; }
+    public int getSlackMaxInFlight() { return slackMaxInFlight; }
+    public boolean isHttpEnabled() { return httpEnabled; }
+    public String getHttpUrl() { return httpUrl; }
+    public Map<String, String> getHttpHeaders() { return httpHeaders; }
+    public int getHttpBatchWindowMs() { return httpBatchWindowMs; }
+    public int getHttpMaxInFlight() { return httpMaxInFlight; }
+    public boolean isFileEnabled() { return fileEnabled; }
+    public String getFilePath() { return filePath; }
+    public int getFileBatchWindowMs() { return fileBatchWindowMs; }
+    public boolean isFleetEnabled() { return fleetEnabled; }
+    public int getFleetPingIntervalSeconds() { return fleetPingIntervalSeconds; }
+    public int getFleetDebounceMs() { return fleetDebounceMs; }
+    public boolean isAutoReload() { return autoReload; }
+    public EmbedTemplate getOnlineTemplate() { return onlineTemplate; }
+    public EmbedTemplate getOfflineTemplate() { return offlineTemplate; }
+    public EmbedTemplate getRestartedTemplate() { return restartedTemplate; }
+    public EmbedTemplate getStatusBoardOnlineTemplate() { return statusBoardOnlineTemplate; }
+    public EmbedTemplate getStatusBoardOfflineTemplate() { return statusBoardOfflineTemplate; }
+    public EmbedTemplate getFleetTemplate() { return fleetTemplate; }
+    public EmbedTemplate getPerformanceDegradedTemplate() { return performanceDegradedTemplate; }
+    public EmbedTemplate getPerformanceRecoveredTemplate() { return performanceRecoveredTemplate; }
+    public EmbedTemplate getStalledTemplate() { return stalledTemplate; }
+    public EmbedTemplate getStallRecoveredTemplate() { return stallRecoveredTemplate; }
+    public EmbedTemplate getSessionReportTemplate() { return sessionReportTemplate; }
+
+    public boolean hasWebhooks() {
+        return !webhookUrls.isEmpty();
+    }
+}
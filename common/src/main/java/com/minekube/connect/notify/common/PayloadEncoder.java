@@ -0,0 +1,15 @@
+package com.minekube.connect.notify.common;
+
+import java.util.List;
+
+/**
+ * Encodes a batch of events into the request a {@link NotificationSink} sends.
+ */
+@FunctionalInterface
+public interface PayloadEncoder {
+
+    /**
+     * @param events At least one event, oldest first
+     */
+    byte[] encode(List<NotificationEvent> events);
+}
@@ -0,0 +1,126 @@
+package com.minekube.connect.notify.common;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Watches the server's TPS and tick times and posts a notification when performance degrades,
+ * and another one once it has recovered.
+ * <p>
+ * The platform records the duration of every tick into a {@link TickSampler} on the main thread.
+ * Everything else runs periodically on the executor: the tick count is checkpointed on every check,
+ * the TPS over the window is the number of ticks between the oldest and the newest checkpoint divided
+ * by the time between them, and the 99th percentile tick time is taken from the same ticks.
+ * <p>
+ * The degraded and recovered thresholds are separate, so a server hovering around one threshold
+ * does not alternate between both notifications.
+ */
+public class PerformanceMonitor {
+
+    private static final double MAX_TPS = 20;
+    private static final int TICKS_PER_SECOND = 20;
+
+    private final NotifyLogger logger;
+    private final NotifyConfig config;
+    private final NotificationPipeline pipeline;
+    private final NotifyExecutor executor;
+    private final Supplier<String[]> placeholders;
+    private final TickSampler sampler;
+    private final long windowNanos;
+
+    // Only accessed by the checks, which never run concurrently
+    private final ArrayDeque<long[]> checkpoints = new ArrayDeque<>();
+    private boolean degraded;
+
+    private volatile CompletableFuture<Void> checks;
+
+    /**
+     * @param placeholders Supplies the current placeholder values; the performance placeholders are added to them
+     */
+    public PerformanceMonitor(NotifyLogger logger, NotifyConfig config, NotificationPipeline pipeline,
+                              NotifyExecutor executor, Supplier<String[]> placeholders) {
+        this.logger = logger;
+        this.config = config;
+        this.pipeline = pipeline;
+        this.executor = executor;
+        this.placeholders = placeholders;
+        int windowSeconds = config.get().getPerformanceWindowSeconds();
+        // Room for a full window even if ticks are shorter than usual
+        this.sampler = new TickSampler(windowSeconds * TICKS_PER_SECOND * 2);
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+    }
+
+    /**
+     * Gets the sampler the platform records ticks into.
+     */
+    public TickSampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Starts checking. Also called after a config reload to pick up the check interval.
+     */
+    public void start() {
+        stop();
+        checks = executor.scheduleRepeating(this::check,
+                config.get().getPerformanceCheckIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        CompletableFuture<Void> handle = checks;
+        if (handle != null) {
+            handle.cancel(false);
+        }
+    }
+
+    private synchronized void check() {
+        long now = System.nanoTime();
+        long ticks = sampler.getTickCount();
+        checkpoints.addLast(new long[]{now, ticks});
+        // Keep the newest checkpoint that is at least a window old
+        while (checkpoints.size() > 2 && now - secondOldest()[0] >= windowNanos) {
+            checkpoints.removeFirst();
+        }
+
+        long[] oldest = checkpoints.peekFirst();
+        // Wait for a full window, so that startup lag does not count
+        if (now - oldest[0] < windowNanos) {
+            return;
+        }
+        if (ticks == oldest[1]) {
+            // Either the platform does not report ticks or the server is frozen, neither of which is measurable here
+            return;
+        }
+
+        double tps = Math.min(MAX_TPS, (ticks - oldest[1]) * 1e9 / (now - oldest[0]));
+        double mspt = sampler.getPercentileMicros(oldest[1], ticks, 99) / 1000.0;
+        NotifySettings settings = config.get();
+
+        if (!degraded && (tps < settings.getPerformanceDegradedTps() || mspt > settings.getPerformanceDegradedMspt())) {
+            degraded = true;
+            logger.warn(() -> String.format(Locale.ROOT, "Server performance degraded: %.1f TPS, %.1f ms p99 tick time", tps, mspt));
+            notify("performance-degraded", settings.getPerformanceDegradedTemplate(), tps, mspt);
+        } else if (degraded && tps >= settings.getPerformanceRecoveredTps() && mspt <= settings.getPerformanceRecoveredMspt()) {
+            degraded = false;
+            logger.info(() -> String.format(Locale.ROOT, "Server performance recovered: %.1f TPS, %.1f ms p99 tick time", tps, mspt));
+            notify("performance-recovered", settings.getPerformanceRecoveredTemplate(), tps, mspt);
+        }
+    }
+
+    private long[] secondOldest() {
+        Iterator<long[]> iterator = checkpoints.iterator();
+        iterator.next();
+        return iterator.next();
+    }
+
+    private void notify(String type, EmbedTemplate template, double tps, double mspt) {
+        String[] values = placeholders.get();
+        values[EmbedTemplate.Placeholder.TPS.ordinal()] = String.format(Locale.ROOT, "%.1f", tps);
+        values[EmbedTemplate.Placeholder.MSPT.ordinal()] = String.format(Locale.ROOT, "%.1f", mspt);
+        pipeline.publish(NotificationEvent.of(type, values, template.render(values)));
+    }
+}
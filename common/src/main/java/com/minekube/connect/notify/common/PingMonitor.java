@@ -0,0 +1,125 @@
+package com.minekube.connect.notify.common;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Samples latency in the background for the {@code {ping}} and {@code {endpoint-ping}} placeholders.
+ * <p>
+ * The platform provides its own samples, such as the ping of the online players or the round-trip
+ * time to the backend servers of a proxy. The endpoint ping is the time to open a connection to the
+ * Connect endpoint that players join through.
+ */
+public class PingMonitor {
+
+    private static final int RING_SIZE = 64;
+    private static final int ENDPOINT_TIMEOUT_MS = 5000;
+    private static final int MINECRAFT_PORT = 25565;
+    private static final String ENDPOINT_DOMAIN = ".play.minekube.net";
+    private static final String NONE = "—";
+
+    private final NotifyLogger logger;
+    private final ConnectNotifyPlatform platform;
+    private final NotifyExecutor executor;
+    private final Supplier<String> endpoint;
+
+    private final LatencyRing platformPing = new LatencyRing(RING_SIZE);
+    private final LatencyRing endpointPing = new LatencyRing(RING_SIZE);
+    private volatile CompletableFuture<Void> sampling;
+
+    /**
+     * @param endpoint Supplies the Connect endpoint, e.g. {@code my-server}
+     */
+    public PingMonitor(NotifyLogger logger, ConnectNotifyPlatform platform, NotifyExecutor executor, Supplier<String> endpoint) {
+        this.logger = logger;
+        this.platform = platform;
+        this.executor = executor;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Starts sampling.
+     *
+     * @return A future completing once the first samples were taken
+     */
+    public CompletableFuture<Void> start(int intervalSeconds) {
+        sampling = executor.scheduleRepeating(this::sample, intervalSeconds, TimeUnit.SECONDS);
+        try {
+            return CompletableFuture.supplyAsync(this::sample, executor).thenCompose(platformSamples -> platformSamples);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    public void stop() {
+        CompletableFuture<Void> handle = sampling;
+        if (handle != null) {
+            handle.cancel(false);
+        }
+    }
+
+    /**
+     * Drops the endpoint samples, e.g. after the endpoint changed.
+     */
+    public void resetEndpoint() {
+        endpointPing.clear();
+    }
+
+    /**
+     * Gets the platform's recent latency, e.g. {@code 42ms (p95 80ms)}, or a dash if there are no samples.
+     */
+    public String getPing() {
+        String summary = platformPing.getSummary();
+        return summary != null ? summary : NONE;
+    }
+
+    /**
+     * Gets the recent time to connect to the Connect endpoint, or a dash if there are no samples.
+     */
+    public String getEndpointPing() {
+        String summary = endpointPing.getSummary();
+        return summary != null ? summary : NONE;
+    }
+
+    /**
+     * @return A future completing once the platform's samples were taken, which may be asynchronous
+     */
+    private CompletableFuture<Void> sample() {
+        CompletableFuture<Void> platformSamples;
+        try {
+            platformSamples = platform.sampleLatency(platformPing::add);
+        } catch (RuntimeException e) {
+            logger.debug("Failed to sample {} latency: {}", platform.getPlatformName(), e.getMessage());
+            platformSamples = CompletableFuture.completedFuture(null);
+        }
+        sampleEndpoint();
+        return platformSamples;
+    }
+
+    private void sampleEndpoint() {
+        String name = endpoint.get();
+        if (name == null || name.equals("unknown")) {
+            return;
+        }
+        String host = name.indexOf('.') < 0 ? name + ENDPOINT_DOMAIN : name;
+
+        // Resolve first, so that only the connection is timed
+        InetSocketAddress address = new InetSocketAddress(host, MINECRAFT_PORT);
+        if (address.isUnresolved()) {
+            logger.debug("Failed to resolve Connect endpoint {}", host);
+            return;
+        }
+        try (Socket socket = new Socket()) {
+            long start = System.nanoTime();
+            socket.connect(address, ENDPOINT_TIMEOUT_MS);
+            endpointPing.add((int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            logger.debug("Failed to connect to Connect endpoint {}: {}", host, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.minekube.connect.notify.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects player joins and quits and posts them as a combined digest.
+ * <p>
+ * Events go into a lock-free {@link PlayerEventBuffer}, which is flushed every
+ * {@code interval-seconds} or as soon as {@code max-events} are waiting. A digest that
+ * exceeds Discord's embed limits is split into several messages.
+ */
+public class PlayerDigest {
+
+    private static final String TITLE = "Player Activity";
+    private static final String FOOTER = "Minekube Connect • Player digest";
+    private static final int COLOR = 0x5865F2;
+    private static final String SEPARATOR = ", ";
+
+    private final NotifyConfig config;
+    private final WebhookDispatcher dispatcher;
+    private final NotifyExecutor executor;
+    private final PlayerEventBuffer buffer;
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private volatile boolean running;
+
+    public PlayerDigest(NotifyConfig config, WebhookDispatcher dispatcher, NotifyExecutor executor) {
+        this.config = config;
+        this.dispatcher = dispatcher;
+        this.executor = executor;
+        // Room for a few flushes worth of events in case sending falls behind
+        this.buffer = new PlayerEventBuffer(Math.max(1024, config.get().getPlayerDigestMaxEvents() * 4));
+    }
+
+    /**
+     * Starts the periodic flush.
+     */
+    public void start() {
+        running = true;
+        scheduleFlush();
+    }
+
+    /**
+     * Records a join or quit. Safe to call from any thread, including the server's main thread.
+     */
+    public void record(boolean join, UUID uuid, String name) {
+        buffer.offer(new PlayerEventBuffer.Event(join, uuid, name, System.currentTimeMillis()));
+        if (buffer.size() >= config.get().getPlayerDigestMaxEvents() && flushQueued.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // The events stay buffered until the next periodic flush
+                flushQueued.set(false);
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic flush and sends the events that are still buffered.
+     *
+     * @return One future per sent message and webhook
+     */
+    public List<CompletableFuture<Boolean>> stop() {
+        running = false;
+        return flush();
+    }
+
+    private void scheduleFlush() {
+        // Re-armed after every flush so a changed interval applies without a restart
+        executor.schedule(() -> {
+            if (running) {
+                flush();
+                scheduleFlush();
+            }
+        }, config.get().getPlayerDigestIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    private synchronized List<CompletableFuture<Boolean>> flush() {
+        flushQueued.set(false);
+
+        List<String> joined = new ArrayList<>();
+        List<String> left = new ArrayList<>();
+        long dropped = buffer.drain(event -> (event.isJoin() ? joined : left).add(event.getName()));
+        if (joined.isEmpty() && left.isEmpty() && dropped == 0) {
+            return List.of();
+        }
+
+        NotifySettings settings = config.get();
+        List<CompletableFuture<Boolean>> sends = new ArrayList<>();
+        for (EmbedLayout embed : createEmbeds(joined, left, dropped)) {
+            byte[] payload = DiscordWebhook.createPayload(List.of(embed),
+                    settings.getBotUsername(), settings.getBotAvatarUrl());
+            sends.addAll(dispatcher.sendAll(settings.getWebhookUrls(), payload));
+        }
+        return sends;
+    }
+
+    /**
+     * Splits a digest into embeds that each stay within Discord's field and length limits.
+     */
+    static List<EmbedLayout> createEmbeds(List<String> joined, List<String> left, long dropped) {
+        String description = joined.size() + " joined • " + left.size() + " left";
+        if (dropped > 0) {
+            description += "\n" + dropped + " more event(s) not shown";
+        }
+
+        List<EmbedLayout.Field> fields = new ArrayList<>();
+        addFields(fields, "🟢 Joined", joined);
+        addFields(fields, "🔴 Left", left);
+
+        List<EmbedLayout> embeds = new ArrayList<>();
+        List<EmbedLayout.Field> current = new ArrayList<>();
+        String currentTitle = TITLE;
+        String currentDescription = description;
+        int length = currentTitle.length() + currentDescription.length() + FOOTER.length();
+        for (EmbedLayout.Field field : fields) {
+            int fieldLength = field.getName().length() + field.getValue().length();
+            if (!current.isEmpty() && (current.size() == DiscordWebhook.MAX_FIELDS
+                    || length + fieldLength > DiscordWebhook.MAX_TOTAL_LENGTH)) {
+                embeds.add(new EmbedLayout(currentTitle, currentDescription, COLOR, current, FOOTER));
+                current = new ArrayList<>();
+                currentTitle = TITLE + " (continued)";
+                currentDescription = "";
+                length = currentTitle.length() + FOOTER.length();
+            }
+            current.add(field);
+            length += fieldLength;
+        }
+        embeds.add(new EmbedLayout(currentTitle, currentDescription, COLOR, current, FOOTER));
+        return embeds;
+    }
+
+    /**
+     * Adds the names as fields, starting a new field whenever the value length limit is reached.
+     */
+    private static void addFields(List<EmbedLayout.Field> fields, String name, List<String> names) {
+        StringBuilder value = new StringBuilder();
+        String fieldName = name + " (" + names.size() + ")";
+        for (String playerName : names) {
+            // Names often contain underscores, which Discord would render as italics
+            String player = DiscordWebhook.escapeMarkdown(playerName);
+            if (value.length() > 0
+                    && value.length() + SEPARATOR.length() + player.length() > DiscordWebhook.MAX_FIELD_VALUE_LENGTH) {
+                fields.add(new EmbedLayout.Field(fieldName, value.toString(), false));
+                value.setLength(0);
+                fieldName = name + " (continued)";
+            }
+            if (value.length() > 0) {
+                value.append(SEPARATOR);
+            }
+            value.append(player);
+        }
+        if (value.length() > 0) {
+            fields.add(new EmbedLayout.Field(fieldName, value.toString(), false));
+        }
+    }
+}
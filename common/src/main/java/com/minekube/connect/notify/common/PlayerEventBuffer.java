@@ -0,0 +1,102 @@
+package com.minekube.connect.notify.common;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer of player join and quit events.
+ * <p>
+ * Any number of threads may {@link #offer} events; a single consumer at a time
+ * {@link #drain}s them. When the buffer is full, new events are counted and dropped.
+ */
+public class PlayerEventBuffer {
+
+    private final AtomicReferenceArray<Event> slots;
+    private final int mask;
+
+    // Next slot to claim by producers
+    private final AtomicLong tail = new AtomicLong();
+    // Next slot to read by the consumer
+    private volatile long head;
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param capacity Maximum number of buffered events, rounded up to a power of two
+     */
+    public PlayerEventBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an event.
+     *
+     * @return {@code false} if the buffer was full and the event was dropped
+     */
+    public boolean offer(Event event) {
+        while (true) {
+            long t = tail.get();
+            if (t - head >= slots.length()) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.set((int) (t & mask), event);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of buffered events, including events still being written.
+     */
+    public int size() {
+        return (int) (tail.get() - head);
+    }
+
+    /**
+     * Passes all published events to the consumer in order. Must not be called concurrently.
+     *
+     * @return The number of events dropped since the last drain because the buffer was full
+     */
+    public long drain(Consumer<Event> consumer) {
+        long h = head;
+        while (true) {
+            int index = (int) (h & mask);
+            Event event = slots.get(index);
+            if (event == null) {
+                // Empty, or a producer claimed the slot but has not written it yet
+                break;
+            }
+            slots.lazySet(index, null);
+            consumer.accept(event);
+            head = ++h;
+        }
+        return dropped.getAndSet(0);
+    }
+
+    /**
+     * A player join or quit.
+     */
+    public static final class Event {
+        private final boolean join;
+        private final UUID uuid;
+        private final String name;
+        private final long time;
+
+        public Event(boolean join, UUID uuid, String name, long time) {
+            this.join = join;
+            this.uuid = uuid;
+            this.name = name;
+            this.time = time;
+        }
+
+        public boolean isJoin() { return join; }
+        public UUID getUuid() { return uuid; }
+        public String getName() { return name; }
+        public long getTime() { return time; }
+    }
+}
@@ -0,0 +1,19 @@
+package com.minekube.connect.notify.common;
+
+import java.util.UUID;
+
+/**
+ * Receives player join and quit events from the platform.
+ */
+public interface PlayerListener {
+
+    /**
+     * Called after a player joined the server or proxy.
+     */
+    void onPlayerJoin(UUID uuid, String name);
+
+    /**
+     * Called when a player left the server or proxy.
+     */
+    void onPlayerQuit(UUID uuid, String name);
+}
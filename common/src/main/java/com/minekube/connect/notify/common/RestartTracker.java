@@ -0,0 +1,142 @@
+package com.minekube.connect.notify.common;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Properties;
+
+/**
+ * Remembers when the server last started and stopped, persisted in the data folder, to collapse
+ * a quick restart into one message and to detect a server that keeps restarting (flapping).
+ * <p>
+ * A server that crashed never recorded its stop, so it is not treated as restarted.
+ */
+public class RestartTracker {
+
+    private static final String STATE_FILE = "restarts.properties";
+    // Starts kept for flapping detection, more than any sensible threshold
+    private static final int MAX_STARTS = 32;
+
+    private final File stateFile;
+    private final NotifyLogger logger;
+
+    private boolean online;
+    private long changedAt;
+    private final Deque<Long> starts = new ArrayDeque<>();
+
+    public RestartTracker(File dataFolder, NotifyLogger logger) {
+        this.stateFile = new File(dataFolder, STATE_FILE);
+        this.logger = logger;
+        load();
+    }
+
+    /**
+     * Records a start.
+     *
+     * @param windowMillis Longest downtime that still counts as a restart
+     * @return How long the server was down if it was stopped within the window, otherwise {@code -1}
+     */
+    public synchronized long recordStart(long now, long windowMillis) {
+        long downtime = !online && changedAt > 0 && now - changedAt <= windowMillis ? Math.max(0, now - changedAt) : -1;
+        online = true;
+        changedAt = now;
+        starts.addLast(now);
+        while (starts.size() > MAX_STARTS) {
+            starts.removeFirst();
+        }
+        save();
+        return downtime;
+    }
+
+    /**
+     * Records a stop.
+     */
+    public synchronized void recordStop(long now) {
+        online = false;
+        changedAt = now;
+        save();
+    }
+
+    /**
+     * Checks whether the server started at least {@code threshold} times within the window,
+     * counting the current start.
+     */
+    public synchronized boolean isFlapping(long now, int threshold, long windowMillis) {
+        int recent = 0;
+        for (long start : starts) {
+            if (now - start <= windowMillis) {
+                recent++;
+            }
+        }
+        return recent >= threshold;
+    }
+
+    private synchronized void load() {
+        if (!stateFile.exists()) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(stateFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logger.warn("Failed to load restart state: {}", e.getMessage());
+            return;
+        }
+        online = "online".equals(properties.getProperty("state"));
+        changedAt = parseLong(properties.getProperty("changed-at"));
+        String recentStarts = properties.getProperty("starts", "");
+        for (String start : recentStarts.split(",")) {
+            long time = parseLong(start);
+            if (time > 0) {
+                starts.addLast(time);
+            }
+        }
+    }
+
+    private synchronized void save() {
+        StringBuilder recentStarts = new StringBuilder();
+        for (long start : starts) {
+            if (recentStarts.length() > 0) {
+                recentStarts.append(',');
+            }
+            recentStarts.append(start);
+        }
+        Properties properties = new Properties();
+        properties.setProperty("state", online ? "online" : "offline");
+        properties.setProperty("changed-at", Long.toString(changedAt));
+        properties.setProperty("starts", recentStarts.toString());
+        try {
+            StateFiles.store(stateFile, properties, "Connect Notify restart state (times in epoch milliseconds)");
+        } catch (IOException e) {
+            logger.warn("Failed to save restart state: {}", e.getMessage());
+        }
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Formats a duration for messages, e.g. {@code 8s} or {@code 2m 5s}.
+     */
+    public static String formatDuration(long millis) {
+        long seconds = Math.max(0, millis) / 1000;
+        if (seconds < 60) {
+            return seconds + "s";
+        }
+        if (seconds < 3600) {
+            return seconds / 60 + "m " + seconds % 60 + "s";
+        }
+        return seconds / 3600 + "h " + seconds % 3600 / 60 + "m";
+    }
+}
@@ -0,0 +1,134 @@
+package com.minekube.connect.notify.common;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Posts an hourly and a daily player report with the figures of a {@link SessionTracker}.
+ * <p>
+ * Joins and quits only update the tracker. A periodic check on the executor posts the reports of the periods
+ * that ended and saves the counters every few minutes, so a crash loses at most those minutes.
+ */
+public class SessionReports {
+
+    private static final long CHECK_INTERVAL_SECONDS = 60;
+    private static final int CHECKS_PER_SAVE = 5;
+    private static final DateTimeFormatter HOUR = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("EEEE, yyyy-MM-dd", Locale.ENGLISH);
+
+    private final NotifyLogger logger;
+    private final NotifyConfig config;
+    private final NotificationPipeline pipeline;
+    private final NotifyExecutor executor;
+    private final Supplier<String[]> placeholders;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final SessionTracker tracker;
+
+    // Only accessed by the checks, which never run concurrently
+    private int checks;
+
+    private volatile CompletableFuture<Void> schedule;
+
+    /**
+     * @param placeholders Supplies the current placeholder values; the report placeholders are added to them
+     */
+    public SessionReports(NotifyLogger logger, File dataFolder, NotifyConfig config, NotificationPipeline pipeline,
+                          NotifyExecutor executor, Supplier<String[]> placeholders) {
+        this.logger = logger;
+        this.config = config;
+        this.pipeline = pipeline;
+        this.executor = executor;
+        this.placeholders = placeholders;
+        this.tracker = new SessionTracker(dataFolder, logger, zone, System.currentTimeMillis());
+    }
+
+    /**
+     * Starts the periodic check, which right away posts the reports of periods that ended while the server was down.
+     */
+    public void start() {
+        executor.execute(this::check);
+        schedule = executor.scheduleRepeating(this::check, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Records a join. Safe to call from any thread.
+     */
+    public void join(UUID uuid) {
+        tracker.join(uuid, System.currentTimeMillis());
+    }
+
+    /**
+     * Records a quit. Safe to call from any thread.
+     */
+    public void quit(UUID uuid) {
+        tracker.quit(uuid, System.currentTimeMillis());
+    }
+
+    /**
+     * Stops the check, ends the sessions of players still online and saves the counters.
+     */
+    public void stop() {
+        CompletableFuture<Void> handle = schedule;
+        if (handle != null) {
+            handle.cancel(false);
+        }
+        tracker.endSessions(System.currentTimeMillis());
+        tracker.save();
+    }
+
+    private synchronized void check() {
+        boolean posted = false;
+        for (SessionTracker.Report report : tracker.takeReports(System.currentTimeMillis())) {
+            posted |= post(report);
+        }
+        // Save right after posting, so that a crash does not post the same report again
+        if (posted || ++checks % CHECKS_PER_SAVE == 0) {
+            tracker.save();
+        }
+    }
+
+    private boolean post(SessionTracker.Report report) {
+        NotifySettings settings = config.get();
+        boolean enabled = report.getPeriod() == SessionTracker.Period.HOURLY
+                ? settings.isSessionReportsHourly() : settings.isSessionReportsDaily();
+        if (!enabled) {
+            return false;
+        }
+
+        String period = describe(report);
+        logger.info("Posting {} player report: {} peak, {} unique, {} session(s)",
+                report.getPeriod().getName(), report.getPeak(), report.getUniquePlayers(), report.getSessions());
+        String[] values = placeholders.get();
+        values[EmbedTemplate.Placeholder.PERIOD.ordinal()] = period;
+        values[EmbedTemplate.Placeholder.PEAK_PLAYERS.ordinal()] = Integer.toString(report.getPeak());
+        values[EmbedTemplate.Placeholder.UNIQUE_PLAYERS.ordinal()] = Long.toString(report.getUniquePlayers());
+        values[EmbedTemplate.Placeholder.SESSIONS.ordinal()] = Long.toString(report.getSessions());
+        values[EmbedTemplate.Placeholder.MEDIAN_SESSION.ordinal()] = report.getMedianSessionMillis() < 0
+                ? "—" : RestartTracker.formatDuration(report.getMedianSessionMillis());
+        values[EmbedTemplate.Placeholder.PLAYTIME.ordinal()] = RestartTracker.formatDuration(report.getPlaytimeMillis());
+        pipeline.publish(NotificationEvent.of("session-report", values,
+                settings.getSessionReportTemplate().render(values)));
+        return true;
+    }
+
+    /**
+     * Describes the period of a report, e.g. {@code Hourly report for 2025-06-01 14:00 – 15:00}.
+     */
+    private String describe(SessionTracker.Report report) {
+        ZonedDateTime start = Instant.ofEpochMilli(report.getStart()).atZone(zone);
+        if (report.getPeriod() == SessionTracker.Period.HOURLY) {
+            ZonedDateTime end = Instant.ofEpochMilli(report.getEnd()).atZone(zone);
+            return "Hourly report for " + HOUR.format(start) + " – " + TIME.format(end);
+        }
+        return "Daily report for " + DAY.format(start);
+    }
+}
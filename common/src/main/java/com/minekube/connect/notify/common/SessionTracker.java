@@ -0,0 +1,338 @@
+package com.minekube.connect.notify.common;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Follows player sessions from joins and quits and sums them up per hour and per day: the peak number of
+ * players online, unique players, the number of sessions, their median length and the total playtime.
+ * <p>
+ * Online players are kept in a {@link UuidLongMap} of join times, unique players are counted with a
+ * {@link HyperLogLog} and session lengths go into a log-scale histogram, so memory stays the same however
+ * many players join. Periods follow the server's clock and time zone.
+ * <p>
+ * The counters are saved to the data folder, so a restart continues the current periods instead of starting
+ * them over. Sessions still open when the server stops end at the stop.
+ */
+public class SessionTracker {
+
+    private static final String STATE_FILE = "sessions.properties";
+    // Four buckets per doubling of the session length, each within 10% of its midpoint, up to about 12 days
+    private static final int BUCKETS_PER_DOUBLING = 4;
+    private static final int LENGTH_BUCKETS = 80;
+
+    /**
+     * The periods reports are made for.
+     */
+    public enum Period {
+        HOURLY("hourly", ChronoUnit.HOURS),
+        DAILY("daily", ChronoUnit.DAYS);
+
+        private final String name;
+        private final ChronoUnit unit;
+
+        Period(String name, ChronoUnit unit) {
+            this.name = name;
+            this.unit = unit;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        long startOf(long millis, ZoneId zone) {
+            return Instant.ofEpochMilli(millis).atZone(zone).truncatedTo(unit).toInstant().toEpochMilli();
+        }
+
+        long endOf(long start, ZoneId zone) {
+            return Instant.ofEpochMilli(start).atZone(zone).plus(1, unit).toInstant().toEpochMilli();
+        }
+    }
+
+    private final File stateFile;
+    private final NotifyLogger logger;
+    private final ZoneId zone;
+    // Held while saving, so that saves are written in order without blocking joins and quits on the disk
+    private final Object saveLock = new Object();
+
+    private final UuidLongMap online = new UuidLongMap(64);
+    private final Window[] windows = new Window[Period.values().length];
+    private final List<Report> finished = new ArrayList<>();
+
+    public SessionTracker(File dataFolder, NotifyLogger logger, ZoneId zone, long now) {
+        this.stateFile = new File(dataFolder, STATE_FILE);
+        this.logger = logger;
+        this.zone = zone;
+        for (Period period : Period.values()) {
+            windows[period.ordinal()] = new Window(period, period.startOf(now, zone));
+        }
+        load();
+    }
+
+    /**
+     * Records a join. A player that is already online is ignored.
+     */
+    public synchronized void join(UUID uuid, long now) {
+        rollOver(now);
+        if (!online.putIfAbsent(uuid, now)) {
+            return;
+        }
+        long hash = UuidLongMap.hash(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        for (Window window : windows) {
+            window.unique.add(hash);
+            window.peak = Math.max(window.peak, online.size());
+        }
+    }
+
+    /**
+     * Records a quit, which ends the player's session. A player that is not online is ignored.
+     */
+    public synchronized void quit(UUID uuid, long now) {
+        rollOver(now);
+        long joinedAt = online.remove(uuid, -1);
+        if (joinedAt < 0) {
+            return;
+        }
+        for (Window window : windows) {
+            window.endSession(joinedAt, now);
+        }
+    }
+
+    /**
+     * Ends the sessions of all players still online, e.g. when the server stops.
+     */
+    public synchronized void endSessions(long now) {
+        rollOver(now);
+        online.forEach((mostBits, leastBits, joinedAt) -> {
+            for (Window window : windows) {
+                window.endSession(joinedAt, now);
+            }
+        });
+        online.clear();
+    }
+
+    /**
+     * Gets the reports of the periods that ended, each once.
+     */
+    public synchronized List<Report> takeReports(long now) {
+        rollOver(now);
+        List<Report> reports = new ArrayList<>(finished);
+        finished.clear();
+        return reports;
+    }
+
+    /**
+     * Closes the periods that ended before {@code now} and starts the current ones.
+     */
+    private void rollOver(long now) {
+        for (int i = 0; i < windows.length; i++) {
+            Window window = windows[i];
+            if (now < window.end) {
+                continue;
+            }
+            // Players still online played until the end of the period, and carry over into the next
+            online.forEach((mostBits, leastBits, joinedAt) ->
+                    window.playtime += window.end - Math.max(joinedAt, window.start));
+            if (window.peak > 0) {
+                finished.add(window.toReport());
+            }
+
+            Window next = new Window(window.period, window.period.startOf(now, zone));
+            next.peak = online.size();
+            online.forEach((mostBits, leastBits, joinedAt) -> next.unique.add(UuidLongMap.hash(mostBits, leastBits)));
+            windows[i] = next;
+        }
+    }
+
+    /**
+     * Loads the counters saved by {@link #save()}. Periods that ended while the server was down are reported
+     * on the next {@link #takeReports(long)}.
+     */
+    private synchronized void load() {
+        if (!stateFile.exists()) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(stateFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logger.warn("Failed to load session counters: {}", e.getMessage());
+            return;
+        }
+        for (Period period : Period.values()) {
+            String prefix = period.getName() + ".";
+            long start = parseLong(properties.getProperty(prefix + "start"));
+            // A period saved with another time zone, or a corrupt file, starts over
+            if (start <= 0 || period.startOf(start, zone) != start) {
+                continue;
+            }
+            Window window = new Window(period, start);
+            window.peak = (int) parseLong(properties.getProperty(prefix + "peak"));
+            window.sessions = parseLong(properties.getProperty(prefix + "sessions"));
+            window.playtime = parseLong(properties.getProperty(prefix + "playtime"));
+            for (String bucket : properties.getProperty(prefix + "lengths", "").split(",")) {
+                int separator = bucket.indexOf(':');
+                int index = separator > 0 ? (int) parseLong(bucket.substring(0, separator)) : -1;
+                if (index >= 0 && index < LENGTH_BUCKETS) {
+                    window.lengths[index] = parseLong(bucket.substring(separator + 1));
+                }
+            }
+            try {
+                window.unique.load(Base64.getDecoder().decode(properties.getProperty(prefix + "unique", "")));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring corrupt unique player counter of the {} period", period.getName());
+            }
+            windows[period.ordinal()] = window;
+        }
+    }
+
+    /**
+     * Saves the counters, replacing the file in one step so that a crash never leaves half of it.
+     * Only copying the counters blocks joins and quits, not writing them.
+     */
+    public void save() {
+        synchronized (saveLock) {
+            Properties properties;
+            synchronized (this) {
+                properties = snapshot();
+            }
+            try {
+                StateFiles.store(stateFile, properties, "Connect Notify session counters (times in epoch milliseconds)");
+            } catch (IOException e) {
+                logger.warn("Failed to save session counters: {}", e.getMessage());
+            }
+        }
+    }
+
+    private Properties snapshot() {
+        Properties properties = new Properties();
+        for (Window window : windows) {
+            String prefix = window.period.getName() + ".";
+            StringBuilder lengths = new StringBuilder();
+            for (int i = 0; i < LENGTH_BUCKETS; i++) {
+                if (window.lengths[i] > 0) {
+                    if (lengths.length() > 0) {
+                        lengths.append(',');
+                    }
+                    lengths.append(i).append(':').append(window.lengths[i]);
+                }
+            }
+            properties.setProperty(prefix + "start", Long.toString(window.start));
+            properties.setProperty(prefix + "peak", Integer.toString(window.peak));
+            properties.setProperty(prefix + "sessions", Long.toString(window.sessions));
+            properties.setProperty(prefix + "playtime", Long.toString(window.playtime));
+            properties.setProperty(prefix + "lengths", lengths.toString());
+            properties.setProperty(prefix + "unique", Base64.getEncoder().encodeToString(window.unique.toBytes()));
+        }
+        return properties;
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static int lengthBucket(long millis) {
+        double seconds = Math.max(0, millis) / 1000.0;
+        int bucket = (int) (BUCKETS_PER_DOUBLING * Math.log(seconds + 1) / Math.log(2));
+        return Math.min(LENGTH_BUCKETS - 1, bucket);
+    }
+
+    static long lengthBucketMidpoint(int bucket) {
+        return Math.round((Math.pow(2, (bucket + 0.5) / BUCKETS_PER_DOUBLING) - 1) * 1000);
+    }
+
+    /**
+     * The counters of the current hour or day.
+     */
+    private final class Window {
+        final Period period;
+        final long start;
+        final long end;
+        final HyperLogLog unique = new HyperLogLog();
+        final long[] lengths = new long[LENGTH_BUCKETS];
+        int peak;
+        long sessions;
+        long playtime;
+
+        Window(Period period, long start) {
+            this.period = period;
+            this.start = start;
+            this.end = period.endOf(start, zone);
+        }
+
+        void endSession(long joinedAt, long now) {
+            // Only the part within this period counts towards its playtime, the session itself ends in it
+            playtime += Math.max(0, now - Math.max(joinedAt, start));
+            sessions++;
+            lengths[lengthBucket(now - joinedAt)]++;
+        }
+
+        Report toReport() {
+            long median = -1;
+            long seen = 0;
+            for (int i = 0; i < LENGTH_BUCKETS && sessions > 0; i++) {
+                seen += lengths[i];
+                if (seen * 2 >= sessions) {
+                    median = lengthBucketMidpoint(i);
+                    break;
+                }
+            }
+            // The estimate can come out slightly below the players that were online at once
+            long uniquePlayers = Math.max(peak, unique.estimate());
+            return new Report(period, start, end, peak, uniquePlayers, sessions, median, playtime);
+        }
+    }
+
+    /**
+     * The summary of a period that ended.
+     */
+    public static final class Report {
+        private final Period period;
+        private final long start;
+        private final long end;
+        private final int peak;
+        private final long uniquePlayers;
+        private final long sessions;
+        private final long medianSessionMillis;
+        private final long playtimeMillis;
+
+        Report(Period period, long start, long end, int peak, long uniquePlayers, long sessions,
+               long medianSessionMillis, long playtimeMillis) {
+            this.period = period;
+            this.start = start;
+            this.end = end;
+            this.peak = peak;
+            this.uniquePlayers = uniquePlayers;
+            this.sessions = sessions;
+            this.medianSessionMillis = medianSessionMillis;
+            this.playtimeMillis = playtimeMillis;
+        }
+
+        public Period getPeriod() { return period; }
+        public long getStart() { return start; }
+        public long getEnd() { return end; }
+        public int getPeak() { return peak; }
+        public long getUniquePlayers() { return uniquePlayers; }
+        public long getSessions() { return sessions; }
+        /** The median session length rounded to within 10%, or {@code -1} if no session ended in the period */
+        public long getMedianSessionMillis() { return medianSessionMillis; }
+        public long getPlaytimeMillis() { return playtimeMillis; }
+    }
+}
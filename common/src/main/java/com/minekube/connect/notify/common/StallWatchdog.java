@@ -0,0 +1,209 @@
+package com.minekube.connect.notify.common;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Notices when the server's main thread stops ticking, posts an alert with a dump of its stack
+ * attached, and posts a follow-up once it ticks again.
+ * <p>
+ * The main thread calls {@link #beat()} on every tick, which is a single volatile store.
+ * A separate thread takes the heartbeat back every second, so it keeps working while the
+ * main thread, or the executor, is stuck. Checking only starts with the first heartbeat,
+ * since the server loads its worlds between enabling plugins and its first tick.
+ */
+public class StallWatchdog {
+
+    private static final long CHECK_INTERVAL_MS = 1000;
+    private static final String DUMP_FILE_NAME = "main-thread.txt";
+
+    private final NotifyLogger logger;
+    private final NotifyConfig config;
+    private final WebhookDispatcher dispatcher;
+    private final NotificationPipeline pipeline;
+    private final Supplier<String[]> placeholders;
+    private final BooleanSupplier stopping;
+
+    private final AtomicBoolean heartbeat = new AtomicBoolean();
+    private volatile Thread watchedThread;
+    private volatile Thread thread;
+
+    /**
+     * @param placeholders Supplies the current placeholder values; the stall placeholder is added to them
+     * @param stopping     Whether the server is shutting down, when it stops ticking on purpose
+     */
+    public StallWatchdog(NotifyLogger logger, NotifyConfig config, WebhookDispatcher dispatcher, NotificationPipeline pipeline,
+                         Supplier<String[]> placeholders, BooleanSupplier stopping) {
+        this.logger = logger;
+        this.config = config;
+        this.dispatcher = dispatcher;
+        this.pipeline = pipeline;
+        this.placeholders = placeholders;
+        this.stopping = stopping;
+    }
+
+    /**
+     * Records that the watched thread is alive. Called on every tick.
+     */
+    public void beat() {
+        heartbeat.set(true);
+    }
+
+    /**
+     * Starts watching the thread that calls {@link #beat()}.
+     */
+    public void start(Thread watchedThread) {
+        this.watchedThread = watchedThread;
+        Thread watchdog = new DaemonThreadFactory("ConnectNotify-Watchdog").newThread(this::run);
+        thread = watchdog;
+        watchdog.start();
+    }
+
+    public void stop() {
+        Thread watchdog = thread;
+        thread = null;
+        if (watchdog != null) {
+            watchdog.interrupt();
+        }
+    }
+
+    private void run() {
+        long lastBeat = 0;
+        boolean armed = false;
+        boolean stalled = false;
+        while (thread == Thread.currentThread()) {
+            try {
+                Thread.sleep(CHECK_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            long now = System.nanoTime();
+            if (heartbeat.getAndSet(false)) {
+                if (stalled) {
+                    stalled = false;
+                    onRecovered(now - lastBeat);
+                }
+                lastBeat = now;
+                armed = true;
+            } else if (armed && !stalled && now - lastBeat >= TimeUnit.SECONDS.toNanos(config.get().getWatchdogStallSeconds())) {
+                if (stopping.getAsBoolean()) {
+                    return;
+                }
+                stalled = true;
+                onStalled(now - lastBeat);
+            }
+        }
+    }
+
+    private void onStalled(long stalledNanos) {
+        String duration = RestartTracker.formatDuration(TimeUnit.NANOSECONDS.toMillis(stalledNanos));
+        logger.warn("The server's main thread has not ticked for {}", duration);
+        NotifySettings settings = config.get();
+        String[] values = values(duration);
+        // Discord gets the dump attached, so it is posted here
+        pipeline.publish(NotificationEvent.of("stalled", values, null));
+        if (!settings.hasWebhooks()) {
+            return;
+        }
+
+        byte[] payload = settings.getStalledTemplate().render(values);
+        byte[] dump = dumpWatchedThread().getBytes(StandardCharsets.UTF_8);
+        List<CompletableFuture<Boolean>> sends = new ArrayList<>();
+        for (String webhookUrl : settings.getWebhookUrls()) {
+            sends.add(dispatcher.sendWithAttachment(webhookUrl, payload, DUMP_FILE_NAME, dump));
+        }
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+            long sent = sends.stream().filter(CompletableFuture::join).count();
+            logger.info("Sent stall alert to {}/{} webhook(s)", sent, sends.size());
+        });
+    }
+
+    private void onRecovered(long stalledNanos) {
+        String duration = RestartTracker.formatDuration(TimeUnit.NANOSECONDS.toMillis(stalledNanos));
+        logger.info("The server's main thread is ticking again after {}", duration);
+        String[] values = values(duration);
+        pipeline.publish(NotificationEvent.of("stall-recovered", values, config.get().getStallRecoveredTemplate().render(values)));
+    }
+
+    private String[] values(String duration) {
+        String[] values = placeholders.get();
+        values[EmbedTemplate.Placeholder.STALL.ordinal()] = duration;
+        return values;
+    }
+
+    /**
+     * Dumps the stack of the watched thread, and of the thread holding the lock it waits for.
+     */
+    private String dumpWatchedThread() {
+        Thread watched = watchedThread;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        StringBuilder dump = new StringBuilder("Connect Notify stall dump at ").append(Instant.now()).append("\n\n");
+        ThreadInfo info = threadInfo(threads, watched.getId());
+        if (info == null) {
+            return dump.append("Thread ").append(watched.getName()).append(" is no longer alive\n").toString();
+        }
+        appendThread(dump, info);
+
+        if (info.getLockOwnerId() >= 0) {
+            ThreadInfo owner = threadInfo(threads, info.getLockOwnerId());
+            if (owner != null) {
+                dump.append('\n');
+                appendThread(dump, owner);
+            }
+        }
+        return dump.toString();
+    }
+
+    private static ThreadInfo threadInfo(ThreadMXBean threads, long threadId) {
+        ThreadInfo[] infos = threads.getThreadInfo(new long[]{threadId},
+                threads.isObjectMonitorUsageSupported(), threads.isSynchronizerUsageSupported());
+        return infos[0];
+    }
+
+    /**
+     * Formats a thread like jstack does. {@link ThreadInfo#toString()} cuts the stack off after a few frames.
+     */
+    private static void appendThread(StringBuilder dump, ThreadInfo info) {
+        dump.append('"').append(info.getThreadName()).append("\" #").append(info.getThreadId())
+                .append(' ').append(info.getThreadState());
+        if (info.getLockName() != null) {
+            dump.append(" on ").append(info.getLockName());
+        }
+        if (info.getLockOwnerName() != null) {
+            dump.append(" owned by \"").append(info.getLockOwnerName()).append("\" #").append(info.getLockOwnerId());
+        }
+        dump.append('\n');
+
+        StackTraceElement[] stack = info.getStackTrace();
+        MonitorInfo[] monitors = info.getLockedMonitors();
+        for (int depth = 0; depth < stack.length; depth++) {
+            dump.append("\tat ").append(stack[depth]).append('\n');
+            for (MonitorInfo monitor : monitors) {
+                if (monitor.getLockedStackDepth() == depth) {
+                    dump.append("\t- locked ").append(monitor).append('\n');
+                }
+            }
+        }
+
+        LockInfo[] synchronizers = info.getLockedSynchronizers();
+        if (synchronizers.length > 0) {
+            dump.append("\n\tLocked synchronizers:\n");
+            for (LockInfo synchronizer : synchronizers) {
+                dump.append("\t- ").append(synchronizer).append('\n');
+            }
+        }
+    }
+}
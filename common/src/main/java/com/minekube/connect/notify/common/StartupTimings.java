@@ -0,0 +1,51 @@
+package com.minekube.connect.notify.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long each phase of enabling the plugin took, in the order the phases finished.
+ * Logged once startup is complete and exported with the delivery metrics.
+ */
+public class StartupTimings {
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    /**
+     * Records how long a phase took.
+     *
+     * @param startNanos When the phase started, from {@link System#nanoTime()}
+     * @return The current time, so that the next phase can start where this one ended
+     */
+    public long record(String phase, long startNanos) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            phases.put(phase, now - startNanos);
+        }
+        return now;
+    }
+
+    /**
+     * Gets the duration of each phase in nanoseconds.
+     */
+    public synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    /**
+     * Formats the phases, e.g. {@code config 41ms, connect-config 6ms, setup 28ms}.
+     */
+    @Override
+    public synchronized String toString() {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(phase.getValue());
+            // Sub-millisecond phases, like the time on the main thread, keep their fraction
+            String millis = micros < 1000 ? Double.toString(micros / 1000.0) : Long.toString(micros / 1000);
+            joiner.add(phase.getKey() + " " + millis + "ms");
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.minekube.connect.notify.common;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Writes the state files in the data folder.
+ */
+final class StateFiles {
+
+    private StateFiles() {
+    }
+
+    /**
+     * Writes properties to a temporary file and moves it over the state file in one step,
+     * so that a crash or a full disk never leaves a truncated file behind.
+     */
+    static void store(File file, Properties properties, String comments) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            properties.store(out, comments);
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.minekube.connect.notify.common;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one message per webhook up to date with the live server status.
+ * <p>
+ * The message is posted once and then edited in place. Player count changes are coalesced
+ * over a debounce window, so a burst of joins results in a single edit. Message ids are
+ * persisted in the data folder so the board survives restarts.
+ * <p>
+ * Each board has at most one edit in flight, so a late update cannot overwrite the offline board.
+ */
+public class StatusBoard {
+
+    private static final String STATE_FILE = "status-board.properties";
+
+    private final BoardMessages messages;
+    private final NotifyConfig config;
+    private final NotifyExecutor executor;
+    private final Supplier<String[]> placeholders;
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile ScheduledFuture<?> flush;
+    private volatile boolean stopped;
+    private volatile String lastPlayers;
+
+    /**
+     * @param placeholders Supplies the current placeholder values for the board templates
+     */
+    public StatusBoard(File dataFolder, NotifyLogger logger, NotifyConfig config,
+                       WebhookDispatcher dispatcher, NotifyExecutor executor, Supplier<String[]> placeholders) {
+        this.messages = new BoardMessages(new File(dataFolder, STATE_FILE), "status board", logger, dispatcher);
+        this.config = config;
+        this.executor = executor;
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Shows the board as online, reusing the messages from the last run where they still exist.
+     * Also called after a config reload to pick up new webhooks and layouts.
+     */
+    public CompletableFuture<Void> start() {
+        messages.load();
+        String[] values = placeholders.get();
+        lastPlayers = values[EmbedTemplate.Placeholder.PLAYERS.ordinal()];
+        NotifySettings settings = config.get();
+        byte[] payload = settings.getStatusBoardOnlineTemplate().render(values);
+
+        List<CompletableFuture<Boolean>> publishes = new ArrayList<>();
+        for (String webhookUrl : settings.getWebhookUrls()) {
+            publishes.add(messages.update(webhookUrl, payload));
+        }
+        return CompletableFuture.allOf(publishes.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Schedules a board update. Calls within the debounce window are coalesced into one edit.
+     */
+    public void update() {
+        if (!stopped && flushScheduled.compareAndSet(false, true)) {
+            try {
+                flush = executor.schedule(this::flush, config.get().getStatusBoardDebounceMs(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down, stop() shows the final state
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Cancels the pending update and shows the board as offline, after the edits in flight.
+     *
+     * @return One future per webhook, completing with {@code true} once the board was edited
+     */
+    public List<CompletableFuture<Boolean>> stop() {
+        stopped = true;
+        ScheduledFuture<?> pending = flush;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        NotifySettings settings = config.get();
+        byte[] payload = settings.getStatusBoardOfflineTemplate().render(placeholders.get());
+        List<CompletableFuture<Boolean>> edits = new ArrayList<>();
+        for (String webhookUrl : settings.getWebhookUrls()) {
+            edits.add(messages.update(webhookUrl, payload));
+        }
+        return edits;
+    }
+
+    private void flush() {
+        // Allow the next update to schedule a flush while this one is running
+        flushScheduled.set(false);
+        if (stopped) {
+            return;
+        }
+
+        String[] values = placeholders.get();
+        String players = values[EmbedTemplate.Placeholder.PLAYERS.ordinal()];
+        if (players.equals(lastPlayers)) {
+            return;
+        }
+        lastPlayers = players;
+
+        NotifySettings settings = config.get();
+        byte[] payload = settings.getStatusBoardOnlineTemplate().render(values);
+        for (String webhookUrl : settings.getWebhookUrls()) {
+            // Also posts the board where posting it failed before
+            messages.update(webhookUrl, payload);
+        }
+    }
+}
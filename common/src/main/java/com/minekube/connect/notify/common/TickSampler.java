@@ -0,0 +1,71 @@
+package com.minekube.connect.notify.common;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records server tick durations in a primitive ring buffer.
+ * <p>
+ * {@link #recordTick(long)} is called on the main thread for every tick, so it does nothing
+ * but store the duration and publish the tick count with a release store, without reading the
+ * clock or allocating. The statistics are computed by other threads from the tick count and the
+ * ring, which may already contain a few newer durations; that is fine for monitoring.
+ */
+public class TickSampler {
+
+    private final int[] durationsMicros;
+    private final int mask;
+    private final AtomicLong ticks = new AtomicLong();
+
+    // Only used by the reading thread
+    private int[] scratch = new int[0];
+
+    /**
+     * @param minCapacity Number of most recent ticks that must be kept, rounded up to a power of two
+     */
+    public TickSampler(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(64, minCapacity) - 1) << 1;
+        this.durationsMicros = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Records a tick. Must only be called from one thread, the server's main thread.
+     */
+    public void recordTick(long durationNanos) {
+        long tick = ticks.get();
+        durationsMicros[(int) (tick & mask)] = (int) Math.min(Integer.MAX_VALUE, durationNanos / 1000);
+        ticks.lazySet(tick + 1);
+    }
+
+    /**
+     * Gets the number of ticks recorded so far.
+     */
+    public long getTickCount() {
+        return ticks.get();
+    }
+
+    /**
+     * Gets a percentile of the durations of the ticks recorded between two tick counts.
+     * Only the most recent ticks the ring holds are considered. Must only be called from one thread.
+     *
+     * @param fromTick Tick count at the start of the range
+     * @param toTick   Tick count at the end of the range, as returned by {@link #getTickCount()}
+     * @return The percentile in microseconds, or {@code 0} if the range is empty
+     */
+    public int getPercentileMicros(long fromTick, long toTick, double percentile) {
+        int count = (int) Math.min(durationsMicros.length, Math.max(0, toTick - fromTick));
+        if (count == 0) {
+            return 0;
+        }
+        if (scratch.length < count) {
+            scratch = new int[durationsMicros.length];
+        }
+        for (int i = 0; i < count; i++) {
+            scratch[i] = durationsMicros[(int) ((toTick - 1 - i) & mask)];
+        }
+        Arrays.sort(scratch, 0, count);
+        int rank = (int) Math.ceil(count * Math.min(100, percentile) / 100);
+        return scratch[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,168 @@
+package com.minekube.connect.notify.common;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Hash map from UUIDs to longs, kept in three primitive arrays with linear probing.
+ * A slot takes 24 bytes and holds no objects, and nothing is allocated unless the map grows.
+ * <p>
+ * The nil UUID marks free slots, so it cannot be stored. Not thread-safe.
+ */
+public class UuidLongMap {
+
+    private long[] mostBits;
+    private long[] leastBits;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * @param expectedSize The number of entries that fit without growing
+     */
+    public UuidLongMap(int expectedSize) {
+        // Kept at most half full, so probe sequences stay short
+        allocate(Integer.highestOneBit(Math.max(4, expectedSize * 2) - 1) << 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a UUID unless it is already in the map.
+     *
+     * @return {@code true} if it was added
+     */
+    public boolean putIfAbsent(UUID uuid, long value) {
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        if (most == 0 && least == 0) {
+            throw new IllegalArgumentException("The nil UUID cannot be stored");
+        }
+        if (find(most, least) >= 0) {
+            return false;
+        }
+        if ((size + 1) * 2 > mostBits.length) {
+            grow();
+        }
+        insert(most, least, value);
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a UUID.
+     *
+     * @return Its value, or {@code missing} if the UUID was not in the map
+     */
+    public long remove(UUID uuid, long missing) {
+        int slot = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (slot < 0) {
+            return missing;
+        }
+        long value = values[slot];
+        size--;
+
+        // Move later entries of the probe sequence back into the gap, so that lookups never stop early
+        int gap = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (mostBits[next] == 0 && leastBits[next] == 0) {
+                break;
+            }
+            int home = (int) hash(mostBits[next], leastBits[next]) & mask;
+            // An entry may fill the gap unless its home slot lies between the gap and where it is now
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                mostBits[gap] = mostBits[next];
+                leastBits[gap] = leastBits[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        mostBits[gap] = 0;
+        leastBits[gap] = 0;
+        return value;
+    }
+
+    /**
+     * Passes every entry to the consumer, in no particular order.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < mostBits.length; i++) {
+            if (mostBits[i] != 0 || leastBits[i] != 0) {
+                consumer.accept(mostBits[i], leastBits[i], values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(mostBits, 0);
+        Arrays.fill(leastBits, 0);
+        size = 0;
+    }
+
+    /**
+     * Mixes both halves of a UUID into a well-distributed hash. Random UUIDs are random already,
+     * but offline mode UUIDs are derived from names and share their version bits.
+     */
+    public static long hash(long mostBits, long leastBits) {
+        // The finalizer of MurmurHash3
+        long h = mostBits ^ Long.rotateLeft(leastBits, 32) ^ 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private int find(long most, long least) {
+        int slot = (int) hash(most, least) & mask;
+        while (mostBits[slot] != 0 || leastBits[slot] != 0) {
+            if (mostBits[slot] == most && leastBits[slot] == least) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(long most, long least, long value) {
+        int slot = (int) hash(most, least) & mask;
+        while (mostBits[slot] != 0 || leastBits[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        mostBits[slot] = most;
+        leastBits[slot] = least;
+        values[slot] = value;
+    }
+
+    private void grow() {
+        long[] oldMost = mostBits;
+        long[] oldLeast = leastBits;
+        long[] oldValues = values;
+        allocate(oldMost.length * 2);
+        for (int i = 0; i < oldMost.length; i++) {
+            if (oldMost[i] != 0 || oldLeast[i] != 0) {
+                insert(oldMost[i], oldLeast[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mostBits = new long[capacity];
+        leastBits = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Receives the entries of a map without boxing them.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long mostBits, long leastBits, long value);
+    }
+}
@@ -0,0 +1,798 @@
+package com.minekube.connect.notify.common;
+
+import com.google.gson.JsonParser;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends webhook payloads over a single long-lived {@link HttpClient}.
+ * <p>
+ * Connections are kept alive (or multiplexed over HTTP/2) between notifications,
+ * and a fan-out to several webhooks runs in parallel, bounded by a concurrency limit.
+ * <p>
+ * Notifications are sent one at a time per webhook. Notifications that queue up for a webhook
+ * while a previous one is being sent are packed into one message with up to
+ * {@value DiscordWebhook#MAX_EMBEDS} embeds, so a burst costs a fraction of the requests.
+ * A message that fails is retried beside the queue rather than holding it up, so later notifications
+ * may arrive before it. A retried status notification, e.g. "online", is dropped once a newer one was
+ * sent to the same webhook, so that it cannot show up after the newer status.
+ */
+public class WebhookDispatcher {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final String USER_AGENT = "ConnectNotify/1.0";
+    private static final String JSON = "application/json";
+    private static final int MAX_RATE_LIMIT_RETRIES = 5;
+    private static final long BACKOFF_BASE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long BACKOFF_MAX_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final NotifyLogger logger;
+    private volatile int maxConcurrentRequests;
+    private final NotificationOutbox outbox;
+    private final int maxRetries;
+    private final long maxAgeMillis;
+    private final NotifyExecutor executor;
+    private final HttpClient client;
+    private final DiscordRateLimiter rateLimiter = new DiscordRateLimiter();
+    private final DeliveryMetrics metrics;
+    private final Map<String, Webhook> webhooks = new ConcurrentHashMap<>();
+
+    // Requests waiting for a free slot, started in FIFO order
+    private final Queue<Waiting> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Messages waiting for their next retry
+    private final Set<List<Pending>> retrying = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    public WebhookDispatcher(NotifyLogger logger, NotifyExecutor executor, int maxConcurrentRequests) {
+        this(logger, executor, maxConcurrentRequests, null, 0, 0);
+    }
+
+    /**
+     * Creates a dispatcher that journals every request in the given outbox
+     * and retries failed requests with exponential backoff.
+     *
+     * @param executor     Runs response handling and delayed retries
+     * @param outbox       The outbox to journal requests in, or {@code null} to send without journaling
+     * @param maxRetries   How often a failed request is retried before it is dropped
+     * @param maxAgeMillis How old a journaled request may get before it is dropped instead of replayed
+     */
+    public WebhookDispatcher(NotifyLogger logger, NotifyExecutor executor, int maxConcurrentRequests,
+                             NotificationOutbox outbox, int maxRetries, long maxAgeMillis) {
+        this.logger = logger;
+        this.executor = executor;
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+        this.outbox = outbox;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.maxAgeMillis = maxAgeMillis;
+        this.metrics = new DeliveryMetrics(logger, queued::get, inFlight::get, executor::getRejectedCount);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(CONNECT_TIMEOUT)
+                // Response callbacks must never be lost, so they run on the selector thread when the queue is full
+                .executor(executor.callerRunsWhenFull())
+                .build();
+    }
+
+    /**
+     * Changes how many requests may be in flight at once. Requests already in flight are not affected.
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+        drain();
+    }
+
+    /**
+     * Sends the same payload to all given webhooks in parallel.
+     *
+     * @return A future completing with the number of successful deliveries once every request has finished
+     */
+    public CompletableFuture<Integer> broadcast(List<String> webhookUrls, byte[] payload) {
+        return broadcast(webhookUrls, payload, false);
+    }
+
+    /**
+     * Sends the same payload to all given webhooks in parallel.
+     *
+     * @param status Whether the payload shows the server's status, see {@link #send(String, byte[], boolean)}
+     * @return A future completing with the number of successful deliveries once every request has finished
+     */
+    public CompletableFuture<Integer> broadcast(List<String> webhookUrls, byte[] payload, boolean status) {
+        List<CompletableFuture<Boolean>> sends = new ArrayList<>(webhookUrls.size());
+        for (String webhookUrl : webhookUrls) {
+            sends.add(send(webhookUrl, payload, status));
+        }
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> (int) sends.stream().filter(CompletableFuture::join).count());
+    }
+
+    /**
+     * Sends the same payload to all given webhooks in parallel.
+     *
+     * @return One future per webhook, in the order of the given URLs
+     */
+    public List<CompletableFuture<Boolean>> sendAll(List<String> webhookUrls, byte[] payload) {
+        List<CompletableFuture<Boolean>> sends = new ArrayList<>(webhookUrls.size());
+        for (String webhookUrl : webhookUrls) {
+            sends.add(send(webhookUrl, payload));
+        }
+        return sends;
+    }
+
+    /**
+     * Sends a payload to a single webhook.
+     * Requests are held back while the webhook's rate limit bucket is exhausted,
+     * and rate-limited requests are retried once the bucket resets. If the webhook is busy,
+     * the payload's embeds may be packed with other waiting notifications into one message.
+     *
+     * @return A future completing with {@code true} if Discord accepted the message; never completes exceptionally
+     */
+    public CompletableFuture<Boolean> send(String webhookUrl, byte[] payload) {
+        return send(webhookUrl, payload, false);
+    }
+
+    /**
+     * Sends a payload to a single webhook, like {@link #send(String, byte[])}.
+     *
+     * @param status Whether the payload shows the server's status, e.g. online or offline. Such a payload
+     *               is no longer retried once a newer status was sent to the webhook, which then completes
+     *               its future with {@code false}
+     */
+    public CompletableFuture<Boolean> send(String webhookUrl, byte[] payload, boolean status) {
+        long id = outbox != null ? outbox.append(webhookUrl, payload) : 0;
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        enqueue(webhook(webhookUrl), new Pending(id, payload, status, result));
+        return result;
+    }
+
+    /**
+     * Sends a payload to a single webhook and waits for Discord to return the created message.
+     * These requests are not journaled in the outbox.
+     *
+     * @return A future completing with the id of the created message, or {@code null} if sending failed
+     */
+    public CompletableFuture<String> sendAndGetMessageId(String webhookUrl, byte[] payload) {
+        return exchange("POST", withQuery(webhookUrl, "wait=true"), payload, JSON, true, webhook(webhookUrl)).thenApply(response -> {
+            if (classify(response) != Outcome.DELIVERED || response.body() == null) {
+                return null;
+            }
+            try {
+                return JsonParser.parseString(response.body()).getAsJsonObject().get("id").getAsString();
+            } catch (RuntimeException e) {
+                logger.warn("Discord webhook returned an unexpected message: {}", e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Sends a payload with a file attached to a single webhook, e.g. a thread dump.
+     * These requests are not journaled in the outbox or packed with other notifications.
+     *
+     * @return A future completing with {@code true} if Discord accepted the message; never completes exceptionally
+     */
+    public CompletableFuture<Boolean> sendWithAttachment(String webhookUrl, byte[] payload, String fileName, byte[] file) {
+        String boundary = "ConnectNotify" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        byte[] body = DiscordWebhook.createMultipart(boundary, payload, fileName, file);
+        return exchange("POST", webhookUrl, body, "multipart/form-data; boundary=" + boundary, false, webhook(webhookUrl))
+                .thenApply(response -> classify(response) == Outcome.DELIVERED);
+    }
+
+    /**
+     * Replaces the content of a message previously sent by a webhook.
+     * These requests are not journaled in the outbox.
+     *
+     * @return A future completing with the HTTP status code, or {@code -1} if the request failed
+     */
+    public CompletableFuture<Integer> editMessage(String webhookUrl, String messageId, byte[] payload) {
+        int query = webhookUrl.indexOf('?');
+        String messageUrl = query < 0
+                ? webhookUrl + "/messages/" + messageId
+                : webhookUrl.substring(0, query) + "/messages/" + messageId + webhookUrl.substring(query);
+        return exchange("PATCH", messageUrl, payload, JSON, false, webhook(webhookUrl)).thenApply(response -> {
+            // A deleted message is expected and handled by the caller
+            if (response == null || response.statusCode() == 404) {
+                return response == null ? -1 : 404;
+            }
+            classify(response);
+            return response.statusCode();
+        });
+    }
+
+    /**
+     * Re-sends all requests left undelivered in the outbox by a previous run.
+     *
+     * @return A future completing with the number of replayed requests that were delivered
+     */
+    public CompletableFuture<Integer> replay() {
+        if (outbox == null) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        List<NotificationOutbox.Entry> entries = outbox.getPending();
+        if (entries.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        logger.info("Replaying {} undelivered notification(s) from outbox", entries.size());
+        AtomicInteger delivered = new AtomicInteger();
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (NotificationOutbox.Entry entry : entries) {
+            if (now - entry.getCreatedAt() > maxAgeMillis) {
+                outbox.acknowledge(entry.getId());
+                continue;
+            }
+
+            CompletableFuture<Boolean> result = new CompletableFuture<>();
+            enqueue(webhook(entry.getWebhookUrl()), new Pending(entry.getId(), entry.getPayload(), false, result));
+            sends.add(result.thenAccept(ok -> {
+                if (ok) {
+                    delivered.incrementAndGet();
+                }
+            }));
+        }
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> delivered.get());
+    }
+
+    /**
+     * Connects to the host of every given webhook ahead of the first notification, so that it does not
+     * wait for the DNS lookup, TCP connect and TLS handshake. One webhook per host is fetched, which does
+     * not post a message, and a deleted webhook is noticed before anything is sent to it.
+     *
+     * @return A future completing once every host answered or failed; never completes exceptionally
+     */
+    public CompletableFuture<Void> warmUp(Collection<String> webhookUrls) {
+        return keepAlive(webhookUrls, 0);
+    }
+
+    /**
+     * Keeps the connections to the hosts of the given webhooks open, by fetching a webhook on each
+     * host that has not had a request for the given time, before the connection is closed as idle.
+     *
+     * @param idleNanos How long a host must have been idle, or {@code 0} to fetch from every host
+     * @return A future completing once every fetched host answered or failed; never completes exceptionally
+     */
+    public CompletableFuture<Void> keepAlive(Collection<String> webhookUrls, long idleNanos) {
+        Map<String, Webhook> hosts = new HashMap<>();
+        Set<String> active = new HashSet<>();
+        long now = System.nanoTime();
+        for (String webhookUrl : webhookUrls) {
+            String host;
+            try {
+                URI uri = URI.create(webhookUrl);
+                host = uri.getScheme() + "://" + uri.getAuthority();
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            Webhook webhook = webhook(webhookUrl);
+            long lastExchange = webhook.lastExchangeAt;
+            if (idleNanos > 0 && lastExchange != 0 && now - lastExchange < idleNanos) {
+                active.add(host);
+            }
+            hosts.putIfAbsent(host, webhook);
+        }
+
+        List<CompletableFuture<?>> fetches = new ArrayList<>();
+        for (Map.Entry<String, Webhook> host : hosts.entrySet()) {
+            if (!active.contains(host.getKey())) {
+                Webhook webhook = host.getValue();
+                fetches.add(exchange("GET", webhook.url, null, null, false, webhook));
+            }
+        }
+        return CompletableFuture.allOf(fetches.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Lets quarantined webhooks be tried again, e.g. after the config was changed.
+     */
+    public void resetQuarantine() {
+        for (Webhook webhook : webhooks.values()) {
+            if (webhook.breaker.getState() == CircuitBreaker.State.QUARANTINED) {
+                webhook.breaker.reset();
+            }
+        }
+    }
+
+    /**
+     * Gets the health state of a webhook.
+     */
+    public CircuitBreaker.State getState(String webhookUrl) {
+        return webhook(webhookUrl).breaker.getState();
+    }
+
+    /**
+     * Gets the delivery metrics, which are recorded for every request.
+     */
+    public DeliveryMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Drops the requests still waiting for a free slot or for a retry and completes their futures as failed.
+     * They stay in the outbox for the next start. Requests in flight finish on the executor, until it is shut down,
+     * but are no longer retried.
+     */
+    public void close() {
+        closed = true;
+        Waiting request;
+        while ((request = waiting.poll()) != null) {
+            queued.decrementAndGet();
+            // Lets the callbacks of the request run, which see it as failed
+            request.result.complete(null);
+        }
+        for (Webhook webhook : webhooks.values()) {
+            Pending notification;
+            while ((notification = webhook.pending.poll()) != null) {
+                notification.result.complete(false);
+            }
+        }
+        for (List<Pending> batch : retrying) {
+            retrying.remove(batch);
+            for (Pending notification : batch) {
+                notification.result.complete(false);
+            }
+        }
+    }
+
+    private void enqueue(Webhook webhook, Pending notification) {
+        if (closed) {
+            // Kept in the outbox for the next start
+            notification.result.complete(false);
+            return;
+        }
+        webhook.pending.add(notification);
+        if (webhook.sending.compareAndSet(false, true)) {
+            sendNext(webhook);
+        }
+    }
+
+    /**
+     * Sends the next waiting notifications of a webhook, packed into one message where possible.
+     * Only one thread sends for a webhook at a time, guarded by {@link Webhook#sending}.
+     */
+    private void sendNext(Webhook webhook) {
+        Pending first = webhook.pending.poll();
+        if (first == null) {
+            webhook.sending.set(false);
+            // Another thread may have queued a notification after our poll
+            if (!webhook.pending.isEmpty() && webhook.sending.compareAndSet(false, true)) {
+                sendNext(webhook);
+            }
+            return;
+        }
+
+        List<Pending> batch = new ArrayList<>();
+        batch.add(first);
+        byte[] payload = first.payload;
+        if (!webhook.pending.isEmpty()) {
+            EmbedPacker packer = new EmbedPacker();
+            if (packer.start(first.payload)) {
+                Pending next;
+                while ((next = webhook.pending.peek()) != null && packer.add(next.payload)) {
+                    // Only this thread takes from the queue, unless close() just cleared it
+                    if (webhook.pending.poll() == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            }
+            if (batch.size() > 1) {
+                payload = packer.toPayload();
+                webhook.metrics.recordPacked(batch.size());
+                logger.debug("Packed {} notifications into one message", batch.size());
+            }
+        }
+        long sequence = webhook.sequence.incrementAndGet();
+        for (Pending notification : batch) {
+            if (notification.status) {
+                webhook.statusSequence = sequence;
+                break;
+            }
+        }
+        deliver(webhook, batch, payload, sequence, 0);
+    }
+
+    /**
+     * Delivers journaled notifications packed into one request, retrying transient failures
+     * with exponential backoff and jitter. The first attempt sends the next waiting notifications
+     * afterwards, whether it succeeded or is retried, so a failing message does not hold up the
+     * ones behind it, e.g. the offline notification during shutdown.
+     *
+     * @param sequence Numbers the messages of a webhook in the order they were first sent
+     */
+    private void deliver(Webhook webhook, List<Pending> batch, byte[] payload, long sequence, int retries) {
+        exchange("POST", webhook.url, payload, JSON, false, webhook).thenAccept(response -> {
+            // Requests to a quarantined webhook can never succeed
+            Outcome outcome = response == null && webhook.breaker.getState() == CircuitBreaker.State.QUARANTINED
+                    ? Outcome.REJECTED
+                    : classify(response);
+            if (outcome == Outcome.FAILED && closed) {
+                // Kept in the outbox for the next start
+                for (Pending notification : batch) {
+                    notification.result.complete(false);
+                }
+            } else if (outcome == Outcome.FAILED && outbox != null && retries < maxRetries) {
+                webhook.metrics.recordRetry();
+                // Do not spend a retry while the circuit is open
+                long delay = Math.max(backoff(retries), webhook.breaker.getRemainingOpenNanos());
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Retrying Discord webhook in {}ms", TimeUnit.NANOSECONDS.toMillis(delay));
+                }
+                retrying.add(batch);
+                schedule(() -> retry(webhook, batch, payload, sequence, retries + 1), delay);
+            } else {
+                if (outbox != null && outcome == Outcome.FAILED) {
+                    logger.warn("Discord webhook still failing after {} retries. Message dropped.", retries);
+                }
+                for (Pending notification : batch) {
+                    if (outbox != null) {
+                        outbox.acknowledge(notification.id);
+                    }
+                    notification.result.complete(outcome == Outcome.DELIVERED);
+                }
+            }
+            // Retries run beside the queue; only the first attempt holds the webhook's turn to send
+            if (retries == 0) {
+                // Hand over to a worker, so that a quarantined webhook does not recurse through its whole queue
+                executor.callerRunsWhenFull().execute(() -> sendNext(webhook));
+            }
+        });
+    }
+
+    /**
+     * Retries a message without the status notifications that a newer status was sent after,
+     * so that e.g. a late "online" cannot follow the "offline" it was overtaken by.
+     * The newer status is retried itself if it fails.
+     */
+    private void retry(Webhook webhook, List<Pending> batch, byte[] payload, long sequence, int retries) {
+        if (!retrying.remove(batch)) {
+            // Failed by close()
+            return;
+        }
+        if (webhook.statusSequence <= sequence) {
+            deliver(webhook, batch, payload, sequence, retries);
+            return;
+        }
+        List<Pending> current = new ArrayList<>(batch.size());
+        for (Pending notification : batch) {
+            if (!notification.status) {
+                current.add(notification);
+                continue;
+            }
+            if (outbox != null) {
+                outbox.acknowledge(notification.id);
+            }
+            notification.result.complete(false);
+        }
+        if (current.size() < batch.size()) {
+            logger.debug("Dropped {} status notification(s) replaced by a newer status", batch.size() - current.size());
+            if (current.isEmpty()) {
+                return;
+            }
+            payload = pack(current);
+        }
+        deliver(webhook, current, payload, sequence, retries);
+    }
+
+    /**
+     * Packs the payloads of notifications that were packed together before.
+     */
+    private static byte[] pack(List<Pending> batch) {
+        if (batch.size() == 1) {
+            return batch.get(0).payload;
+        }
+        EmbedPacker packer = new EmbedPacker();
+        packer.start(batch.get(0).payload);
+        for (int i = 1; i < batch.size(); i++) {
+            packer.add(batch.get(i).payload);
+        }
+        return packer.toPayload();
+    }
+
+    private static long backoff(int retries) {
+        long ceiling = Math.min(BACKOFF_MAX_NANOS, BACKOFF_BASE_NANOS << Math.min(retries, 20));
+        // Equal jitter: half fixed, half random, so retries from many servers spread out
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    /**
+     * Sends a request through the circuit breaker, concurrency limit and rate limiter.
+     *
+     * @return A future completing with the final response, or {@code null} if the request failed
+     * or the circuit is open; never completes exceptionally
+     */
+    private CompletableFuture<HttpResponse<String>> exchange(String method, String url, byte[] payload,
+                                                             String contentType, boolean readBody, Webhook webhook) {
+        if (!webhook.breaker.allowRequest()) {
+            webhook.metrics.recordShortCircuit();
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<HttpResponse<String>> result = new CompletableFuture<>();
+        attempt(method, url, payload, contentType, readBody, webhook, result, 0, System.nanoTime());
+        return result;
+    }
+
+    /**
+     * @param payload     The request body, or {@code null} to send none
+     * @param contentType The content type of the request body
+     * @param queuedAt When the request started waiting, kept while it is held back by the rate limiter
+     */
+    private void attempt(String method, String url, byte[] payload, String contentType, boolean readBody, Webhook webhook,
+                         CompletableFuture<HttpResponse<String>> result, int retries, long queuedAt) {
+        if (closed) {
+            result.complete(null);
+            return;
+        }
+        WebhookMetrics webhookMetrics = webhook.metrics;
+        queued.incrementAndGet();
+        waiting.add(new Waiting(result, () -> {
+            queued.decrementAndGet();
+            long delay = rateLimiter.reserve(method, url);
+            if (delay > 0) {
+                // Give the slot to other webhooks while this bucket refills;
+                // we are running inside drain(), which picks up the next request
+                inFlight.decrementAndGet();
+                schedule(() -> attempt(method, url, payload, contentType, readBody, webhook, result, retries, queuedAt), delay);
+                return;
+            }
+
+            long sentAt = System.nanoTime();
+            webhookMetrics.recordQueue(sentAt - queuedAt);
+            HttpResponse.BodyHandler<String> bodyHandler = readBody
+                    ? HttpResponse.BodyHandlers.ofString()
+                    : HttpResponse.BodyHandlers.replacing(null);
+            CompletableFuture<HttpResponse<String>> request;
+            try {
+                HttpRequest.Builder httpRequest = HttpRequest.newBuilder(URI.create(url))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("User-Agent", USER_AGENT);
+                if (payload != null) {
+                    httpRequest.header("Content-Type", contentType)
+                            .method(method, HttpRequest.BodyPublishers.ofByteArray(payload));
+                } else {
+                    httpRequest.method(method, HttpRequest.BodyPublishers.noBody());
+                }
+                // The body handler is created once the response headers have arrived
+                request = client.sendAsync(httpRequest.build(), responseInfo -> {
+                    webhookMetrics.recordTtfb(System.nanoTime() - sentAt);
+                    return bodyHandler.apply(responseInfo);
+                });
+            } catch (Exception e) {
+                request = CompletableFuture.failedFuture(e);
+            }
+
+            request.whenComplete((response, error) -> {
+                release();
+                if (error != null) {
+                    webhookMetrics.recordError();
+                    logger.warn("Failed to send Discord webhook: {}", error.getMessage());
+                    recordHealth(method, webhook, -1);
+                    result.complete(null);
+                    return;
+                }
+                webhookMetrics.recordTotal(System.nanoTime() - sentAt);
+                webhook.lastExchangeAt = System.nanoTime();
+                webhookMetrics.recordStatus(response.statusCode());
+                if (logger.isDebugEnabled()) {
+                    logger.debug("{} Discord webhook {}: status code {} after {}ms", method, webhookMetrics.getWebhookId(),
+                            response.statusCode(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt));
+                }
+                recordHealth(method, webhook, response.statusCode());
+
+                long retryAfter = rateLimiter.update(method, url, response.statusCode(), response.headers());
+                if (response.statusCode() == 429 && retries < MAX_RATE_LIMIT_RETRIES) {
+                    webhookMetrics.recordRetry();
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Discord webhook rate limited, retrying in {}ms", TimeUnit.NANOSECONDS.toMillis(retryAfter));
+                    }
+                    schedule(() -> attempt(method, url, payload, contentType, readBody, webhook, result, retries + 1,
+                            System.nanoTime()), retryAfter);
+                } else {
+                    result.complete(response);
+                }
+            });
+        }));
+        drain();
+    }
+
+    /**
+     * Updates the circuit breaker of a webhook with the outcome of a request.
+     *
+     * @param status The HTTP status code, or {@code -1} if the request failed without a response
+     */
+    private void recordHealth(String method, Webhook webhook, int status) {
+        CircuitBreaker breaker = webhook.breaker;
+        String id = webhook.metrics.getWebhookId();
+        // A 404 on PATCH means the edited message was deleted, not the webhook
+        if (status == 401 || (status == 404 && !"PATCH".equals(method))) {
+            if (breaker.quarantine()) {
+                logger.warn("Discord webhook {} was deleted or its token is invalid (status code {}). Skipping it until config.yml changes.",
+                        id, status);
+            }
+        } else if (status < 0 || status >= 500) {
+            long openNanos = breaker.recordFailure();
+            if (openNanos > 0) {
+                logger.warn("Discord webhook {} keeps failing, pausing it for {}s", id, TimeUnit.NANOSECONDS.toSeconds(openNanos));
+                schedule(() -> probe(webhook), openNanos);
+            }
+        } else if (breaker.recordSuccess()) {
+            logger.info("Discord webhook {} recovered", id);
+        }
+    }
+
+    /**
+     * Checks whether a paused webhook works again. Fetching the webhook does not post a message,
+     * and the response updates the circuit breaker like any other request.
+     */
+    private void probe(Webhook webhook) {
+        if (webhook.breaker.tryProbe()) {
+            attempt("GET", webhook.url, null, null, false, webhook, new CompletableFuture<>(), 0, System.nanoTime());
+        }
+    }
+
+    private Webhook webhook(String webhookUrl) {
+        Webhook webhook = webhooks.get(webhookUrl);
+        if (webhook != null) {
+            return webhook;
+        }
+        return webhooks.computeIfAbsent(webhookUrl, url -> new Webhook(url, metrics.forWebhook(url)));
+    }
+
+    /**
+     * Classifies a final response.
+     *
+     * @return {@link Outcome#DELIVERED}, {@link Outcome#FAILED} for errors worth retrying, or {@link Outcome#REJECTED}
+     */
+    private Outcome classify(HttpResponse<?> response) {
+        if (response == null) {
+            return Outcome.FAILED;
+        }
+
+        int responseCode = response.statusCode();
+        if (responseCode >= 200 && responseCode < 300) {
+            logger.debug("Discord webhook sent successfully");
+            return Outcome.DELIVERED;
+        } else if (responseCode == 429) {
+            logger.warn("Discord webhook still rate limited after {} retries.", MAX_RATE_LIMIT_RETRIES);
+            return Outcome.FAILED;
+        }
+
+        logger.warn("Discord webhook returned status code: {}", responseCode);
+        // Other client errors will not succeed on retry
+        return responseCode >= 400 && responseCode < 500 ? Outcome.REJECTED : Outcome.FAILED;
+    }
+
+    private static String withQuery(String url, String query) {
+        return url + (url.indexOf('?') < 0 ? '?' : '&') + query;
+    }
+
+    /**
+     * Runs a task after the given delay. If the executor was shut down meanwhile, closes the dispatcher
+     * and runs the task right away, which then completes its futures as failed instead of waiting for
+     * a retry that never comes. The notifications stay in the outbox.
+     */
+    private void schedule(Runnable task, long delayNanos) {
+        try {
+            executor.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            close();
+            task.run();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrentRequests) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+
+            Waiting next = waiting.poll();
+            if (next == null) {
+                inFlight.decrementAndGet();
+                // Another thread may have queued a request after our poll
+                if (waiting.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            next.start.run();
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    /**
+     * Outcome of a request.
+     */
+    private enum Outcome {
+        DELIVERED,
+        FAILED,
+        REJECTED
+    }
+
+    /**
+     * A webhook with its metrics, health state and waiting notifications.
+     */
+    private static final class Webhook {
+        private final String url;
+        private final WebhookMetrics metrics;
+        private final CircuitBreaker breaker;
+        private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // Numbers the messages in the order they were first sent
+        private final AtomicLong sequence = new AtomicLong();
+        // The number of the last message with a status notification
+        private volatile long statusSequence;
+        // When a request to this webhook last got a response, or 0 if none has yet
+        private volatile long lastExchangeAt;
+
+        private Webhook(String url, WebhookMetrics metrics) {
+            this.url = url;
+            this.metrics = metrics;
+            this.breaker = new CircuitBreaker(url);
+        }
+    }
+
+    /**
+     * A request waiting for a free slot.
+     */
+    private static final class Waiting {
+        private final CompletableFuture<HttpResponse<String>> result;
+        // Sends the request, or holds it back again while its rate limit bucket is exhausted
+        private final Runnable start;
+
+        private Waiting(CompletableFuture<HttpResponse<String>> result, Runnable start) {
+            this.result = result;
+            this.start = start;
+        }
+    }
+
+    /**
+     * A journaled notification waiting to be sent.
+     */
+    private static final class Pending {
+        private final long id;
+        private final byte[] payload;
+        private final boolean status;
+        private final CompletableFuture<Boolean> result;
+
+        private Pending(long id, byte[] payload, boolean status, CompletableFuture<Boolean> result) {
+            this.id = id;
+            this.payload = payload;
+            this.status = status;
+            this.result = result;
+        }
+    }
+}
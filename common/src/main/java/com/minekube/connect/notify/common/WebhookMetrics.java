@@ -0,0 +1,106 @@
+package com.minekube.connect.notify.common;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivery metrics of one webhook: latency histograms and response counters.
+ * <p>
+ * Webhooks are identified by their id only. The token part of the URL is a credential
+ * and never ends up in a metric label.
+ */
+public class WebhookMetrics implements WebhookMetricsMBean {
+
+    private final String webhookId;
+
+    // Time waiting for a free slot or for the rate limit bucket to refill
+    private final LatencyHistogram queue = new LatencyHistogram();
+    // Time from sending the request until the response headers arrived
+    private final LatencyHistogram ttfb = new LatencyHistogram();
+    // Time from sending the request until the response body was read
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    private final LongAdder responses2xx = new LongAdder();
+    private final LongAdder responses4xx = new LongAdder();
+    private final LongAdder responses429 = new LongAdder();
+    private final LongAdder responses5xx = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder packed = new LongAdder();
+
+    public WebhookMetrics(String webhookId) {
+        this.webhookId = webhookId;
+    }
+
+    public void recordQueue(long nanos) {
+        queue.record(nanos);
+    }
+
+    public void recordTtfb(long nanos) {
+        ttfb.record(nanos);
+    }
+
+    public void recordTotal(long nanos) {
+        total.record(nanos);
+    }
+
+    /**
+     * Counts a response by its status class.
+     */
+    public void recordStatus(int status) {
+        if (status == 429) {
+            responses429.increment();
+        } else if (status >= 200 && status < 300) {
+            responses2xx.increment();
+        } else if (status >= 400 && status < 500) {
+            responses4xx.increment();
+        } else if (status >= 500) {
+            responses5xx.increment();
+        }
+    }
+
+    /**
+     * Counts a request that failed without a response, e.g. a timeout or connection error.
+     */
+    public void recordError() {
+        errors.increment();
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    /**
+     * Counts a request that was not sent because the webhook's circuit is open or it is quarantined.
+     */
+    public void recordShortCircuit() {
+        shortCircuited.increment();
+    }
+
+    /**
+     * Counts the notifications packed into one message, beyond the first.
+     */
+    public void recordPacked(int notifications) {
+        packed.add(notifications - 1);
+    }
+
+    public String getWebhookId() { return webhookId; }
+    public LatencyHistogram getQueue() { return queue; }
+    public LatencyHistogram getTtfb() { return ttfb; }
+    public LatencyHistogram getTotal() { return total; }
+
+    @Override public long getResponses2xx() { return responses2xx.sum(); }
+    @Override public long getResponses4xx() { return responses4xx.sum(); }
+    @Override public long getResponses429() { return responses429.sum(); }
+    @Override public long getResponses5xx() { return responses5xx.sum(); }
+    @Override public long getErrors() { return errors.sum(); }
+    @Override public long getRetries() { return retries.sum(); }
+    @Override public long getShortCircuited() { return shortCircuited.sum(); }
+    @Override public long getPacked() { return packed.sum(); }
+    @Override public double getQueueP50Millis() { return queue.getPercentileMicros(50) / 1000.0; }
+    @Override public double getQueueP99Millis() { return queue.getPercentileMicros(99) / 1000.0; }
+    @Override public double getTtfbP50Millis() { return ttfb.getPercentileMicros(50) / 1000.0; }
+    @Override public double getTtfbP99Millis() { return ttfb.getPercentileMicros(99) / 1000.0; }
+    @Override public double getTotalP50Millis() { return total.getPercentileMicros(50) / 1000.0; }
+    @Override public double getTotalP99Millis() { return total.getPercentileMicros(99) / 1000.0; }
+}
@@ -0,0 +1,35 @@
+package com.minekube.connect.notify.common;
+
+/**
+ * JMX view of the delivery metrics of one webhook.
+ */
+public interface WebhookMetricsMBean {
+
+    long getResponses2xx();
+
+    long getResponses4xx();
+
+    long getResponses429();
+
+    long getResponses5xx();
+
+    long getErrors();
+
+    long getRetries();
+
+    long getShortCircuited();
+
+    long getPacked();
+
+    double getQueueP50Millis();
+
+    double getQueueP99Millis();
+
+    double getTtfbP50Millis();
+
+    double getTtfbP99Millis();
+
+    double getTotalP50Millis();
+
+    double getTotalP99Millis();
+}
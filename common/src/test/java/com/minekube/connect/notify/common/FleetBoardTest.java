@@ -0,0 +1,102 @@
+package com.minekube.connect.notify.common;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FleetBoardTest {
+
+    private static final int SERVERS = 50;
+    private static final long DEBOUNCE_MS = 200;
+
+    @TempDir
+    File dataFolder;
+
+    private NotifyExecutor executor;
+    private RecordingDispatcher dispatcher;
+    private InMemoryFleetTransport proxy;
+    private FleetBoard board;
+    private final List<FleetTransport> backends = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(new File(dataFolder, "config.yml").toPath(), String.join("\n",
+                "discord:",
+                "  webhooks:",
+                "    - 'https://discord.com/api/webhooks/1/token'",
+                "fleet:",
+                "  enabled: true",
+                "  debounce-ms: " + DEBOUNCE_MS));
+        NotifyLogger logger = NotifyLogger.of(Logger.getLogger("FleetBoardTest"));
+        NotifyConfig config = new NotifyConfig(dataFolder, logger);
+        config.load();
+        executor = new NotifyExecutor(logger, 2, 100, false);
+        dispatcher = new RecordingDispatcher(logger, executor);
+        proxy = new InMemoryFleetTransport();
+        for (int i = 0; i < SERVERS; i++) {
+            backends.add(proxy.backend("server-" + i));
+        }
+        board = new FleetBoard(dataFolder, logger, config, dispatcher, executor, proxy, () -> {
+            String[] values = new String[EmbedTemplate.Placeholder.COUNT];
+            Arrays.fill(values, "0");
+            return values;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        board.stop();
+        executor.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void restartWaveResultsInOneEdit() throws Exception {
+        board.start().get(5, TimeUnit.SECONDS);
+        assertEquals(1, dispatcher.posts.size());
+        assertTrue(dispatcher.posts.get(0).contains(SERVERS + "/" + SERVERS + " servers online"));
+
+        for (FleetTransport backend : backends) {
+            backend.send(new FleetReport(false).encode());
+        }
+        awaitEdits(1);
+        // Give a second flush the time to show up
+        Thread.sleep(DEBOUNCE_MS * 3);
+
+        assertEquals(1, dispatcher.edits.size(), "edits");
+        assertTrue(dispatcher.edits.get(0).contains("0/" + SERVERS + " servers online"));
+        assertEquals(1, dispatcher.posts.size(), "posts");
+    }
+
+    @Test
+    void ignoresReportsOfOtherVersions() throws Exception {
+        board.start().get(5, TimeUnit.SECONDS);
+        byte[] report = new FleetReport(false).encode();
+        report[0] = 1;
+        for (FleetTransport backend : backends) {
+            backend.send(report);
+        }
+        Thread.sleep(DEBOUNCE_MS * 3);
+
+        assertEquals(0, dispatcher.edits.size(), "edits");
+    }
+
+    private void awaitEdits(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dispatcher.edits.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.minekube.connect.notify.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FleetReportTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        FleetReport online = FleetReport.decode(new FleetReport(true).encode());
+        FleetReport offline = FleetReport.decode(new FleetReport(false).encode());
+        assertNotNull(online);
+        assertNotNull(offline);
+        assertTrue(online.isOnline());
+        assertFalse(offline.isOnline());
+    }
+
+    @Test
+    void ignoresReportsOfOtherVersions() {
+        byte[] data = new FleetReport(true).encode();
+        // Version 1 reports also carried the player counts
+        data[0] = 1;
+        assertNull(FleetReport.decode(data));
+        data[0] = 3;
+        assertNull(FleetReport.decode(data));
+    }
+
+    @Test
+    void ignoresMalformedReports() {
+        assertNull(FleetReport.decode(new byte[0]));
+        assertNull(FleetReport.decode(new byte[]{2}));
+    }
+}
@@ -0,0 +1,77 @@
+package com.minekube.connect.notify.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    @Test
+    void countsFewValuesExactly() {
+        assertEquals(10, estimate(10, new Random(1)));
+    }
+
+    @Test
+    void estimatesThousandValuesWithinFivePercent() {
+        assertWithin(1000, 0.05);
+    }
+
+    @Test
+    void estimatesHundredThousandValuesWithinFivePercent() {
+        assertWithin(100_000, 0.05);
+    }
+
+    @Test
+    void ignoresDuplicates() {
+        HyperLogLog counter = new HyperLogLog();
+        Random random = new Random(7);
+        long[] hashes = new long[1000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = UuidLongMap.hash(random.nextLong(), random.nextLong());
+            counter.add(hashes[i]);
+        }
+        long estimate = counter.estimate();
+        for (long hash : hashes) {
+            counter.add(hash);
+        }
+        assertEquals(estimate, counter.estimate());
+    }
+
+    @Test
+    void restoresSavedRegisters() {
+        HyperLogLog counter = new HyperLogLog();
+        Random random = new Random(3);
+        for (int i = 0; i < 5000; i++) {
+            counter.add(UuidLongMap.hash(random.nextLong(), random.nextLong()));
+        }
+
+        HyperLogLog restored = new HyperLogLog();
+        assertTrue(restored.load(counter.toBytes()));
+        assertEquals(counter.estimate(), restored.estimate());
+        assertFalse(restored.load(new byte[HyperLogLog.REGISTERS / 2]));
+    }
+
+    /**
+     * Asserts the estimate is within about three times the standard error of 1.6% for a few seeds,
+     * since a single one could pass by luck.
+     */
+    private static void assertWithin(int count, double error) {
+        for (long seed = 0; seed < 5; seed++) {
+            long estimate = estimate(count, new Random(seed));
+            double actual = Math.abs(estimate - count) / (double) count;
+            assertTrue(actual <= error, "estimated " + estimate + " of " + count + " values with seed " + seed);
+        }
+    }
+
+    private static long estimate(int count, Random random) {
+        HyperLogLog counter = new HyperLogLog();
+        for (int i = 0; i < count; i++) {
+            counter.add(UuidLongMap.hash(random.nextLong(), random.nextLong()));
+        }
+        return counter.estimate();
+    }
+}
@@ -0,0 +1,94 @@
+package com.minekube.connect.notify.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Connects backends to a proxy within one JVM, standing in for the plugin messaging channel
+ * in tests.
+ * <p>
+ * An instance is the proxy side; {@link #backend(String)} creates the transport of a backend.
+ * Reports are delivered synchronously, and a backend is reachable until its transport is closed.
+ */
+public class InMemoryFleetTransport implements FleetTransport {
+
+    private final Map<String, Backend> backends = new ConcurrentHashMap<>();
+    private volatile BiConsumer<String, byte[]> receiver;
+
+    /**
+     * Creates the transport of a backend, replacing any previous backend of the same name.
+     */
+    public FleetTransport backend(String name) {
+        Backend backend = new Backend(name);
+        backends.put(name, backend);
+        return backend;
+    }
+
+    @Override
+    public void send(byte[] report) {
+        // The proxy has nobody to report to
+    }
+
+    @Override
+    public void setReceiver(BiConsumer<String, byte[]> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public Collection<String> getServers() {
+        return new ArrayList<>(backends.keySet());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> ping(String server) {
+        Backend backend = backends.get(server);
+        return CompletableFuture.completedFuture(backend != null && backend.open);
+    }
+
+    @Override
+    public void close() {
+        receiver = null;
+    }
+
+    private final class Backend implements FleetTransport {
+        private final String name;
+        private volatile boolean open = true;
+
+        private Backend(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void send(byte[] report) {
+            BiConsumer<String, byte[]> proxyReceiver = receiver;
+            if (open && proxyReceiver != null) {
+                proxyReceiver.accept(name, report.clone());
+            }
+        }
+
+        @Override
+        public void setReceiver(BiConsumer<String, byte[]> receiver) {
+            // Backends only send
+        }
+
+        @Override
+        public Collection<String> getServers() {
+            return List.of();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> ping(String server) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
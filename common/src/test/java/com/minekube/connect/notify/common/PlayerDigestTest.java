@@ -0,0 +1,62 @@
+package com.minekube.connect.notify.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlayerDigestTest {
+
+    @Test
+    void keepsEmbedsWithinDiscordLimits() {
+        // Names of the maximum length, each underscore escaped to two characters
+        List<String> joined = names("J", 3000);
+        List<String> left = names("L", 2000);
+
+        List<EmbedLayout> embeds = PlayerDigest.createEmbeds(joined, left, 42);
+
+        assertTrue(embeds.size() > 1, "embeds");
+        assertTrue(embeds.get(0).getDescription().contains("42 more event(s) not shown"));
+        List<String> shownJoined = new ArrayList<>();
+        List<String> shownLeft = new ArrayList<>();
+        for (EmbedLayout embed : embeds) {
+            assertFalse(embed.getFields().isEmpty(), "empty embed");
+            assertTrue(embed.getFields().size() <= DiscordWebhook.MAX_FIELDS, "fields: " + embed.getFields().size());
+            int length = DiscordWebhook.textLength(embed);
+            assertTrue(length <= DiscordWebhook.MAX_TOTAL_LENGTH, "embed length: " + length);
+            for (EmbedLayout.Field field : embed.getFields()) {
+                assertTrue(field.getValue().length() <= DiscordWebhook.MAX_FIELD_VALUE_LENGTH,
+                        "field value length: " + field.getValue().length());
+                List<String> shown = field.getName().startsWith("🟢") ? shownJoined : shownLeft;
+                for (String name : field.getValue().split(", ")) {
+                    shown.add(name.replace("\\_", "_"));
+                }
+            }
+        }
+        // Every name shows up once, in order
+        assertEquals(joined, shownJoined);
+        assertEquals(left, shownLeft);
+    }
+
+    @Test
+    void fitsSmallDigestInOneEmbed() {
+        List<EmbedLayout> embeds = PlayerDigest.createEmbeds(List.of("Steve", "Alex"), List.of("Notch"), 0);
+
+        assertEquals(1, embeds.size(), "embeds");
+        assertEquals("2 joined • 1 left", embeds.get(0).getDescription());
+        assertEquals(2, embeds.get(0).getFields().size(), "fields");
+    }
+
+    private static List<String> names(String prefix, int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = prefix + "_" + i + "_";
+            names.add(name + "_".repeat(16 - name.length()));
+        }
+        return names;
+    }
+}
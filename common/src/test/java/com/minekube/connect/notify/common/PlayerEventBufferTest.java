@@ -0,0 +1,129 @@
+package com.minekube.connect.notify.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlayerEventBufferTest {
+
+    private static final int PRODUCERS = 8;
+
+    @Test
+    void keepsEveryEventBelowCapacity() throws InterruptedException {
+        PlayerEventBuffer buffer = new PlayerEventBuffer(4096);
+        AtomicLong rejected = new AtomicLong();
+        produce(PRODUCERS, 500, event -> {
+            if (!buffer.offer(event)) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(0, rejected.get(), "rejected");
+        assertEquals(PRODUCERS * 500, buffer.size(), "size");
+        List<PlayerEventBuffer.Event> events = new ArrayList<>();
+        assertEquals(0, buffer.drain(events::add), "dropped");
+        assertEachOnceInOrder(events, PRODUCERS * 500);
+        assertEquals(0, buffer.size(), "size");
+    }
+
+    @Test
+    void countsEventsAboveCapacity() throws InterruptedException {
+        PlayerEventBuffer buffer = new PlayerEventBuffer(1024);
+        AtomicLong rejected = new AtomicLong();
+        produce(PRODUCERS, 1000, event -> {
+            if (!buffer.offer(event)) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        List<PlayerEventBuffer.Event> events = new ArrayList<>();
+        long dropped = buffer.drain(events::add);
+        assertEquals(1024, events.size(), "drained");
+        assertEquals(PRODUCERS * 1000 - 1024, dropped, "dropped");
+        assertEquals(rejected.get(), dropped, "dropped");
+        assertEachOnceInOrder(events, events.size());
+        // The count restarts after each drain
+        assertEquals(0, buffer.drain(events::add), "dropped");
+    }
+
+    @Test
+    void accountsForEveryEventWhileDraining() throws InterruptedException {
+        PlayerEventBuffer buffer = new PlayerEventBuffer(256);
+        List<PlayerEventBuffer.Event> events = new ArrayList<>();
+        AtomicLong dropped = new AtomicLong();
+        AtomicBoolean producing = new AtomicBoolean(true);
+        Thread consumer = new Thread(() -> {
+            while (producing.get()) {
+                dropped.addAndGet(buffer.drain(events::add));
+            }
+        });
+        consumer.start();
+        try {
+            produce(PRODUCERS, 20_000, buffer::offer);
+        } finally {
+            producing.set(false);
+            consumer.join();
+        }
+        dropped.addAndGet(buffer.drain(events::add));
+
+        assertEquals(PRODUCERS * 20_000, events.size() + dropped.get(), "drained and dropped");
+        assertEachOnceInOrder(events, events.size());
+    }
+
+    /**
+     * Offers events from several threads at once. Each event carries its producer and sequence number in its UUID.
+     */
+    private static void produce(int producers, int perProducer, Consumer<PlayerEventBuffer.Event> offer)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    offer.accept(new PlayerEventBuffer.Event(i % 2 == 0, new UUID(producer, i), "Player" + i, i));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Asserts that no event is duplicated and that each producer's events come out in the order they went in.
+     */
+    private static void assertEachOnceInOrder(List<PlayerEventBuffer.Event> events, int expected) {
+        assertEquals(expected, events.size(), "events");
+        Set<UUID> seen = new HashSet<>();
+        long[] last = new long[PRODUCERS];
+        Arrays.fill(last, -1);
+        for (PlayerEventBuffer.Event event : events) {
+            assertTrue(seen.add(event.getUuid()), "duplicate " + event.getUuid());
+            int producer = (int) event.getUuid().getMostSignificantBits();
+            long sequence = event.getUuid().getLeastSignificantBits();
+            assertTrue(sequence > last[producer], "out of order " + event.getUuid());
+            last[producer] = sequence;
+        }
+    }
+}
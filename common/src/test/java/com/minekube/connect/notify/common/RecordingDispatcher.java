@@ -0,0 +1,33 @@
+package com.minekube.connect.notify.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the messages posted and edited instead of sending them to Discord. Every request succeeds.
+ */
+class RecordingDispatcher extends WebhookDispatcher {
+
+    private final AtomicInteger messageIds = new AtomicInteger();
+    final List<String> posts = new CopyOnWriteArrayList<>();
+    final List<String> edits = new CopyOnWriteArrayList<>();
+
+    RecordingDispatcher(NotifyLogger logger, NotifyExecutor executor) {
+        super(logger, executor, 1);
+    }
+
+    @Override
+    public CompletableFuture<String> sendAndGetMessageId(String webhookUrl, byte[] payload) {
+        posts.add(new String(payload, StandardCharsets.UTF_8));
+        return CompletableFuture.completedFuture(Integer.toString(messageIds.incrementAndGet()));
+    }
+
+    @Override
+    public CompletableFuture<Integer> editMessage(String webhookUrl, String messageId, byte[] payload) {
+        edits.add(new String(payload, StandardCharsets.UTF_8));
+        return CompletableFuture.completedFuture(200);
+    }
+}
@@ -0,0 +1,151 @@
+package com.minekube.connect.notify.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionTrackerTest {
+
+    private static final long DAY = Instant.parse("2025-06-01T00:00:00Z").toEpochMilli();
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+    private static final UUID CAROL = UUID.randomUUID();
+
+    @TempDir
+    File dataFolder;
+
+    private final NotifyLogger logger = NotifyLogger.of(Logger.getLogger("SessionTrackerTest"));
+
+    @Test
+    void carriesPlayersOnlineAcrossTheHour() {
+        long hour = DAY + 13 * HOUR;
+        SessionTracker tracker = tracker(dataFolder, hour);
+        tracker.join(ALICE, hour + 30 * MINUTE);
+        tracker.join(BOB, hour + 50 * MINUTE);
+        tracker.quit(BOB, hour + HOUR + 10 * MINUTE);
+
+        List<SessionTracker.Report> reports = tracker.takeReports(hour + HOUR + 10 * MINUTE);
+        assertEquals(1, reports.size(), "reports");
+        SessionTracker.Report first = reports.get(0);
+        assertEquals(SessionTracker.Period.HOURLY, first.getPeriod());
+        assertEquals(hour, first.getStart());
+        assertEquals(hour + HOUR, first.getEnd());
+        assertEquals(2, first.getPeak(), "peak");
+        assertEquals(2, first.getUniquePlayers(), "unique");
+        // Both were still online at the end of the hour
+        assertEquals(0, first.getSessions(), "sessions");
+        assertEquals(-1, first.getMedianSessionMillis(), "median");
+        assertEquals(40 * MINUTE, first.getPlaytimeMillis(), "playtime");
+
+        tracker.quit(ALICE, hour + HOUR + 20 * MINUTE);
+        reports = tracker.takeReports(hour + 2 * HOUR);
+        assertEquals(1, reports.size(), "reports");
+        SessionTracker.Report second = reports.get(0);
+        assertEquals(hour + HOUR, second.getStart());
+        assertEquals(2, second.getPeak(), "peak");
+        assertEquals(2, second.getUniquePlayers(), "unique");
+        // The sessions end in this hour and count with their full length, the playtime only with its part in it
+        assertEquals(2, second.getSessions(), "sessions");
+        assertWithinTenPercent(20 * MINUTE, second.getMedianSessionMillis());
+        assertEquals(30 * MINUTE, second.getPlaytimeMillis(), "playtime");
+    }
+
+    @Test
+    void carriesPlayersOnlineAcrossTheDay() {
+        SessionTracker tracker = tracker(dataFolder, DAY);
+        tracker.join(ALICE, DAY + 23 * HOUR + 30 * MINUTE);
+        tracker.quit(ALICE, DAY + 24 * HOUR + 30 * MINUTE);
+
+        List<SessionTracker.Report> reports = tracker.takeReports(DAY + 24 * HOUR + 30 * MINUTE);
+        SessionTracker.Report day = find(reports, SessionTracker.Period.DAILY);
+        assertEquals(DAY, day.getStart());
+        assertEquals(DAY + 24 * HOUR, day.getEnd());
+        assertEquals(1, day.getPeak(), "peak");
+        assertEquals(1, day.getUniquePlayers(), "unique");
+        assertEquals(0, day.getSessions(), "sessions");
+        assertEquals(30 * MINUTE, day.getPlaytimeMillis(), "playtime");
+        assertEquals(DAY + 23 * HOUR, find(reports, SessionTracker.Period.HOURLY).getStart());
+
+        reports = tracker.takeReports(DAY + 48 * HOUR);
+        SessionTracker.Report next = find(reports, SessionTracker.Period.DAILY);
+        assertEquals(DAY + 24 * HOUR, next.getStart());
+        assertEquals(1, next.getPeak(), "peak");
+        assertEquals(1, next.getUniquePlayers(), "unique");
+        assertEquals(1, next.getSessions(), "sessions");
+        assertWithinTenPercent(HOUR, next.getMedianSessionMillis());
+        assertEquals(30 * MINUTE, next.getPlaytimeMillis(), "playtime");
+    }
+
+    @Test
+    void continuesPeriodsAfterRestart(@TempDir File otherFolder) {
+        long hour = DAY + 13 * HOUR;
+        SessionTracker restarted = tracker(dataFolder, hour);
+        SessionTracker running = tracker(otherFolder, hour);
+        for (SessionTracker tracker : List.of(restarted, running)) {
+            tracker.join(ALICE, hour + 5 * MINUTE);
+            tracker.join(BOB, hour + 10 * MINUTE);
+            tracker.quit(BOB, hour + 15 * MINUTE);
+            tracker.endSessions(hour + 20 * MINUTE);
+        }
+        restarted.save();
+
+        restarted = tracker(dataFolder, hour + 25 * MINUTE);
+        for (SessionTracker tracker : List.of(restarted, running)) {
+            tracker.join(ALICE, hour + 25 * MINUTE);
+            tracker.join(CAROL, hour + 30 * MINUTE);
+            tracker.quit(CAROL, hour + 40 * MINUTE);
+            tracker.quit(ALICE, hour + 45 * MINUTE);
+        }
+        restarted.save();
+
+        List<SessionTracker.Report> expected = running.takeReports(DAY + 24 * HOUR);
+        assertEquals(2, expected.size(), "reports");
+        assertEquals(3, find(expected, SessionTracker.Period.HOURLY).getUniquePlayers(), "unique");
+        assertEquals(4, find(expected, SessionTracker.Period.HOURLY).getSessions(), "sessions");
+        // Both periods ended while the server was down
+        List<SessionTracker.Report> actual = tracker(dataFolder, DAY + 26 * HOUR).takeReports(DAY + 26 * HOUR);
+        assertEquals(expected.size(), actual.size(), "reports");
+        for (SessionTracker.Report report : expected) {
+            assertSameFigures(report, find(actual, report.getPeriod()));
+        }
+    }
+
+    private SessionTracker tracker(File folder, long now) {
+        return new SessionTracker(folder, logger, ZoneOffset.UTC, now);
+    }
+
+    private static SessionTracker.Report find(List<SessionTracker.Report> reports, SessionTracker.Period period) {
+        return reports.stream()
+                .filter(report -> report.getPeriod() == period)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + period.getName() + " report in " + reports.size()));
+    }
+
+    private static void assertSameFigures(SessionTracker.Report expected, SessionTracker.Report actual) {
+        String period = expected.getPeriod().getName();
+        assertEquals(expected.getStart(), actual.getStart(), period + " start");
+        assertEquals(expected.getEnd(), actual.getEnd(), period + " end");
+        assertEquals(expected.getPeak(), actual.getPeak(), period + " peak");
+        assertEquals(expected.getUniquePlayers(), actual.getUniquePlayers(), period + " unique");
+        assertEquals(expected.getSessions(), actual.getSessions(), period + " sessions");
+        assertEquals(expected.getMedianSessionMillis(), actual.getMedianSessionMillis(), period + " median");
+        assertEquals(expected.getPlaytimeMillis(), actual.getPlaytimeMillis(), period + " playtime");
+    }
+
+    private static void assertWithinTenPercent(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 10, "expected about " + expected + " but was " + actual);
+    }
+}
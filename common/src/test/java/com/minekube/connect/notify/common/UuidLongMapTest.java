@@ -0,0 +1,64 @@
+package com.minekube.connect.notify.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UuidLongMapTest {
+
+    private static final long MISSING = -1;
+
+    @Test
+    void behavesLikeHashMap() {
+        Random random = new Random(42);
+        // Random and name-based UUIDs, like online and offline mode players
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            uuids.add(new UUID(random.nextLong(), random.nextLong()));
+            uuids.add(UUID.nameUUIDFromBytes(("OfflinePlayer:Player" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+
+        UuidLongMap map = new UuidLongMap(4);
+        Map<UUID, Long> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            UUID uuid = uuids.get(random.nextInt(uuids.size()));
+            // Lean towards adding early on and towards removing later, so the map grows and shrinks
+            if (random.nextInt(200_000) > i) {
+                long value = random.nextLong() & Long.MAX_VALUE;
+                assertEquals(expected.putIfAbsent(uuid, value) == null, map.putIfAbsent(uuid, value), "putIfAbsent");
+            } else {
+                assertEquals((long) expected.getOrDefault(uuid, MISSING), map.remove(uuid, MISSING), "remove");
+                expected.remove(uuid);
+            }
+            if (i % 1000 == 0) {
+                assertContents(expected, map);
+            }
+        }
+        assertContents(expected, map);
+
+        map.clear();
+        assertContents(Map.of(), map);
+    }
+
+    @Test
+    void rejectsNilUuid() {
+        UuidLongMap map = new UuidLongMap(4);
+        assertThrows(IllegalArgumentException.class, () -> map.putIfAbsent(new UUID(0, 0), 1));
+    }
+
+    private static void assertContents(Map<UUID, Long> expected, UuidLongMap map) {
+        assertEquals(expected.size(), map.size(), "size");
+        Map<UUID, Long> actual = new HashMap<>();
+        map.forEach((mostBits, leastBits, value) -> actual.put(new UUID(mostBits, leastBits), value));
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,143 @@
+package com.minekube.connect.notify.common;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookDispatcherTest {
+
+    private static final byte[] ONLINE = payload("online");
+    private static final byte[] OFFLINE = payload("offline");
+    private static final byte[] PLAYER_JOIN = payload("player-join");
+
+    @TempDir
+    File dataFolder;
+
+    private HttpServer server;
+    // How many of the next requests are answered with a server error
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long responseDelayMillis;
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final List<String> accepted = new CopyOnWriteArrayList<>();
+    private NotifyExecutor executor;
+    private NotificationOutbox outbox;
+    private WebhookDispatcher dispatcher;
+    private String webhookUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            received.add(body);
+            try {
+                Thread.sleep(responseDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            boolean fail = failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0;
+            if (!fail) {
+                accepted.add(body);
+            }
+            exchange.sendResponseHeaders(fail ? 500 : 204, -1);
+            exchange.close();
+        });
+        server.start();
+        webhookUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/webhooks/1/token";
+
+        NotifyLogger logger = NotifyLogger.of(Logger.getLogger("WebhookDispatcherTest"));
+        executor = new NotifyExecutor(logger, 2, 100, false);
+        outbox = new NotificationOutbox(dataFolder, logger);
+        outbox.open();
+        dispatcher = new WebhookDispatcher(logger, executor, 1, outbox, 3, TimeUnit.HOURS.toMillis(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.close();
+        executor.shutdown(1, TimeUnit.SECONDS);
+        outbox.close();
+        server.stop(0);
+    }
+
+    @Test
+    void dropsRetryOfStatusOvertakenByNewerStatus() throws Exception {
+        failures.set(1);
+        CompletableFuture<Boolean> online = dispatcher.send(webhookUrl, ONLINE, true);
+        CompletableFuture<Boolean> offline = dispatcher.send(webhookUrl, OFFLINE, true);
+
+        assertTrue(offline.get(10, TimeUnit.SECONDS));
+        assertFalse(online.get(10, TimeUnit.SECONDS));
+        assertEquals(List.of(new String(OFFLINE, StandardCharsets.UTF_8)), accepted);
+        assertTrue(outbox.getPending().isEmpty(), "acknowledged");
+    }
+
+    @Test
+    void retriesOtherNotifications() throws Exception {
+        failures.set(1);
+        CompletableFuture<Boolean> join = dispatcher.send(webhookUrl, PLAYER_JOIN, false);
+        CompletableFuture<Boolean> offline = dispatcher.send(webhookUrl, OFFLINE, true);
+
+        assertTrue(offline.get(10, TimeUnit.SECONDS));
+        assertTrue(join.get(10, TimeUnit.SECONDS));
+        assertEquals(2, accepted.size());
+        assertEquals(3, received.size());
+    }
+
+    @Test
+    void failsRetriesWhenClosed() throws Exception {
+        failures.set(Integer.MAX_VALUE);
+        CompletableFuture<Boolean> join = dispatcher.send(webhookUrl, PLAYER_JOIN, false);
+        awaitReceived(1);
+        dispatcher.close();
+
+        assertFalse(join.get(1, TimeUnit.SECONDS));
+        assertEquals(1, outbox.getPending().size(), "kept in the outbox");
+    }
+
+    @Test
+    void failsRetriesWhenExecutorShutDown() throws Exception {
+        failures.set(Integer.MAX_VALUE);
+        responseDelayMillis = 200;
+        CompletableFuture<Boolean> join = dispatcher.send(webhookUrl, PLAYER_JOIN, false);
+        awaitReceived(1);
+        // The retry is scheduled once the response arrives
+        executor.shutdown(0, TimeUnit.SECONDS);
+
+        assertFalse(join.get(5, TimeUnit.SECONDS));
+        assertEquals(1, outbox.getPending().size(), "kept in the outbox");
+        assertFalse(dispatcher.send(webhookUrl, OFFLINE, true).get(1, TimeUnit.SECONDS));
+    }
+
+    private void awaitReceived(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static byte[] payload(String title) {
+        return ("{\"embeds\":[{\"title\":\"" + title + "\"}]}").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,6 +1,7 @@
 pluginManagement {
     plugins {
         id("com.gradleup.shadow") version "9.3.0"
+        id("me.champeau.jmh") version "0.7.3"
     }
 }
 
@@ -25,6 +26,7 @@ include("common")
 include("bukkit")
 include("velocity")
 include("bungee")
+include("benchmarks")
 
 setupSubproject("connect-notify") {
     projectDir = file("universal")
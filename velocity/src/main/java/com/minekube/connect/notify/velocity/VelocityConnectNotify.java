@@ -3,6 +3,9 @@ package com.minekube.connect.notify.velocity;
 import com.google.inject.Inject;
 import com.minekube.connect.notify.common.ConnectNotify;
 import com.minekube.connect.notify.common.ConnectNotifyPlatform;
+import com.minekube.connect.notify.common.FleetTransport;
+import com.minekube.connect.notify.common.NotifyLogger;
+import com.minekube.connect.notify.common.PlayerListener;
 import com.velocitypowered.api.event.PostOrder;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
@@ -11,14 +14,16 @@ import com.velocitypowered.api.plugin.Dependency;
 import com.velocitypowered.api.plugin.Plugin;
 import com.velocitypowered.api.plugin.annotation.DataDirectory;
 import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.proxy.server.RegisteredServer;
 import org.slf4j.Logger;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.logging.Handler;
-import java.util.logging.Level;
-import java.util.logging.LogRecord;
+import java.util.function.IntConsumer;
 
 /**
  * Velocity implementation of Connect Notify.
@@ -37,20 +42,16 @@ import java.util.logging.LogRecord;
 public class VelocityConnectNotify implements ConnectNotifyPlatform {
 
     private final ProxyServer proxy;
-    private final Logger slf4jLogger;
     private final Path dataDirectory;
-    private final java.util.logging.Logger julLogger;
+    private final NotifyLogger logger;
 
     private ConnectNotify connectNotify;
 
     @Inject
     public VelocityConnectNotify(ProxyServer proxy, Logger logger, @DataDirectory Path dataDirectory) {
         this.proxy = proxy;
-        this.slf4jLogger = logger;
         this.dataDirectory = dataDirectory;
-        
-        // Create a custom JUL logger that bridges to SLF4J
-        this.julLogger = new Slf4jLoggingAdapter(logger);
+        this.logger = new Slf4jNotifyLogger(logger);
     }
 
     @Subscribe(order = PostOrder.LATE)
@@ -77,16 +78,13 @@ public class VelocityConnectNotify implements ConnectNotifyPlatform {
     }
 
     @Override
-    public java.util.logging.Logger getLogger() {
-        return julLogger;
+    public NotifyLogger getNotifyLogger() {
+        return logger;
     }
 
     @Override
-    public void runAsync(Runnable task) {
-        proxy.getScheduler()
-                .buildTask(this, task)
-                .delay(0, TimeUnit.MILLISECONDS)
-                .schedule();
+    public void registerPlayerListener(PlayerListener listener) {
+        proxy.getEventManager().register(this, new VelocityPlayerListener(listener));
     }
 
     @Override
@@ -99,68 +97,72 @@ public class VelocityConnectNotify implements ConnectNotifyPlatform {
         return proxy.getConfiguration().getShowMaxPlayers();
     }
 
-    /**
-     * A java.util.logging.Logger adapter that forwards all log calls to SLF4J.
-     */
-    private static class Slf4jLoggingAdapter extends java.util.logging.Logger {
-        private final Logger slf4jLogger;
-
-        public Slf4jLoggingAdapter(Logger slf4jLogger) {
-            super("ConnectNotify", null);
-            this.slf4jLogger = slf4jLogger;
-            setLevel(Level.ALL);
-        }
-
-        @Override
-        public void log(LogRecord record) {
-            String message = record.getMessage();
-            if (message == null) return;
-            
-            int level = record.getLevel().intValue();
-            if (level >= Level.SEVERE.intValue()) {
-                slf4jLogger.error(message);
-            } else if (level >= Level.WARNING.intValue()) {
-                slf4jLogger.warn(message);
-            } else if (level >= Level.INFO.intValue()) {
-                slf4jLogger.info(message);
-            } else {
-                slf4jLogger.debug(message);
-            }
-        }
-
-        @Override
-        public void info(String msg) {
-            slf4jLogger.info(msg);
+    @Override
+    public CompletableFuture<Void> sampleLatency(IntConsumer sink) {
+        // Round-trip time of a status ping to each backend; unreachable backends are skipped
+        List<CompletableFuture<?>> pings = new ArrayList<>();
+        for (RegisteredServer server : proxy.getAllServers()) {
+            long start = System.nanoTime();
+            pings.add(server.ping().handle((ping, error) -> {
+                if (error == null) {
+                    sink.accept((int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+                return null;
+            }));
         }
+        return CompletableFuture.allOf(pings.toArray(new CompletableFuture<?>[0]));
+    }
 
-        @Override
-        public void warning(String msg) {
-            slf4jLogger.warn(msg);
-        }
+    @Override
+    public boolean isProxy() {
+        return true;
+    }
 
-        @Override
-        public void severe(String msg) {
-            slf4jLogger.error(msg);
-        }
+    @Override
+    public FleetTransport openFleetTransport() {
+        return new VelocityFleetTransport(this, proxy);
+    }
 
-        @Override
-        public void fine(String msg) {
-            slf4jLogger.debug(msg);
-        }
+    /**
+     * Binds {@link NotifyLogger} to Velocity's SLF4J logger, keeping its levels and exceptions.
+     */
+    private static class Slf4jNotifyLogger implements NotifyLogger {
+        private final Logger logger;
 
-        @Override
-        public void finer(String msg) {
-            slf4jLogger.trace(msg);
+        private Slf4jNotifyLogger(Logger logger) {
+            this.logger = logger;
         }
 
         @Override
-        public void finest(String msg) {
-            slf4jLogger.trace(msg);
+        public boolean isEnabled(Level level) {
+            switch (level) {
+                case DEBUG:
+                    return logger.isDebugEnabled();
+                case INFO:
+                    return logger.isInfoEnabled();
+                case WARN:
+                    return logger.isWarnEnabled();
+                default:
+                    return logger.isErrorEnabled();
+            }
         }
 
         @Override
-        public boolean isLoggable(Level level) {
-            return true;
+        public void log(Level level, String message, Throwable error) {
+            switch (level) {
+                case DEBUG:
+                    logger.debug(message, error);
+                    break;
+                case INFO:
+                    logger.info(message, error);
+                    break;
+                case WARN:
+                    logger.warn(message, error);
+                    break;
+                default:
+                    logger.error(message, error);
+                    break;
+            }
         }
     }
 }
@@ -0,0 +1,83 @@
+package com.minekube.connect.notify.velocity;
+
+import com.minekube.connect.notify.common.FleetTransport;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.PluginMessageEvent;
+import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.proxy.ServerConnection;
+import com.velocitypowered.api.proxy.messages.MinecraftChannelIdentifier;
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Receives fleet reports from the backend servers over the plugin messaging channel.
+ */
+public class VelocityFleetTransport implements FleetTransport {
+
+    private static final MinecraftChannelIdentifier IDENTIFIER = MinecraftChannelIdentifier.from(CHANNEL);
+
+    private final Object plugin;
+    private final ProxyServer proxy;
+    private volatile BiConsumer<String, byte[]> receiver;
+
+    public VelocityFleetTransport(Object plugin, ProxyServer proxy) {
+        this.plugin = plugin;
+        this.proxy = proxy;
+        proxy.getChannelRegistrar().register(IDENTIFIER);
+        proxy.getEventManager().register(plugin, this);
+    }
+
+    @Subscribe
+    public void onPluginMessage(PluginMessageEvent event) {
+        if (!IDENTIFIER.equals(event.getIdentifier())) {
+            return;
+        }
+        // Never forward the reports, and only trust the ones sent by a backend
+        event.setResult(PluginMessageEvent.ForwardResult.handled());
+        if (!(event.getSource() instanceof ServerConnection)) {
+            return;
+        }
+        BiConsumer<String, byte[]> handler = receiver;
+        if (handler != null) {
+            handler.accept(((ServerConnection) event.getSource()).getServerInfo().getName(), event.getData());
+        }
+    }
+
+    @Override
+    public void send(byte[] report) {
+        // The proxy has nobody to report to
+    }
+
+    @Override
+    public void setReceiver(BiConsumer<String, byte[]> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public Collection<String> getServers() {
+        List<String> names = new ArrayList<>();
+        for (RegisteredServer server : proxy.getAllServers()) {
+            names.add(server.getServerInfo().getName());
+        }
+        return names;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> ping(String server) {
+        return proxy.getServer(server)
+                .map(registered -> registered.ping().handle((ping, error) -> error == null))
+                .orElseGet(() -> CompletableFuture.completedFuture(false));
+    }
+
+    @Override
+    public void close() {
+        receiver = null;
+        proxy.getEventManager().unregisterListener(plugin, this);
+        proxy.getChannelRegistrar().unregister(IDENTIFIER);
+    }
+}
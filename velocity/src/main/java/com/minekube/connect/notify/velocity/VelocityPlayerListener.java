@@ -0,0 +1,32 @@
+package com.minekube.connect.notify.velocity;
+
+import com.minekube.connect.notify.common.PlayerListener;
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
+
+/**
+ * Forwards Velocity player login and disconnect events to Connect Notify.
+ */
+public class VelocityPlayerListener {
+
+    private final PlayerListener listener;
+
+    public VelocityPlayerListener(PlayerListener listener) {
+        this.listener = listener;
+    }
+
+    @Subscribe(order = PostOrder.LAST)
+    public void onPostLogin(PostLoginEvent event) {
+        listener.onPlayerJoin(event.getPlayer().getUniqueId(), event.getPlayer().getUsername());
+    }
+
+    @Subscribe(order = PostOrder.LAST)
+    public void onDisconnect(DisconnectEvent event) {
+        // Players that never finished logging in were never announced as joined
+        if (event.getLoginStatus() == DisconnectEvent.LoginStatus.SUCCESSFUL_LOGIN) {
+            listener.onPlayerQuit(event.getPlayer().getUniqueId(), event.getPlayer().getUsername());
+        }
+    }
+}